@@ -0,0 +1,59 @@
+package com.tarun.benchmark;
+
+import com.tarun.service.DeliveryService;
+import com.tarun.service.OnboardingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a matching pass over a large backlog
+ * Each invocation starts with 100k pending orders and no drivers, then onboards 10k drivers
+ * and runs assignPendingOrders until every driver is matched. The engine thread may pick up
+ * part of the work, assignPendingOrders returns once the pass is complete either way
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AssignPendingOrdersBenchmark {
+    @Param("100000")
+    public int pendingOrders;
+
+    @Param("10000")
+    public int drivers;
+
+    private DeliveryService deliveryService;
+    private OnboardingService onboardingService;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        BenchmarkSupport.silenceConsole();
+        deliveryService = BenchmarkSupport.freshDeliveryService();
+        onboardingService = new OnboardingService();
+        onboardingService.onboardCustomer("C1", "Customer");
+        Random random = new Random(42);
+        for (int i = 0; i < pendingOrders; i++) {
+            deliveryService.placeOrder("C1", "ITEM002", 12.8 + random.nextDouble() * 0.4, 77.4 + random.nextDouble() * 0.4);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        deliveryService.shutdown();
+        BenchmarkSupport.restoreConsole();
+    }
+
+    @Benchmark
+    public void assignPendingOrders() {
+        Random random = new Random(7);
+        for (int i = 0; i < drivers; i++) {
+            onboardingService.onboardDriver("D" + i, "Driver " + i,
+                    12.8 + random.nextDouble() * 0.4, 77.4 + random.nextDouble() * 0.4);
+        }
+        deliveryService.assignPendingOrders();
+    }
+}
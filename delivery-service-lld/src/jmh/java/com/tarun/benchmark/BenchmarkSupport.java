@@ -0,0 +1,48 @@
+package com.tarun.benchmark;
+
+import com.tarun.repository.CustomerRepository;
+import com.tarun.repository.DriverRepository;
+import com.tarun.service.DeliveryService;
+import com.tarun.service.NotificationService;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Shared fixture code for the benchmarks
+ * Every fixture starts from fresh singleton repositories, discards console output and sends
+ * notifications nowhere, so iterations measure the delivery logic rather than I/O
+ */
+final class BenchmarkSupport {
+    private static final PrintStream CONSOLE = System.out;
+
+    private BenchmarkSupport() {}
+
+    /**
+     * Notification service that drops everything
+     */
+    static final class NoOpNotificationService implements NotificationService {
+        @Override
+        public void sendEmail(String recipient, String subject, String message) {}
+
+        @Override
+        public void sendSMS(String phoneNumber, String message) {}
+    }
+
+    /**
+     * Resets the singleton repositories and creates a DeliveryService on top of them
+     */
+    static DeliveryService freshDeliveryService() {
+        CustomerRepository.resetInstance();
+        DriverRepository.resetInstance();
+        return new DeliveryService(1000, new NoOpNotificationService());
+    }
+
+    static void silenceConsole() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    static void restoreConsole() {
+        System.setOut(CONSOLE);
+    }
+}
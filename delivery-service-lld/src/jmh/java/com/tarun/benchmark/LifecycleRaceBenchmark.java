@@ -0,0 +1,87 @@
+package com.tarun.benchmark;
+
+import com.tarun.service.DeliveryService;
+import com.tarun.service.OnboardingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contended pickup, deliver and cancel calls racing on the same orders
+ * Every thread of the group walks the same order sequence: pickers try to pick each order up,
+ * deliverers try to deliver it and cancellers try to cancel it, so most calls hit an order that
+ * another thread is transitioning at the same moment. Once a thread has walked all orders its
+ * calls only exercise the rejection path, so ORDERS is sized well above what one iteration uses
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class LifecycleRaceBenchmark {
+    private static final int ORDERS = 1 << 19;
+    private static final int DRIVERS = 64;
+
+    private DeliveryService deliveryService;
+    private String[] orderIds;
+    private String[] driverIds;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            next = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        BenchmarkSupport.silenceConsole();
+        deliveryService = BenchmarkSupport.freshDeliveryService();
+        OnboardingService onboardingService = new OnboardingService();
+        onboardingService.onboardCustomer("C1", "Customer");
+        driverIds = new String[DRIVERS];
+        for (int i = 0; i < DRIVERS; i++) {
+            driverIds[i] = "D" + i;
+            onboardingService.onboardDriver(driverIds[i], "Driver " + i);
+            onboardingService.getDriver(driverIds[i]).setAvailable(false, System.currentTimeMillis());
+        }
+        orderIds = new String[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            orderIds[i] = deliveryService.placeOrder("C1", "ITEM003");
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        deliveryService.shutdown();
+        BenchmarkSupport.restoreConsole();
+    }
+
+    @Benchmark
+    @Group("lifecycleRace")
+    @GroupThreads(2)
+    public boolean pickup(Cursor cursor) {
+        int i = cursor.next++ & (ORDERS - 1);
+        return deliveryService.pickupOrder(driverIds[i % DRIVERS], orderIds[i]);
+    }
+
+    @Benchmark
+    @Group("lifecycleRace")
+    @GroupThreads(2)
+    public boolean deliver(Cursor cursor) {
+        int i = cursor.next++ & (ORDERS - 1);
+        return deliveryService.deliverOrder(driverIds[i % DRIVERS], orderIds[i]);
+    }
+
+    @Benchmark
+    @Group("lifecycleRace")
+    @GroupThreads(1)
+    public boolean cancel(Cursor cursor) {
+        int i = cursor.next++ & (ORDERS - 1);
+        return deliveryService.cancelOrder(orderIds[i]);
+    }
+}
@@ -0,0 +1,52 @@
+package com.tarun.benchmark;
+
+import com.tarun.service.DeliveryService;
+import com.tarun.service.OnboardingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * placeOrder throughput with concurrent callers
+ * No drivers are onboarded, so orders stay pending and the assignment engine only queues them.
+ * Change the thread count with -t
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class PlaceOrderBenchmark {
+    private static final int CUSTOMERS = 1_000;
+
+    private DeliveryService deliveryService;
+    private String[] customerIds;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        BenchmarkSupport.silenceConsole();
+        deliveryService = BenchmarkSupport.freshDeliveryService();
+        OnboardingService onboardingService = new OnboardingService();
+        customerIds = new String[CUSTOMERS];
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerIds[i] = "C" + i;
+            onboardingService.onboardCustomer(customerIds[i], "Customer " + i);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        deliveryService.shutdown();
+        BenchmarkSupport.restoreConsole();
+    }
+
+    @Benchmark
+    public String placeOrder() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return deliveryService.placeOrder(customerIds[random.nextInt(CUSTOMERS)], "ITEM001",
+                12.9 + random.nextDouble() * 0.2, 77.5 + random.nextDouble() * 0.2);
+    }
+}
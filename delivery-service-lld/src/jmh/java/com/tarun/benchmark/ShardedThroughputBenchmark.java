@@ -0,0 +1,64 @@
+package com.tarun.benchmark;
+
+import com.tarun.service.ShardRouting;
+import com.tarun.service.ShardedDeliveryService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end order throughput of ShardedDeliveryService as shards are added
+ * Every operation places an order and waits until it is assigned, picked up, delivered and rated.
+ * Run with -t matching the core count to see how matching scales with shards
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ShardedThroughputBenchmark {
+    private static final int CUSTOMERS = 2_000;
+    private static final int DRIVERS = 2_000;
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    @Param({"CUSTOMER", "ZONE"})
+    public ShardRouting routing;
+
+    private ShardedDeliveryService deliveryService;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        BenchmarkSupport.silenceConsole();
+        deliveryService = new ShardedDeliveryService(shards, routing, 1000, new BenchmarkSupport.NoOpNotificationService());
+        deliveryService.start();
+        Random random = new Random(42);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            deliveryService.onboardCustomer("C" + i, "Customer " + i);
+        }
+        for (int i = 0; i < DRIVERS; i++) {
+            deliveryService.onboardDriver("D" + i, "Driver " + i,
+                    12.8 + random.nextDouble() * 0.4, 77.4 + random.nextDouble() * 0.4);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        deliveryService.shutdown();
+        BenchmarkSupport.restoreConsole();
+    }
+
+    @Benchmark
+    public boolean placeAndComplete() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String customerId = "C" + random.nextInt(CUSTOMERS);
+        String orderId = deliveryService.placeOrder(customerId, "ITEM001",
+                12.8 + random.nextDouble() * 0.4, 77.4 + random.nextDouble() * 0.4);
+        return deliveryService.completeOrder(orderId, customerId, 4.0);
+    }
+}
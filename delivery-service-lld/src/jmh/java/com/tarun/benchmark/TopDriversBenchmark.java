@@ -0,0 +1,62 @@
+package com.tarun.benchmark;
+
+import com.tarun.model.Driver;
+import com.tarun.service.DeliveryService;
+import com.tarun.service.OnboardingService;
+import com.tarun.strategy.DriverRankingStrategy;
+import com.tarun.strategy.OrderCountRankingStrategy;
+import com.tarun.strategy.RatingRankingStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * showTopDrivers over a large population of drivers with completed orders
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TopDriversBenchmark {
+    @Param({"10000", "100000"})
+    public int drivers;
+
+    @Param({"rating", "orders"})
+    public String ranking;
+
+    private DeliveryService deliveryService;
+    private DriverRankingStrategy strategy;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkSupport.silenceConsole();
+        deliveryService = BenchmarkSupport.freshDeliveryService();
+        strategy = "rating".equals(ranking) ? new RatingRankingStrategy() : new OrderCountRankingStrategy();
+        OnboardingService onboardingService = new OnboardingService();
+        Random random = new Random(42);
+        for (int i = 0; i < drivers; i++) {
+            onboardingService.onboardDriver("D" + i, "Driver " + i);
+            Driver driver = onboardingService.getDriver("D" + i);
+            driver.setAvailable(false, System.currentTimeMillis());
+            int completed = 1 + random.nextInt(50);
+            for (int j = 0; j < completed; j++) {
+                driver.incrementCompletedOrders();
+                driver.addRating(1.0 + random.nextInt(41) / 10.0, System.currentTimeMillis());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        deliveryService.shutdown();
+        BenchmarkSupport.restoreConsole();
+    }
+
+    @Benchmark
+    public String showTopDrivers() {
+        return deliveryService.showTopDrivers(strategy, 10);
+    }
+}
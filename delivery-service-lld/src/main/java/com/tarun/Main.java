@@ -2,6 +2,7 @@ package com.tarun;
 
 import com.tarun.service.DeliveryService;
 import com.tarun.service.OnboardingService;
+import com.tarun.strategy.DecayedRatingRankingStrategy;
 import com.tarun.strategy.OrderCountRankingStrategy;
 import com.tarun.strategy.RatingRankingStrategy;
 
@@ -149,6 +150,7 @@ public class Main {
             System.out.println("\n--- Test Case 9: Top Drivers Dashboard ---");
             System.out.println(deliveryService.showTopDrivers(new OrderCountRankingStrategy(), 10));
             System.out.println(deliveryService.showTopDrivers(new RatingRankingStrategy(), 10));
+            System.out.println(deliveryService.showTopDrivers(new DecayedRatingRankingStrategy(), 10));
 
             // Test Case 10: Try to cancel picked up order (should fail)
             System.out.println("\n--- Test Case 10: Cancel Picked Order (Error Case) ---");
@@ -194,6 +196,7 @@ public class Main {
             // Final System Summary
             System.out.println("\n--- Final System Summary ---");
             deliveryService.printSystemSummary();
+            System.out.println(deliveryService.showMetrics());
 
             System.out.println("\n========== Demo Completed Successfully ==========\n");
 
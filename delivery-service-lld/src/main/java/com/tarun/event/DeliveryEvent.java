@@ -0,0 +1,141 @@
+package com.tarun.event;
+
+import com.tarun.model.OrderStatus;
+
+/**
+ * One order or driver state change
+ * Instances are preallocated ring buffer slots overwritten on every lap, so fields not used by
+ * the event type are reset rather than left over: null for references, NaN for coordinates.
+ * Order events carry the order state version, so consumers can discard transitions of one order
+ * that were published out of order
+ */
+public final class DeliveryEvent {
+    private final int partition;
+    private long sequence;
+    private DeliveryEventType type;
+    private long timestampMillis;
+    private String orderId;
+    private String customerId;
+    private String driverId;
+    private OrderStatus oldStatus;
+    private OrderStatus newStatus;
+    private long version;
+    private int activeOrders;
+    private int capacity;
+    private boolean available;
+    private double latitude;
+    private double longitude;
+    private double averageRating;
+    private int completedOrders;
+
+    DeliveryEvent(int partition) {
+        this.partition = partition;
+    }
+
+    public int getPartition() { return partition; }
+    public long getSequence() { return sequence; }
+    public DeliveryEventType getType() { return type; }
+    public long getTimestampMillis() { return timestampMillis; }
+    public String getOrderId() { return orderId; }
+    public String getCustomerId() { return customerId; }
+    public String getDriverId() { return driverId; }
+    public OrderStatus getOldStatus() { return oldStatus; }
+    public OrderStatus getNewStatus() { return newStatus; }
+    public long getVersion() { return version; }
+    public int getActiveOrders() { return activeOrders; }
+    public int getCapacity() { return capacity; }
+    public boolean isAvailable() { return available; }
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public double getAverageRating() { return averageRating; }
+    public int getCompletedOrders() { return completedOrders; }
+
+    void setOrder(DeliveryEventType type, long timestampMillis, String orderId, String customerId, String driverId,
+                  OrderStatus oldStatus, OrderStatus newStatus, long version) {
+        this.type = type;
+        this.timestampMillis = timestampMillis;
+        this.orderId = orderId;
+        this.customerId = customerId;
+        this.driverId = driverId;
+        this.oldStatus = oldStatus;
+        this.newStatus = newStatus;
+        this.version = version;
+        this.activeOrders = 0;
+        this.capacity = 0;
+        this.available = false;
+        this.latitude = Double.NaN;
+        this.longitude = Double.NaN;
+        this.averageRating = 0.0;
+        this.completedOrders = 0;
+    }
+
+    void setDriver(long timestampMillis, String driverId, int activeOrders, int capacity, boolean available,
+                   double latitude, double longitude, double averageRating, int completedOrders) {
+        this.type = DeliveryEventType.DRIVER_UPDATED;
+        this.timestampMillis = timestampMillis;
+        this.orderId = null;
+        this.customerId = null;
+        this.driverId = driverId;
+        this.oldStatus = null;
+        this.newStatus = null;
+        this.version = 0;
+        this.activeOrders = activeOrders;
+        this.capacity = capacity;
+        this.available = available;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.averageRating = averageRating;
+        this.completedOrders = completedOrders;
+    }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Returns a detached copy that stays valid after the slot is reused
+     */
+    public DeliveryEvent copy() {
+        DeliveryEvent copy = new DeliveryEvent(partition);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    void copyFrom(DeliveryEvent other) {
+        this.sequence = other.sequence;
+        this.type = other.type;
+        this.timestampMillis = other.timestampMillis;
+        this.orderId = other.orderId;
+        this.customerId = other.customerId;
+        this.driverId = other.driverId;
+        this.oldStatus = other.oldStatus;
+        this.newStatus = other.newStatus;
+        this.version = other.version;
+        this.activeOrders = other.activeOrders;
+        this.capacity = other.capacity;
+        this.available = other.available;
+        this.latitude = other.latitude;
+        this.longitude = other.longitude;
+        this.averageRating = other.averageRating;
+        this.completedOrders = other.completedOrders;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(type).append(" #").append(partition).append('/').append(sequence).append(" at ").append(timestampMillis);
+        if (type == DeliveryEventType.DRIVER_UPDATED) {
+            sb.append(" driver=").append(driverId)
+                    .append(" active=").append(activeOrders).append('/').append(capacity)
+                    .append(" available=").append(available)
+                    .append(" rating=").append(String.format("%.2f", averageRating))
+                    .append(" completed=").append(completedOrders);
+        } else {
+            sb.append(" order=").append(orderId).append(" customer=").append(customerId)
+                    .append(" driver=").append(driverId)
+                    .append(' ').append(oldStatus).append(" -> ").append(newStatus)
+                    .append(" v").append(version);
+        }
+        return sb.toString();
+    }
+}
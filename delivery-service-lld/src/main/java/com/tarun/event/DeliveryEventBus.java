@@ -0,0 +1,157 @@
+package com.tarun.event;
+
+import com.tarun.model.Driver;
+import com.tarun.model.Location;
+import com.tarun.model.Order;
+import com.tarun.model.OrderState;
+import com.tarun.model.OrderStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process bus of order and driver state changes, built on one ring buffer per partition
+ * Events are routed by order or driver ID, so all events of one entity stay in one partition in
+ * publication order. Each partition has a single writer at a time and any number of subscribers,
+ * each reading at its own pace in batches. Publishing allocates nothing and never waits, since it
+ * runs inside order transitions: while the slowest subscriber of a partition is a full ring behind,
+ * new events of that partition are dropped and counted in getDroppedCount()
+ */
+public class DeliveryEventBus {
+    private final List<EventPartition> partitions;
+    private final WaitStrategy waitStrategy;
+    private final List<EventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a bus with 4 partitions of 4096 events each and blocking subscribers
+     */
+    public DeliveryEventBus() {
+        this(4, 4096, WaitStrategy.BLOCKING);
+    }
+
+    /**
+     * bufferSize is the number of events per partition ring and must be a power of two
+     */
+    public DeliveryEventBus(int partitionCount, int bufferSize, WaitStrategy waitStrategy) {
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("Partition count must be positive");
+        }
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Buffer size must be a power of two");
+        }
+        List<EventPartition> created = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            created.add(new EventPartition(i, bufferSize, waitStrategy));
+        }
+        this.partitions = Collections.unmodifiableList(created);
+        this.waitStrategy = waitStrategy;
+    }
+
+    public int getPartitionCount() {
+        return partitions.size();
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Returns the partition events about the given order or driver ID go to
+     */
+    public int partitionOf(String entityId) {
+        return Math.floorMod(entityId.hashCode(), partitions.size());
+    }
+
+    /**
+     * Returns the sequence of the last event published to the partition, -1 if none
+     */
+    public long getCursor(int partition) {
+        return partitions.get(partition).getCursor();
+    }
+
+    /**
+     * Returns how many events were dropped because a subscriber was a full ring behind
+     */
+    public long getDroppedCount() {
+        long dropped = 0;
+        for (EventPartition partition : partitions) {
+            dropped += partition.getDroppedCount();
+        }
+        return dropped;
+    }
+
+    /**
+     * Attaches a subscriber to every partition, starting with the next published event
+     */
+    public EventSubscription subscribe(String name, DeliveryEventHandler handler) {
+        EventSubscription subscription = new EventSubscription(name, handler, partitions);
+        subscriptions.add(subscription);
+        subscription.start();
+        return subscription;
+    }
+
+    public void publishOrderPlaced(Order order, long timestampMillis) {
+        publishOrder(DeliveryEventType.ORDER_PLACED, order, null, OrderStatus.PENDING, timestampMillis);
+    }
+
+    /**
+     * Status notifications of back-to-back transitions may arrive out of order, so the state is read
+     * under the partition lock and a transition already overtaken by a later one is not published
+     * Events of one order therefore always carry increasing versions
+     */
+    public void publishOrderStatusChange(Order order, OrderStatus oldStatus, OrderStatus newStatus,
+                                         long timestampMillis) {
+        publishOrder(DeliveryEventType.ORDER_STATUS_CHANGED, order, oldStatus, newStatus, timestampMillis);
+    }
+
+    private void publishOrder(DeliveryEventType type, Order order, OrderStatus oldStatus, OrderStatus newStatus,
+                              long timestampMillis) {
+        EventPartition partition = partitions.get(partitionOf(order.getId()));
+        synchronized (partition) {
+            OrderState state = order.getState();
+            if (type == DeliveryEventType.ORDER_STATUS_CHANGED && state.getStatus() != newStatus) {
+                return;
+            }
+            long sequence = partition.tryClaim();
+            if (sequence < 0) {
+                return;
+            }
+            partition.slot(sequence).setOrder(type, timestampMillis, order.getId(), order.getCustomerId(),
+                    state.getAssignedDriverId(), oldStatus, newStatus, state.getVersion());
+            partition.publish(sequence);
+        }
+    }
+
+    /**
+     * Publishes the driver's current load, location and stats
+     * They are read under the partition lock, so a later event never shows an older snapshot
+     */
+    public void publishDriverUpdate(Driver driver, long timestampMillis) {
+        EventPartition partition = partitions.get(partitionOf(driver.getId()));
+        synchronized (partition) {
+            Location location = driver.getLocation();
+            long sequence = partition.tryClaim();
+            if (sequence < 0) {
+                return;
+            }
+            partition.slot(sequence).setDriver(timestampMillis, driver.getId(), driver.getActiveOrderCount(),
+                    driver.getCapacity(), driver.isAvailable(),
+                    location != null ? location.getLatitude() : Double.NaN,
+                    location != null ? location.getLongitude() : Double.NaN,
+                    driver.getAverageRating(), driver.getCompletedOrders());
+            partition.publish(sequence);
+        }
+    }
+
+    /**
+     * Closes every subscription after it delivered the events already published
+     */
+    public void shutdown() {
+        for (EventSubscription subscription : subscriptions) {
+            subscription.close();
+        }
+        subscriptions.clear();
+    }
+}
@@ -0,0 +1,23 @@
+package com.tarun.event;
+
+/**
+ * Subscriber callback of a DeliveryEventBus
+ * Events of one partition arrive in publication order on a single thread; different partitions
+ * are delivered on different threads, so a handler subscribed to several partitions must be thread-safe.
+ * Writers never wait for a handler: while a handler is a full ring behind, new events of its partition
+ * are dropped, so a handler should hand slow work off rather than block
+ */
+public interface DeliveryEventHandler {
+
+    /**
+     * Invoked for every event, endOfBatch is true for the last event currently available, which is
+     * the natural point to flush buffered work
+     * The event is a reused ring slot, use copy() to keep it beyond this call
+     */
+    void onEvent(DeliveryEvent event, long sequence, boolean endOfBatch) throws Exception;
+
+    /**
+     * Invoked on each partition's thread after its last event, once the subscription is closed
+     */
+    default void onShutdown(int partition) {}
+}
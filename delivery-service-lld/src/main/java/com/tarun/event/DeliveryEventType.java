@@ -0,0 +1,10 @@
+package com.tarun.event;
+
+/**
+ * Kind of change carried by a DeliveryEvent
+ */
+public enum DeliveryEventType {
+    ORDER_PLACED,           // A new order was saved in PENDING status
+    ORDER_STATUS_CHANGED,   // An order moved from oldStatus to newStatus
+    DRIVER_UPDATED          // A driver was onboarded or its load, location or stats changed
+}
@@ -0,0 +1,235 @@
+package com.tarun.event;
+
+import com.tarun.model.OrderStatus;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Subscriber that appends every event to one log file per partition, so consumers can replay
+ * history from any offset
+ * The offset of an event is its position in its partition's log, counting from 0 and continuing
+ * across restarts. Records are length-prefixed; a torn record at the end of a log, left by a crash,
+ * is cut off when the sink opens. Writes are buffered and flushed at the end of every batch
+ */
+public class EventFileSink implements DeliveryEventHandler {
+    private static final String FILE_PREFIX = "events-p";
+    private static final String FILE_SUFFIX = ".log";
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final FileChannel[] channels;
+    private final DataOutputStream[] outputs;
+    private final long[] nextOffsets;
+    private final ByteArrayOutputStream[] recordBuffers;
+    private final DataOutputStream[] recordOutputs;
+
+    /**
+     * Opens or creates the logs of every partition in the directory
+     */
+    public EventFileSink(Path directory, int partitionCount) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.channels = new FileChannel[partitionCount];
+        this.outputs = new DataOutputStream[partitionCount];
+        this.nextOffsets = new long[partitionCount];
+        this.recordBuffers = new ByteArrayOutputStream[partitionCount];
+        this.recordOutputs = new DataOutputStream[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            Path file = logFile(directory, i);
+            long[] scan = scan(file);
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.truncate(scan[1]);
+            channel.position(scan[1]);
+            channels[i] = channel;
+            outputs[i] = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+            nextOffsets[i] = scan[0];
+            recordBuffers[i] = new ByteArrayOutputStream(256);
+            recordOutputs[i] = new DataOutputStream(recordBuffers[i]);
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the offset the next event of the partition will be written at
+     * Only up to date on the partition's subscriber thread or after the subscription closed
+     */
+    public long getNextOffset(int partition) {
+        return nextOffsets[partition];
+    }
+
+    @Override
+    public void onEvent(DeliveryEvent event, long sequence, boolean endOfBatch) throws IOException {
+        int partition = event.getPartition();
+        ByteArrayOutputStream buffer = recordBuffers[partition];
+        buffer.reset();
+        encode(recordOutputs[partition], event);
+        DataOutputStream out = outputs[partition];
+        out.writeInt(buffer.size());
+        buffer.writeTo(out);
+        nextOffsets[partition]++;
+        if (endOfBatch) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void onShutdown(int partition) {
+        try {
+            outputs[partition].flush();
+            channels[partition].force(false);
+            outputs[partition].close();
+        } catch (IOException e) {
+            System.err.println("ERROR: Failed to close event log " + partition + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the partition's log from fromOffset on, handing each event to the consumer as a detached copy
+     * Events carry their offset as sequence. Returns the offset after the last complete record
+     */
+    public static long replay(Path directory, int partition, long fromOffset, Consumer<DeliveryEvent> consumer)
+            throws IOException {
+        Path file = logFile(directory, partition);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        long offset = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return offset;
+                }
+                if (length <= 0 || length > MAX_RECORD_BYTES) {
+                    return offset;
+                }
+                byte[] record = new byte[length];
+                try {
+                    in.readFully(record);
+                } catch (EOFException e) {
+                    return offset;
+                }
+                if (offset >= fromOffset) {
+                    DeliveryEvent event = decode(record, partition);
+                    event.setSequence(offset);
+                    consumer.accept(event);
+                }
+                offset++;
+            }
+        }
+    }
+
+    private static Path logFile(Path directory, int partition) {
+        return directory.resolve(FILE_PREFIX + partition + FILE_SUFFIX);
+    }
+
+    /**
+     * Returns the number of complete records in the log and the byte length they span
+     */
+    private static long[] scan(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return new long[] {0, 0};
+        }
+        long records = 0;
+        long validBytes = 0;
+        long size = Files.size(file);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            while (validBytes + 4 <= size) {
+                int length = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_BYTES || validBytes + 4 + length > size) {
+                    break;
+                }
+                skipFully(in, length);
+                validBytes += 4 + length;
+                records++;
+            }
+        }
+        return new long[] {records, validBytes};
+    }
+
+    private static void skipFully(InputStream in, long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = in.skip(bytes);
+            if (skipped <= 0) {
+                throw new EOFException();
+            }
+            bytes -= skipped;
+        }
+    }
+
+    private static void encode(DataOutputStream out, DeliveryEvent event) throws IOException {
+        out.writeByte(event.getType().ordinal());
+        out.writeLong(event.getTimestampMillis());
+        if (event.getType() == DeliveryEventType.DRIVER_UPDATED) {
+            out.writeUTF(event.getDriverId());
+            out.writeInt(event.getActiveOrders());
+            out.writeInt(event.getCapacity());
+            out.writeBoolean(event.isAvailable());
+            out.writeDouble(event.getLatitude());
+            out.writeDouble(event.getLongitude());
+            out.writeDouble(event.getAverageRating());
+            out.writeInt(event.getCompletedOrders());
+        } else {
+            out.writeUTF(event.getOrderId());
+            out.writeUTF(event.getCustomerId());
+            writeNullableString(out, event.getDriverId());
+            writeStatus(out, event.getOldStatus());
+            writeStatus(out, event.getNewStatus());
+            out.writeLong(event.getVersion());
+        }
+    }
+
+    private static DeliveryEvent decode(byte[] record, int partition) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        DeliveryEventType type = DeliveryEventType.values()[in.readByte()];
+        long timestampMillis = in.readLong();
+        DeliveryEvent event = new DeliveryEvent(partition);
+        if (type == DeliveryEventType.DRIVER_UPDATED) {
+            event.setDriver(timestampMillis, in.readUTF(), in.readInt(), in.readInt(), in.readBoolean(),
+                    in.readDouble(), in.readDouble(), in.readDouble(), in.readInt());
+        } else {
+            event.setOrder(type, timestampMillis, in.readUTF(), in.readUTF(), readNullableString(in),
+                    readStatus(in), readStatus(in), in.readLong());
+        }
+        return event;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStatus(DataOutputStream out, OrderStatus status) throws IOException {
+        out.writeByte(status != null ? status.ordinal() : -1);
+    }
+
+    private static OrderStatus readStatus(DataInputStream in) throws IOException {
+        byte ordinal = in.readByte();
+        return ordinal >= 0 ? OrderStatus.values()[ordinal] : null;
+    }
+}
@@ -0,0 +1,173 @@
+package com.tarun.event;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Ring buffer of one bus partition in the style of the LMAX Disruptor
+ * Slots are preallocated and reused. Writers take the partition monitor, so there is exactly one
+ * writer at a time and claiming a slot is a plain increment. The writer publishes by advancing the
+ * cursor; every subscriber tracks its own sequence and reads all events up to the cursor as one
+ * batch. Writers never wait: an event that would lap the slowest subscriber is dropped and counted,
+ * since the writers are order transitions that must not stall behind a slow subscriber
+ */
+final class EventPartition {
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long BLOCKING_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final int index;
+    private final DeliveryEvent[] slots;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final List<AtomicLong> gatingSequences = new CopyOnWriteArrayList<>();
+    private final ReentrantLock blockingLock = new ReentrantLock();
+    private final Condition published = blockingLock.newCondition();
+    // Guarded by this
+    private long nextSequence = -1;
+    // Guarded by this, a lower bound of the slowest subscriber's sequence
+    private long cachedGatingSequence = -1;
+
+    EventPartition(int index, int bufferSize, WaitStrategy waitStrategy) {
+        this.index = index;
+        this.slots = new DeliveryEvent[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            slots[i] = new DeliveryEvent(index);
+        }
+        this.mask = bufferSize - 1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    long getCursor() {
+        return cursor.get();
+    }
+
+    long getDroppedCount() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Claims the next sequence, or returns -1 and counts a dropped event if its slot is still
+     * unread by a subscriber
+     * The caller must hold the partition monitor until it published a claimed sequence
+     */
+    long tryClaim() {
+        long sequence = nextSequence + 1;
+        long wrapPoint = sequence - slots.length;
+        if (wrapPoint > cachedGatingSequence) {
+            cachedGatingSequence = minimumGatingSequence();
+            if (wrapPoint > cachedGatingSequence) {
+                droppedEvents.incrementAndGet();
+                return -1;
+            }
+        }
+        nextSequence = sequence;
+        return sequence;
+    }
+
+    /**
+     * Makes the filled slot of a claimed sequence visible to subscribers
+     */
+    void publish(long sequence) {
+        slots[(int) (sequence & mask)].setSequence(sequence);
+        cursor.set(sequence);
+        if (waitStrategy == WaitStrategy.BLOCKING) {
+            blockingLock.lock();
+            try {
+                published.signalAll();
+            } finally {
+                blockingLock.unlock();
+            }
+        }
+    }
+
+    private long minimumGatingSequence() {
+        long minimum = Long.MAX_VALUE;
+        for (AtomicLong sequence : gatingSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        // Without subscribers every slot is free
+        return minimum == Long.MAX_VALUE ? nextSequence : minimum;
+    }
+
+    /**
+     * Registers a subscriber sequence starting after the last published event
+     * Taken under the writer monitor, so no event can slip between the cursor read and the registration
+     */
+    synchronized AtomicLong addSubscriber() {
+        AtomicLong sequence = new AtomicLong(cursor.get());
+        gatingSequences.add(sequence);
+        return sequence;
+    }
+
+    void removeSubscriber(AtomicLong sequence) {
+        gatingSequences.remove(sequence);
+    }
+
+    DeliveryEvent slot(long sequence) {
+        return slots[(int) (sequence & mask)];
+    }
+
+    /**
+     * Waits until the event at sequence is published, returning the highest published sequence
+     * Returns a value below sequence if stillRunning turned false while waiting
+     */
+    long waitFor(long sequence, BooleanSupplier stillRunning) throws InterruptedException {
+        long available;
+        int tries = 0;
+        while ((available = cursor.get()) < sequence) {
+            if (!stillRunning.getAsBoolean()) {
+                return available;
+            }
+            switch (waitStrategy) {
+                case BUSY_SPIN:
+                    Thread.onSpinWait();
+                    break;
+                case YIELDING:
+                    if (++tries > SPIN_TRIES) {
+                        Thread.yield();
+                    } else {
+                        Thread.onSpinWait();
+                    }
+                    break;
+                case SLEEPING:
+                    tries++;
+                    if (tries > SPIN_TRIES + YIELD_TRIES) {
+                        LockSupport.parkNanos(SLEEP_NANOS);
+                    } else if (tries > SPIN_TRIES) {
+                        Thread.yield();
+                    } else {
+                        Thread.onSpinWait();
+                    }
+                    break;
+                case BLOCKING:
+                    blockingLock.lock();
+                    try {
+                        if (cursor.get() < sequence) {
+                            published.awaitNanos(BLOCKING_TIMEOUT_NANOS);
+                        }
+                    } finally {
+                        blockingLock.unlock();
+                    }
+                    break;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return available;
+    }
+}
@@ -0,0 +1,94 @@
+package com.tarun.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A subscriber attached to every partition of a DeliveryEventBus, with one thread per partition
+ * The subscription starts with the first event published after it was created
+ */
+public class EventSubscription {
+    private final String name;
+    private final DeliveryEventHandler handler;
+    private final List<EventPartition> partitions;
+    private final AtomicLong[] sequences;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running = true;
+
+    EventSubscription(String name, DeliveryEventHandler handler, List<EventPartition> partitions) {
+        this.name = name;
+        this.handler = handler;
+        this.partitions = partitions;
+        this.sequences = new AtomicLong[partitions.size()];
+        for (int i = 0; i < partitions.size(); i++) {
+            sequences[i] = partitions.get(i).addSubscriber();
+        }
+    }
+
+    void start() {
+        for (int i = 0; i < partitions.size(); i++) {
+            EventPartition partition = partitions.get(i);
+            AtomicLong sequence = sequences[i];
+            Thread thread = new Thread(() -> process(partition, sequence), "event-" + name + "-p" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the sequence of the last event the subscriber handled in the partition
+     */
+    public long getSequence(int partition) {
+        return sequences[partition].get();
+    }
+
+    /**
+     * Hands every event published to the partition to the handler, one batch per wait
+     * After close, the events already published are still delivered before the thread exits
+     */
+    private void process(EventPartition partition, AtomicLong sequence) {
+        try {
+            while (true) {
+                long next = sequence.get() + 1;
+                long available = partition.waitFor(next, () -> running);
+                if (available < next) {
+                    break;
+                }
+                for (long s = next; s <= available; s++) {
+                    try {
+                        handler.onEvent(partition.slot(s), s, s == available);
+                    } catch (Exception e) {
+                        System.err.println("ERROR: Event subscriber " + name + " failed: " + e.getMessage());
+                    }
+                }
+                sequence.set(available);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            partition.removeSubscriber(sequence);
+            handler.onShutdown(partition.getIndex());
+        }
+    }
+
+    /**
+     * Stops the subscription once it has caught up, waiting up to 5 seconds per partition thread
+     */
+    public void close() {
+        running = false;
+        for (Thread thread : threads) {
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.tarun.event;
+
+/**
+ * How a subscriber waits for the next event when it has caught up with the writer
+ */
+public enum WaitStrategy {
+    BUSY_SPIN,  // Spin on the cursor; lowest latency, keeps one core busy per subscriber thread
+    YIELDING,   // Spin briefly, then yield the core between checks
+    SLEEPING,   // Spin, yield, then park for 100 microseconds between checks
+    BLOCKING    // Park until the writer signals; cheapest on CPU, the writer pays for a lock per event
+}
@@ -0,0 +1,95 @@
+package com.tarun.metrics;
+
+import com.tarun.model.Order;
+import com.tarun.model.OrderState;
+import com.tarun.model.OrderStatus;
+import com.tarun.model.OrderStatusListener;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Latency histograms, counters and gauges for the delivery lifecycle
+ * Stage latencies are derived from the timestamps of the order state when a transition is
+ * observed, so recording is a few arithmetic operations and a histogram increment, with no
+ * allocation. Gauges are only evaluated when a snapshot is taken
+ */
+public class DeliveryMetrics implements OrderStatusListener {
+    private final LatencyHistogram placeToAssignMicros = new LatencyHistogram();
+    private final LatencyHistogram assignToPickupMicros = new LatencyHistogram();
+    private final LatencyHistogram pickupToDeliverMicros = new LatencyHistogram();
+    private final LongAdder autoCancellations = new LongAdder();
+    private final LongAdder cancellations = new LongAdder();
+    private final LongAdder deliveries = new LongAdder();
+    private final IntSupplier pendingOrders;
+    private final IntSupplier idleDrivers;
+
+    public DeliveryMetrics(IntSupplier pendingOrders, IntSupplier idleDrivers) {
+        this.pendingOrders = pendingOrders;
+        this.idleDrivers = idleDrivers;
+    }
+
+    @Override
+    public void onStatusChange(Order order, OrderStatus oldStatus, OrderStatus newStatus) {
+        // The state may already be past newStatus, its earlier timestamps are preserved across transitions
+        OrderState state = order.getState();
+        switch (newStatus) {
+            case ASSIGNED:
+                recordBetween(placeToAssignMicros, order.getCreatedAtMillis(), state.getAssignedAtMillis());
+                break;
+            case PICKED_UP:
+                recordBetween(assignToPickupMicros, state.getAssignedAtMillis(), state.getPickedUpAtMillis());
+                break;
+            case DELIVERED:
+                recordBetween(pickupToDeliverMicros, state.getPickedUpAtMillis(), state.getDeliveredAtMillis());
+                deliveries.increment();
+                break;
+            case CANCELLED:
+                cancellations.increment();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Counts an order cancelled by the pickup timeout, in addition to the cancellation itself
+     */
+    public void recordAutoCancel() {
+        autoCancellations.increment();
+    }
+
+    /**
+     * Order timestamps are epoch millis, so latencies are recorded in micros at millisecond resolution
+     */
+    private static void recordBetween(LatencyHistogram histogram, long fromMillis, long toMillis) {
+        if (fromMillis != OrderState.NOT_SET && toMillis != OrderState.NOT_SET) {
+            histogram.record((toMillis - fromMillis) * 1_000L);
+        }
+    }
+
+    public LatencyHistogram getPlaceToAssignMicros() { return placeToAssignMicros; }
+    public LatencyHistogram getAssignToPickupMicros() { return assignToPickupMicros; }
+    public LatencyHistogram getPickupToDeliverMicros() { return pickupToDeliverMicros; }
+    public long getAutoCancellations() { return autoCancellations.sum(); }
+    public long getCancellations() { return cancellations.sum(); }
+    public long getDeliveries() { return deliveries.sum(); }
+    public int getPendingOrders() { return pendingOrders.getAsInt(); }
+    public int getIdleDrivers() { return idleDrivers.getAsInt(); }
+
+    public DeliveryMetricsSnapshot snapshot() {
+        return new DeliveryMetricsSnapshot(this);
+    }
+
+    /**
+     * Clears histograms and counters, gauges are unaffected
+     */
+    public void reset() {
+        placeToAssignMicros.reset();
+        assignToPickupMicros.reset();
+        pickupToDeliverMicros.reset();
+        autoCancellations.reset();
+        cancellations.reset();
+        deliveries.reset();
+    }
+}
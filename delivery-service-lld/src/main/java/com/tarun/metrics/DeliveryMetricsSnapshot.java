@@ -0,0 +1,70 @@
+package com.tarun.metrics;
+
+import java.time.Instant;
+
+/**
+ * Immutable point-in-time copy of DeliveryMetrics, exportable as text or JSON
+ * Latencies are in microseconds
+ */
+public final class DeliveryMetricsSnapshot {
+    private final Instant takenAt;
+    private final HistogramSnapshot placeToAssign;
+    private final HistogramSnapshot assignToPickup;
+    private final HistogramSnapshot pickupToDeliver;
+    private final long autoCancellations;
+    private final long cancellations;
+    private final long deliveries;
+    private final int pendingOrders;
+    private final int idleDrivers;
+
+    DeliveryMetricsSnapshot(DeliveryMetrics metrics) {
+        this.takenAt = Instant.now();
+        this.placeToAssign = metrics.getPlaceToAssignMicros().snapshot();
+        this.assignToPickup = metrics.getAssignToPickupMicros().snapshot();
+        this.pickupToDeliver = metrics.getPickupToDeliverMicros().snapshot();
+        this.autoCancellations = metrics.getAutoCancellations();
+        this.cancellations = metrics.getCancellations();
+        this.deliveries = metrics.getDeliveries();
+        this.pendingOrders = metrics.getPendingOrders();
+        this.idleDrivers = metrics.getIdleDrivers();
+    }
+
+    public Instant getTakenAt() { return takenAt; }
+    public HistogramSnapshot getPlaceToAssign() { return placeToAssign; }
+    public HistogramSnapshot getAssignToPickup() { return assignToPickup; }
+    public HistogramSnapshot getPickupToDeliver() { return pickupToDeliver; }
+    public long getAutoCancellations() { return autoCancellations; }
+    public long getCancellations() { return cancellations; }
+    public long getDeliveries() { return deliveries; }
+    public int getPendingOrders() { return pendingOrders; }
+    public int getIdleDrivers() { return idleDrivers; }
+
+    public String toJson() {
+        return "{\"takenAt\":\"" + takenAt + "\""
+                + ",\"placeToAssignMicros\":" + placeToAssign.toJson()
+                + ",\"assignToPickupMicros\":" + assignToPickup.toJson()
+                + ",\"pickupToDeliverMicros\":" + pickupToDeliver.toJson()
+                + ",\"autoCancellations\":" + autoCancellations
+                + ",\"cancellations\":" + cancellations
+                + ",\"deliveries\":" + deliveries
+                + ",\"pendingOrders\":" + pendingOrders
+                + ",\"idleDrivers\":" + idleDrivers
+                + "}";
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n=== Delivery Metrics (micros) ===\n");
+        sb.append("Place -> Assign:   ").append(placeToAssign).append("\n");
+        sb.append("Assign -> Pickup:  ").append(assignToPickup).append("\n");
+        sb.append("Pickup -> Deliver: ").append(pickupToDeliver).append("\n");
+        sb.append("Deliveries: ").append(deliveries).append("\n");
+        sb.append("Cancellations: ").append(cancellations)
+                .append(" (auto: ").append(autoCancellations).append(")\n");
+        sb.append("Pending Orders: ").append(pendingOrders).append("\n");
+        sb.append("Idle Drivers: ").append(idleDrivers).append("\n");
+        sb.append("================================\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,10 @@
+package com.tarun.model;
+
+/**
+ * How admission control answered a new order
+ */
+public enum AdmissionOutcome {
+    ACCEPTED,   // Placed, a driver is free to take it right away
+    QUEUED,     // Placed behind the pending backlog, with an estimated wait when one is known
+    REJECTED    // Not placed, the backlog is too deep or the order is invalid
+}
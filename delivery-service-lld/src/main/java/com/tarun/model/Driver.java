@@ -1,44 +1,324 @@
 package com.tarun.model;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * Creates a new driver who is initially available for deliveries
+ * A driver carries up to capacity orders at once. Its on-duty flag and the set of orders it
+ * holds form one immutable load that changes by CAS, so claiming a slot can never overfill it.
+ * Timestamps come from the caller's clock; only the deprecated overloads kept for older callers
+ * read the wall clock
  */
 public class Driver {
+    public static final int DEFAULT_CAPACITY = 1;
+
+    /**
+     * Immutable on-duty flag plus the IDs of the orders the driver currently holds
+     */
+    private static final class Load {
+        private static final Load IDLE = new Load(true, Collections.emptySet());
+
+        private final boolean onDuty;
+        private final Set<String> orderIds;
+
+        private Load(boolean onDuty, Set<String> orderIds) {
+            this.onDuty = onDuty;
+            this.orderIds = orderIds;
+        }
+
+        private Load withOrder(String orderId) {
+            Set<String> updated = new HashSet<>(orderIds);
+            updated.add(orderId);
+            return new Load(onDuty, Collections.unmodifiableSet(updated));
+        }
+
+        private Load withoutOrder(String orderId) {
+            Set<String> updated = new HashSet<>(orderIds);
+            updated.remove(orderId);
+            return new Load(onDuty, Collections.unmodifiableSet(updated));
+        }
+    }
+
     private final String id;
     private final String name;
-    private volatile boolean available;
-    private double totalRating;
-    private int ratingCount;
-    private int completedOrders;
+    private final AtomicReference<Load> load = new AtomicReference<>(Load.IDLE);
+    private volatile int capacity;
+    private volatile long capacitySetAtMillis;
+    private volatile Location location;
+    private volatile long availableSinceMillis;
+    private final AtomicReference<DriverStats> stats = new AtomicReference<>(DriverStats.EMPTY);
+    private volatile DriverStatsListener statsListener;
+    private volatile DriverAvailabilityListener availabilityListener;
 
+    /**
+     * Creates a driver who has been available since now on the wall clock
+     * @deprecated reads the wall clock, use Driver(id, name, nowMillis)
+     */
+    @Deprecated
     public Driver(String id, String name) {
+        this(id, name, DEFAULT_CAPACITY, System.currentTimeMillis());
+    }
+
+    /**
+     * Creates a driver who can carry up to capacity orders, available since now on the wall clock
+     * @deprecated reads the wall clock, use Driver(id, name, capacity, nowMillis)
+     */
+    @Deprecated
+    public Driver(String id, String name, int capacity) {
+        this(id, name, capacity, System.currentTimeMillis());
+    }
+
+    /**
+     * Creates a driver who has been available since nowMillis
+     */
+    public Driver(String id, String name, long nowMillis) {
+        this(id, name, DEFAULT_CAPACITY, nowMillis);
+    }
+
+    /**
+     * Creates a driver who can carry up to capacity orders at once, available since nowMillis
+     */
+    public Driver(String id, String name, int capacity, long nowMillis) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Driver capacity must be at least 1");
+        }
         this.id = id;
         this.name = name;
-        this.available = true;
-        this.totalRating = 0.0;
-        this.ratingCount = 0;
-        this.completedOrders = 0;
+        this.capacity = capacity;
+        this.capacitySetAtMillis = nowMillis;
+        this.availableSinceMillis = nowMillis;
+    }
+
+    /**
+     * Recreates a persisted driver with the capacity it had at capacitySetAtMillis, available since nowMillis
+     */
+    public static Driver restore(String id, String name, int capacity, long capacitySetAtMillis, long nowMillis) {
+        Driver driver = new Driver(id, name, capacity, nowMillis);
+        driver.capacitySetAtMillis = capacitySetAtMillis;
+        return driver;
     }
 
     public String getId() { return id; }
     public String getName() { return name; }
 
-    public synchronized boolean isAvailable() { return available; }
-    public synchronized void setAvailable(boolean available) { this.available = available; }
+    public Location getLocation() { return location; }
+    public void setLocation(Location location) { this.location = location; }
+
+    public int getCapacity() { return capacity; }
+    public long getCapacitySetAtMillis() { return capacitySetAtMillis; }
 
-    public synchronized void addRating(double rating) {
-        totalRating += rating;
-        ratingCount++;
+    /**
+     * Changes how many orders the driver may carry; orders already held are kept even above it
+     */
+    public synchronized void setCapacity(int capacity, long nowMillis) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Driver capacity must be at least 1");
+        }
+        boolean wasAvailable = isAvailable();
+        this.capacity = capacity;
+        this.capacitySetAtMillis = nowMillis;
+        markIfBecameAvailable(wasAvailable, nowMillis);
+        notifyAvailabilityChange();
     }
 
-    public synchronized double getAverageRating() {
-        return ratingCount > 0 ? totalRating / ratingCount : 0.0;
+    /**
+     * Applies a persisted capacity only if it was set after the current one, so recovery never
+     * undoes a capacity configured on a live driver since the record was written
+     * Returns true if the capacity was applied
+     */
+    public synchronized boolean restoreCapacity(int capacity, long capacitySetAtMillis, long nowMillis) {
+        if (capacitySetAtMillis <= this.capacitySetAtMillis) {
+            return false;
+        }
+        setCapacity(capacity, nowMillis);
+        this.capacitySetAtMillis = capacitySetAtMillis;
+        return true;
     }
 
-    public synchronized void incrementCompletedOrders() {
-        completedOrders++;
+    /**
+     * Returns true if the driver is on duty and has a free slot for another order
+     */
+    public boolean isAvailable() {
+        Load current = load.get();
+        return current.onDuty && current.orderIds.size() < capacity;
     }
 
-    public synchronized int getCompletedOrders() { return completedOrders; }
-    public synchronized int getRatingCount() { return ratingCount; }
+    /**
+     * Returns true if the driver is on duty and holds no order
+     */
+    public boolean isIdle() {
+        Load current = load.get();
+        return current.onDuty && current.orderIds.isEmpty();
+    }
+
+    /**
+     * @deprecated reads the wall clock, use setAvailable(available, nowMillis)
+     */
+    @Deprecated
+    public void setAvailable(boolean available) {
+        setAvailable(available, System.currentTimeMillis());
+    }
+
+    /**
+     * Puts the driver on or off duty, keeping the orders it holds
+     */
+    public void setAvailable(boolean available, long nowMillis) {
+        boolean wasAvailable = isAvailable();
+        load.updateAndGet(current -> current.onDuty == available ? current : new Load(available, current.orderIds));
+        markIfBecameAvailable(wasAvailable, nowMillis);
+        notifyAvailabilityChange();
+    }
+
+    public Set<String> getActiveOrderIds() { return load.get().orderIds; }
+    public int getActiveOrderCount() { return load.get().orderIds.size(); }
+
+    /**
+     * Returns when the driver last became available, i.e. the start of its current idle stretch
+     */
+    public long getAvailableSinceMillis() { return availableSinceMillis; }
+
+    /**
+     * Atomically takes an idle driver off duty, e.g. before it moves to another shard
+     * Returns false if the driver is off duty or holds any order
+     */
+    public boolean tryClaim() {
+        Load current = load.get();
+        if (!current.onDuty || !current.orderIds.isEmpty()
+                || !load.compareAndSet(current, new Load(false, current.orderIds))) {
+            return false;
+        }
+        notifyAvailabilityChange();
+        return true;
+    }
+
+    /**
+     * Atomically takes a free slot for the order
+     * Returns false if the driver is off duty, full, or already holds the order
+     */
+    public boolean tryClaim(String orderId) {
+        while (true) {
+            Load current = load.get();
+            if (!current.onDuty || current.orderIds.size() >= capacity || current.orderIds.contains(orderId)) {
+                return false;
+            }
+            if (load.compareAndSet(current, current.withOrder(orderId))) {
+                notifyAvailabilityChange();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot held by the order
+     * Returns false if the driver didn't hold it
+     */
+    public boolean release(String orderId, long nowMillis) {
+        boolean wasAvailable = isAvailable();
+        while (true) {
+            Load current = load.get();
+            if (!current.orderIds.contains(orderId)) {
+                return false;
+            }
+            if (load.compareAndSet(current, current.withoutOrder(orderId))) {
+                markIfBecameAvailable(wasAvailable, nowMillis);
+                notifyAvailabilityChange();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Records a recovered in-flight order as held, regardless of capacity
+     */
+    public void restoreActiveOrder(String orderId) {
+        load.updateAndGet(current -> current.orderIds.contains(orderId) ? current : current.withOrder(orderId));
+        notifyAvailabilityChange();
+    }
+
+    /**
+     * Starts a new idle stretch when the driver just gained a free slot
+     */
+    private void markIfBecameAvailable(boolean wasAvailable, long nowMillis) {
+        if (!wasAvailable && isAvailable()) {
+            availableSinceMillis = nowMillis;
+        }
+    }
+
+    /**
+     * @deprecated reads the wall clock, use addRating(rating, nowMillis)
+     */
+    @Deprecated
+    public void addRating(double rating) {
+        addRating(rating, System.currentTimeMillis());
+    }
+
+    /**
+     * Records a rating given at nowMillis, which is where the decayed rating decays from
+     */
+    public void addRating(double rating, long nowMillis) {
+        stats.updateAndGet(current -> current.withRating(rating, nowMillis));
+        notifyStatsChange();
+    }
+
+    public void incrementCompletedOrders() {
+        stats.updateAndGet(DriverStats::withCompletedOrder);
+        notifyStatsChange();
+    }
+
+    /**
+     * Returns a consistent snapshot of all rating and completion aggregates
+     * Callers needing more than one figure should read them from a single snapshot
+     */
+    public DriverStats getStats() { return stats.get(); }
+
+    public double getAverageRating() { return stats.get().getAverageRating(); }
+    public double getDecayedRating() { return stats.get().getDecayedRating(); }
+    public int getCompletedOrders() { return stats.get().getCompletedOrders(); }
+    public int getRatingCount() { return stats.get().getRatingCount(); }
+    public double getTotalRating() { return stats.get().getTotalRating(); }
+
+    /**
+     * Overwrites the statistics with persisted ones if they are ahead of the current ones
+     */
+    public void restoreStats(DriverStats restored) {
+        DriverStats current;
+        do {
+            current = stats.get();
+            if (!restored.isAheadOf(current)) {
+                return;
+            }
+        } while (!stats.compareAndSet(current, restored));
+        notifyStatsChange();
+    }
+
+    public void setStatsListener(DriverStatsListener statsListener) { this.statsListener = statsListener; }
+
+    public void setAvailabilityListener(DriverAvailabilityListener availabilityListener) {
+        this.availabilityListener = availabilityListener;
+    }
+
+    /**
+     * Notifies the listener after every change that may affect isAvailable
+     * It is called even when availability did not flip, since concurrent changes may have flipped
+     * it back and forth in between; the listener re-reads the current state
+     */
+    private void notifyAvailabilityChange() {
+        DriverAvailabilityListener listener = availabilityListener;
+        if (listener != null) {
+            listener.onAvailabilityChange(this);
+        }
+    }
+
+    /**
+     * Notifies the listener after the new statistics are published
+     */
+    private void notifyStatsChange() {
+        DriverStatsListener listener = statsListener;
+        if (listener != null) {
+            listener.onStatsChange(this);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.tarun.model;
+
+/**
+ * Callback notified whenever the load, duty or capacity of a driver changes
+ */
+public interface DriverAvailabilityListener {
+
+    /**
+     * Invoked after the change; the driver may or may not have become available or unavailable
+     */
+    void onAvailabilityChange(Driver driver);
+}
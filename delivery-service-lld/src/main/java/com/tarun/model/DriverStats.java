@@ -0,0 +1,83 @@
+package com.tarun.model;
+
+/**
+ * Immutable snapshot of a driver's rating and completion aggregates
+ * Updates publish a new snapshot, so readers always see totals that belong together without
+ * taking a lock. Next to the plain average it keeps an exponentially time-decayed rating: every
+ * rating's weight halves each DECAY_HALF_LIFE_MILLIS, so recent ratings dominate while only two
+ * running sums are kept
+ */
+public final class DriverStats {
+    public static final long DECAY_HALF_LIFE_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+    static final DriverStats EMPTY = new DriverStats(0.0, 0, 0, 0.0, 0.0, 0L);
+
+    private final double totalRating;
+    private final int ratingCount;
+    private final int completedOrders;
+    private final double decayedRatingSum;
+    private final double decayedRatingWeight;
+    private final long lastRatedAtMillis;
+
+    private DriverStats(double totalRating, int ratingCount, int completedOrders,
+                        double decayedRatingSum, double decayedRatingWeight, long lastRatedAtMillis) {
+        this.totalRating = totalRating;
+        this.ratingCount = ratingCount;
+        this.completedOrders = completedOrders;
+        this.decayedRatingSum = decayedRatingSum;
+        this.decayedRatingWeight = decayedRatingWeight;
+        this.lastRatedAtMillis = lastRatedAtMillis;
+    }
+
+    /**
+     * Recreates previously persisted aggregates
+     */
+    public static DriverStats restore(double totalRating, int ratingCount, int completedOrders,
+                                      double decayedRatingSum, double decayedRatingWeight, long lastRatedAtMillis) {
+        return new DriverStats(totalRating, ratingCount, completedOrders,
+                decayedRatingSum, decayedRatingWeight, lastRatedAtMillis);
+    }
+
+    /**
+     * Returns the aggregates with one more rating given at ratedAtMillis
+     * Both decayed sums are aged to ratedAtMillis first; ratings arriving out of order are not aged backwards
+     */
+    DriverStats withRating(double rating, long ratedAtMillis) {
+        long elapsed = Math.max(0, ratedAtMillis - lastRatedAtMillis);
+        double decay = ratingCount == 0 ? 0.0 : Math.pow(0.5, (double) elapsed / DECAY_HALF_LIFE_MILLIS);
+        return new DriverStats(totalRating + rating, ratingCount + 1, completedOrders,
+                decayedRatingSum * decay + rating, decayedRatingWeight * decay + 1.0,
+                Math.max(ratedAtMillis, lastRatedAtMillis));
+    }
+
+    DriverStats withCompletedOrder() {
+        return new DriverStats(totalRating, ratingCount, completedOrders + 1,
+                decayedRatingSum, decayedRatingWeight, lastRatedAtMillis);
+    }
+
+    /**
+     * Ratings and completions only ever grow, so their sum orders snapshots of the same driver
+     */
+    boolean isAheadOf(DriverStats other) {
+        return (long) ratingCount + completedOrders > (long) other.ratingCount + other.completedOrders;
+    }
+
+    public double getTotalRating() { return totalRating; }
+    public int getRatingCount() { return ratingCount; }
+    public int getCompletedOrders() { return completedOrders; }
+    public double getDecayedRatingSum() { return decayedRatingSum; }
+    public double getDecayedRatingWeight() { return decayedRatingWeight; }
+    public long getLastRatedAtMillis() { return lastRatedAtMillis; }
+
+    public double getAverageRating() {
+        return ratingCount > 0 ? totalRating / ratingCount : 0.0;
+    }
+
+    /**
+     * Weighted average where each rating counts half as much per half-life of age
+     * Both sums decay at the same rate, so the average does not drift while no ratings arrive
+     */
+    public double getDecayedRating() {
+        return decayedRatingWeight > 0 ? decayedRatingSum / decayedRatingWeight : 0.0;
+    }
+}
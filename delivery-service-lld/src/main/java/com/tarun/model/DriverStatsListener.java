@@ -0,0 +1,12 @@
+package com.tarun.model;
+
+/**
+ * Callback notified whenever the rating or completed order count of a driver changes
+ */
+public interface DriverStatsListener {
+
+    /**
+     * Invoked after the driver statistics have been updated
+     */
+    void onStatsChange(Driver driver);
+}
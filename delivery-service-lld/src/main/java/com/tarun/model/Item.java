@@ -7,14 +7,24 @@ public class Item {
     private final String id;
     private final String name;
     private final String description;
+    private final PriorityClass priorityClass;
 
     public Item(String id, String name, String description) {
+        this(id, name, description, PriorityClass.NORMAL);
+    }
+
+    /**
+     * Creates an item whose orders are matched to drivers with the given priority
+     */
+    public Item(String id, String name, String description, PriorityClass priorityClass) {
         this.id = id;
         this.name = name;
         this.description = description;
+        this.priorityClass = priorityClass;
     }
 
     public String getId() { return id; }
     public String getName() { return name; }
     public String getDescription() { return description; }
+    public PriorityClass getPriorityClass() { return priorityClass; }
 }
@@ -0,0 +1,39 @@
+package com.tarun.model;
+
+/**
+ * Immutable geographic point in decimal degrees
+ */
+public final class Location {
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final double latitude;
+    private final double longitude;
+
+    public Location(double latitude, double longitude) {
+        if (latitude < -90.0 || latitude > 90.0 || longitude < -180.0 || longitude > 180.0) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+
+    /**
+     * Returns the great-circle distance to another location in kilometres (haversine)
+     */
+    public double distanceKm(Location other) {
+        double dLat = Math.toRadians(other.latitude - latitude);
+        double dLon = Math.toRadians(other.longitude - longitude);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(other.latitude))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%.5f, %.5f)", latitude, longitude);
+    }
+}
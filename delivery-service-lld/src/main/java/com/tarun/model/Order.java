@@ -1,43 +1,148 @@
 package com.tarun.model;
 
-
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
+/**
+ * Delivery order whose lifecycle is a lock-free state machine
+ * PENDING -> ASSIGNED -> PICKED_UP -> DELIVERED, with CANCELLED reachable from PENDING and ASSIGNED.
+ * A PENDING order may also be picked up directly by a driver. Each transition is one CAS on an
+ * immutable OrderState, so status, driver and timestamps always change together
+ */
 public class Order {
     private final String id;
     private final String customerId;
     private final String itemId;
-    private final LocalDateTime createdAt;
-    private volatile OrderStatus status;
-    private volatile String assignedDriverId;
-    private LocalDateTime pickedUpAt;
-    private LocalDateTime deliveredAt;
+    private final Location pickupLocation;
+    private final long createdAtMillis;
+    private final AtomicReference<OrderState> state = new AtomicReference<>(OrderState.PENDING);
+    private volatile OrderStatusListener statusListener;
 
     /**
-     * Creates a new order in PENDING status
+     * Creates a new order in PENDING status without a known pickup location, placed now on the wall clock
+     * @deprecated reads the wall clock, pass createdAtMillis from the service's Clock instead
      */
+    @Deprecated
     public Order(String id, String customerId, String itemId) {
+        this(id, customerId, itemId, null, System.currentTimeMillis());
+    }
+
+    /**
+     * Creates a new order in PENDING status placed at createdAtMillis on the caller's clock
+     */
+    public Order(String id, String customerId, String itemId, Location pickupLocation, long createdAtMillis) {
         this.id = id;
         this.customerId = customerId;
         this.itemId = itemId;
-        this.createdAt = LocalDateTime.now();
-        this.status = OrderStatus.PENDING;
+        this.pickupLocation = pickupLocation;
+        this.createdAtMillis = createdAtMillis;
+    }
+
+    /**
+     * Recreates a persisted order with its original creation time and last known state
+     */
+    public static Order restore(String id, String customerId, String itemId, Location pickupLocation,
+                                long createdAtMillis, OrderState state) {
+        Order order = new Order(id, customerId, itemId, pickupLocation, createdAtMillis);
+        order.state.set(state);
+        return order;
     }
 
     public String getId() { return id; }
     public String getCustomerId() { return customerId; }
     public String getItemId() { return itemId; }
-    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Location getPickupLocation() { return pickupLocation; }
+    public long getCreatedAtMillis() { return createdAtMillis; }
+    public LocalDateTime getCreatedAt() { return OrderState.toDateTime(createdAtMillis); }
+
+    public OrderState getState() { return state.get(); }
+    public OrderStatus getStatus() { return state.get().getStatus(); }
+    public String getAssignedDriverId() { return state.get().getAssignedDriverId(); }
+    public LocalDateTime getAssignedAt() { return state.get().getAssignedAt(); }
+    public LocalDateTime getPickedUpAt() { return state.get().getPickedUpAt(); }
+    public LocalDateTime getDeliveredAt() { return state.get().getDeliveredAt(); }
 
-    public synchronized OrderStatus getStatus() { return status; }
-    public synchronized void setStatus(OrderStatus status) { this.status = status; }
+    public void setStatusListener(OrderStatusListener statusListener) { this.statusListener = statusListener; }
 
-    public synchronized String getAssignedDriverId() { return assignedDriverId; }
-    public synchronized void setAssignedDriverId(String driverId) { this.assignedDriverId = driverId; }
+    /**
+     * PENDING -> ASSIGNED to the given driver
+     * Returns the state before the transition, or null if the order is no longer pending
+     */
+    public OrderState assign(String driverId, long assignedAtMillis) {
+        return transition(current -> current.getStatus() == OrderStatus.PENDING
+                ? new OrderState(OrderStatus.ASSIGNED, driverId, assignedAtMillis,
+                        OrderState.NOT_SET, OrderState.NOT_SET, current.getVersion() + 1)
+                : null);
+    }
 
-    public synchronized LocalDateTime getPickedUpAt() { return pickedUpAt; }
-    public synchronized void setPickedUpAt(LocalDateTime pickedUpAt) { this.pickedUpAt = pickedUpAt; }
+    /**
+     * PENDING or ASSIGNED -> PICKED_UP by the given driver
+     * Rejected if the order is assigned to a different driver
+     * Returns the state before the transition, or null if rejected
+     */
+    public OrderState pickUp(String driverId, long pickedUpAtMillis) {
+        return transition(current -> {
+            if (!current.getStatus().canTransitionTo(OrderStatus.PICKED_UP)) {
+                return null;
+            }
+            if (current.getAssignedDriverId() != null && !current.getAssignedDriverId().equals(driverId)) {
+                return null;
+            }
+            return new OrderState(OrderStatus.PICKED_UP, driverId, current.getAssignedAtMillis(),
+                    pickedUpAtMillis, OrderState.NOT_SET, current.getVersion() + 1);
+        });
+    }
 
-    public synchronized LocalDateTime getDeliveredAt() { return deliveredAt; }
-    public synchronized void setDeliveredAt(LocalDateTime deliveredAt) { this.deliveredAt = deliveredAt; }
-}
\ No newline at end of file
+    /**
+     * PICKED_UP -> DELIVERED by the driver who picked the order up
+     * Returns the state before the transition, or null if rejected
+     */
+    public OrderState deliver(String driverId, long deliveredAtMillis) {
+        return transition(current -> current.getStatus() == OrderStatus.PICKED_UP
+                && driverId.equals(current.getAssignedDriverId())
+                ? new OrderState(OrderStatus.DELIVERED, driverId, current.getAssignedAtMillis(),
+                        current.getPickedUpAtMillis(), deliveredAtMillis, current.getVersion() + 1)
+                : null);
+    }
+
+    /**
+     * PENDING or ASSIGNED -> CANCELLED, keeping the assigned driver for the record
+     * Returns the state before the transition, or null if the order was already picked up or finished
+     */
+    public OrderState cancel() {
+        return transition(current -> current.getStatus().canTransitionTo(OrderStatus.CANCELLED)
+                ? new OrderState(OrderStatus.CANCELLED, current.getAssignedDriverId(), current.getAssignedAtMillis(),
+                        OrderState.NOT_SET, OrderState.NOT_SET, current.getVersion() + 1)
+                : null);
+    }
+
+    /**
+     * Replaces the state with a persisted snapshot if it is newer than the current one
+     * Returns the state before the replacement, or null if the snapshot was stale
+     */
+    public OrderState restoreState(OrderState restored) {
+        return transition(current -> restored.getVersion() > current.getVersion() ? restored : null);
+    }
+
+    /**
+     * Applies a transition with a CAS loop and notifies the status listener once it succeeded
+     * The transition function returns null to reject the current state
+     */
+    private OrderState transition(UnaryOperator<OrderState> next) {
+        while (true) {
+            OrderState current = state.get();
+            OrderState updated = next.apply(current);
+            if (updated == null) {
+                return null;
+            }
+            if (state.compareAndSet(current, updated)) {
+                OrderStatusListener listener = statusListener;
+                if (listener != null && current.getStatus() != updated.getStatus()) {
+                    listener.onStatusChange(this, current.getStatus(), updated.getStatus());
+                }
+                return current;
+            }
+        }
+    }
+}
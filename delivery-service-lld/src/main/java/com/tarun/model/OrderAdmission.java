@@ -0,0 +1,60 @@
+package com.tarun.model;
+
+/**
+ * Answer to an order placement under admission control
+ * Placed orders carry their ID; queued ones also the estimated wait for a driver, or
+ * UNKNOWN_WAIT when no assignment was seen recently. Rejected ones carry the reason
+ */
+public class OrderAdmission {
+    public static final long UNKNOWN_WAIT = -1;
+
+    private final AdmissionOutcome outcome;
+    private final String orderId;
+    private final long estimatedWaitMillis;
+    private final String reason;
+
+    private OrderAdmission(AdmissionOutcome outcome, String orderId, long estimatedWaitMillis, String reason) {
+        this.outcome = outcome;
+        this.orderId = orderId;
+        this.estimatedWaitMillis = estimatedWaitMillis;
+        this.reason = reason;
+    }
+
+    public static OrderAdmission accepted() {
+        return new OrderAdmission(AdmissionOutcome.ACCEPTED, null, 0, null);
+    }
+
+    public static OrderAdmission queued(long estimatedWaitMillis) {
+        return new OrderAdmission(AdmissionOutcome.QUEUED, null, estimatedWaitMillis, null);
+    }
+
+    public static OrderAdmission rejected(String reason) {
+        return new OrderAdmission(AdmissionOutcome.REJECTED, null, 0, reason);
+    }
+
+    /**
+     * Returns this decision for the order that was placed because of it
+     */
+    public OrderAdmission forOrder(String orderId) {
+        return new OrderAdmission(outcome, orderId, estimatedWaitMillis, reason);
+    }
+
+    public AdmissionOutcome getOutcome() { return outcome; }
+    public boolean isPlaced() { return outcome != AdmissionOutcome.REJECTED; }
+    public String getOrderId() { return orderId; }
+    public long getEstimatedWaitMillis() { return estimatedWaitMillis; }
+    public String getReason() { return reason; }
+
+    @Override
+    public String toString() {
+        switch (outcome) {
+            case ACCEPTED:
+                return "accepted " + orderId;
+            case QUEUED:
+                return "queued " + orderId + (estimatedWaitMillis == UNKNOWN_WAIT ? ", wait unknown"
+                        : ", estimated wait " + (estimatedWaitMillis + 999) / 1000 + "s");
+            default:
+                return "rejected: " + reason;
+        }
+    }
+}
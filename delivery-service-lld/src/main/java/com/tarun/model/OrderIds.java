@@ -0,0 +1,50 @@
+package com.tarun.model;
+
+/**
+ * Order IDs are a prefix followed by a sequence number zero-padded to at least five digits
+ * Numbers keep growing past 99999, the ID simply gets longer
+ */
+public final class OrderIds {
+    private static final int MIN_DIGITS = 5;
+
+    private OrderIds() {}
+
+    public static String format(String prefix, long number) {
+        String digits = Long.toString(number);
+        StringBuilder sb = new StringBuilder(prefix.length() + Math.max(MIN_DIGITS, digits.length()));
+        sb.append(prefix);
+        for (int i = digits.length(); i < MIN_DIGITS; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    /**
+     * Returns the length of the prefix, i.e. where the trailing digits start
+     * Returns -1 if the ID has no trailing number or it doesn't fit in a long
+     */
+    public static int prefixLength(String orderId) {
+        int start = orderId.length();
+        while (start > 0 && isAsciiDigit(orderId.charAt(start - 1))) {
+            start--;
+        }
+        int digits = orderId.length() - start;
+        return digits == 0 || digits > 18 ? -1 : start;
+    }
+
+    /**
+     * Returns the sequence number of an ID in the canonical format, or -1 if it isn't one
+     */
+    public static long parseNumber(String orderId) {
+        int prefixLength = prefixLength(orderId);
+        if (prefixLength < 0) {
+            return -1;
+        }
+        long number = Long.parseLong(orderId.substring(prefixLength));
+        return format(orderId.substring(0, prefixLength), number).equals(orderId) ? number : -1;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,75 @@
+package com.tarun.model;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One page of an order history, newest order first
+ * Pass the cursor back to fetch the next page; it is null on the last page. A cursor stays valid
+ * while orders are added, since it marks a position in the history rather than an offset
+ */
+public class OrderPage {
+    /**
+     * History order: newest first, ties broken by descending order ID
+     */
+    public static final Comparator<Order> NEWEST_FIRST = Comparator.comparingLong(Order::getCreatedAtMillis)
+            .thenComparing(Order::getId).reversed();
+
+    private static final char CURSOR_SEPARATOR = ':';
+
+    private final List<Order> orders;
+    private final String nextCursor;
+
+    public OrderPage(List<Order> orders, String nextCursor) {
+        this.orders = Collections.unmodifiableList(orders);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Order> getOrders() { return orders; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isLastPage() { return nextCursor == null; }
+
+    /**
+     * Returns the cursor of the page that starts right after the given order
+     */
+    public static String cursorAfter(Order order) {
+        return cursorAt(order.getCreatedAtMillis(), order.getId());
+    }
+
+    /**
+     * Returns the cursor of the page that starts right after the given history position
+     */
+    public static String cursorAt(long createdAtMillis, String orderId) {
+        return Long.toString(createdAtMillis, 36) + CURSOR_SEPARATOR + orderId;
+    }
+
+    /**
+     * Returns the creation time encoded in a cursor
+     * Throws IllegalArgumentException if it is not a cursor returned by cursorAfter
+     */
+    public static long cursorCreatedAtMillis(String cursor) {
+        int separator = cursor.indexOf(CURSOR_SEPARATOR);
+        if (separator <= 0 || separator == cursor.length() - 1) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            return Long.parseLong(cursor.substring(0, separator), 36);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Returns the ID of the last order before the position a cursor marks
+     */
+    public static String cursorOrderId(String cursor) {
+        cursorCreatedAtMillis(cursor);
+        return cursor.substring(cursor.indexOf(CURSOR_SEPARATOR) + 1);
+    }
+
+    @Override
+    public String toString() {
+        return orders.size() + " orders" + (nextCursor != null ? ", more after " + nextCursor : "");
+    }
+}
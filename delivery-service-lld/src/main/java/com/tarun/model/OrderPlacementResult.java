@@ -0,0 +1,31 @@
+package com.tarun.model;
+
+/**
+ * Outcome of one order of a bulk placement: the new order ID, or why it was rejected
+ */
+public class OrderPlacementResult {
+    private final String orderId;
+    private final String error;
+
+    private OrderPlacementResult(String orderId, String error) {
+        this.orderId = orderId;
+        this.error = error;
+    }
+
+    public static OrderPlacementResult placed(String orderId) {
+        return new OrderPlacementResult(orderId, null);
+    }
+
+    public static OrderPlacementResult rejected(String error) {
+        return new OrderPlacementResult(null, error);
+    }
+
+    public boolean isPlaced() { return orderId != null; }
+    public String getOrderId() { return orderId; }
+    public String getError() { return error; }
+
+    @Override
+    public String toString() {
+        return isPlaced() ? "placed " + orderId : "rejected: " + error;
+    }
+}
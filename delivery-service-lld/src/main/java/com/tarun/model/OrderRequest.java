@@ -0,0 +1,35 @@
+package com.tarun.model;
+
+/**
+ * One order of a bulk placement, optionally with a pickup location
+ * Coordinates are validated when the order is placed, so invalid ones fail only that order
+ */
+public class OrderRequest {
+    private final String customerId;
+    private final String itemId;
+    private final boolean hasPickupLocation;
+    private final double latitude;
+    private final double longitude;
+
+    public OrderRequest(String customerId, String itemId) {
+        this.customerId = customerId;
+        this.itemId = itemId;
+        this.hasPickupLocation = false;
+        this.latitude = 0.0;
+        this.longitude = 0.0;
+    }
+
+    public OrderRequest(String customerId, String itemId, double latitude, double longitude) {
+        this.customerId = customerId;
+        this.itemId = itemId;
+        this.hasPickupLocation = true;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public String getCustomerId() { return customerId; }
+    public String getItemId() { return itemId; }
+    public boolean hasPickupLocation() { return hasPickupLocation; }
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+}
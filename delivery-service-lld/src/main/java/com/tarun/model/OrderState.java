@@ -0,0 +1,62 @@
+package com.tarun.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Immutable snapshot of the mutable part of an order
+ * Every transition publishes a new snapshot with the next version, so status, driver and
+ * timestamps are always read together and later snapshots can be told from earlier ones.
+ * Timestamps are epoch milliseconds, NOT_SET until the order reaches that stage. NOT_SET is
+ * Long.MIN_VALUE rather than 0, since a virtual clock may well stamp a transition at epoch 0
+ */
+public final class OrderState {
+    public static final long NOT_SET = Long.MIN_VALUE;
+
+    static final OrderState PENDING = new OrderState(OrderStatus.PENDING, null, NOT_SET, NOT_SET, NOT_SET, 0);
+
+    private final OrderStatus status;
+    private final String assignedDriverId;
+    private final long assignedAtMillis;
+    private final long pickedUpAtMillis;
+    private final long deliveredAtMillis;
+    private final int version;
+
+    OrderState(OrderStatus status, String assignedDriverId, long assignedAtMillis, long pickedUpAtMillis,
+               long deliveredAtMillis, int version) {
+        this.status = status;
+        this.assignedDriverId = assignedDriverId;
+        this.assignedAtMillis = assignedAtMillis;
+        this.pickedUpAtMillis = pickedUpAtMillis;
+        this.deliveredAtMillis = deliveredAtMillis;
+        this.version = version;
+    }
+
+    /**
+     * Recreates a previously persisted snapshot
+     */
+    public static OrderState restore(OrderStatus status, String assignedDriverId, long assignedAtMillis,
+                                     long pickedUpAtMillis, long deliveredAtMillis, int version) {
+        return new OrderState(status, assignedDriverId, assignedAtMillis, pickedUpAtMillis, deliveredAtMillis, version);
+    }
+
+    public OrderStatus getStatus() { return status; }
+    public String getAssignedDriverId() { return assignedDriverId; }
+    public long getAssignedAtMillis() { return assignedAtMillis; }
+    public long getPickedUpAtMillis() { return pickedUpAtMillis; }
+    public long getDeliveredAtMillis() { return deliveredAtMillis; }
+    public int getVersion() { return version; }
+
+    public LocalDateTime getAssignedAt() { return toDateTime(assignedAtMillis); }
+    public LocalDateTime getPickedUpAt() { return toDateTime(pickedUpAtMillis); }
+    public LocalDateTime getDeliveredAt() { return toDateTime(deliveredAtMillis); }
+
+    /**
+     * Converts epoch milliseconds to local date-time in the system zone, null if NOT_SET
+     */
+    static LocalDateTime toDateTime(long epochMillis) {
+        return epochMillis == NOT_SET ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -8,5 +8,25 @@ public enum OrderStatus {
     ASSIGNED,     // Driver assigned, waiting for pickup
     PICKED_UP,    // Driver has picked up the order
     DELIVERED,    // Order successfully delivered
-    CANCELLED     // Order cancelled by customer or system
+    CANCELLED;    // Order cancelled by customer or system
+
+    /**
+     * Returns true if the state machine allows moving from this status to the target
+     */
+    public boolean canTransitionTo(OrderStatus target) {
+        switch (this) {
+            case PENDING:
+                return target == ASSIGNED || target == PICKED_UP || target == CANCELLED;
+            case ASSIGNED:
+                return target == PICKED_UP || target == CANCELLED;
+            case PICKED_UP:
+                return target == DELIVERED;
+            default:
+                return false;
+        }
+    }
+
+    public boolean isTerminal() {
+        return this == DELIVERED || this == CANCELLED;
+    }
 }
\ No newline at end of file
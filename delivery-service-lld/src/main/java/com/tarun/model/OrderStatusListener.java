@@ -0,0 +1,12 @@
+package com.tarun.model;
+
+/**
+ * Callback notified whenever an order moves from one status to another
+ */
+public interface OrderStatusListener {
+
+    /**
+     * Invoked after the status of the order has changed
+     */
+    void onStatusChange(Order order, OrderStatus oldStatus, OrderStatus newStatus);
+}
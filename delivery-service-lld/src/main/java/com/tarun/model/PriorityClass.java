@@ -0,0 +1,24 @@
+package com.tarun.model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivery priority of an item category
+ * Pending orders are matched by creation time minus the head start of their class, so an urgent
+ * order overtakes normal ones placed up to its head start earlier, but never older ones
+ */
+public enum PriorityClass {
+    URGENT(TimeUnit.MINUTES.toMillis(10)),  // Time-critical goods such as medicines
+    HIGH(TimeUnit.MINUTES.toMillis(3)),     // Perishable goods such as food
+    NORMAL(0);                              // Everything else, served in placement order
+
+    private final long headStartMillis;
+
+    PriorityClass(long headStartMillis) {
+        this.headStartMillis = headStartMillis;
+    }
+
+    public long getHeadStartMillis() {
+        return headStartMillis;
+    }
+}
@@ -0,0 +1,37 @@
+package com.tarun.persistence;
+
+import com.tarun.model.Location;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Shared field encodings for journal records and snapshots
+ */
+final class Codec {
+    private Codec() {}
+
+    static void writeNullableString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    static void writeLocation(DataOutput out, Location location) throws IOException {
+        out.writeBoolean(location != null);
+        if (location != null) {
+            out.writeDouble(location.getLatitude());
+            out.writeDouble(location.getLongitude());
+        }
+    }
+
+    static Location readLocation(DataInput in) throws IOException {
+        return in.readBoolean() ? new Location(in.readDouble(), in.readDouble()) : null;
+    }
+}
@@ -0,0 +1,495 @@
+package com.tarun.persistence;
+
+import com.tarun.model.*;
+import com.tarun.repository.CustomerRepository;
+import com.tarun.repository.DriverRepository;
+import com.tarun.repository.OrderRepository;
+import com.tarun.timer.Clock;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Write-ahead journal and snapshot persistence for the delivery repositories
+ * Once started, every repository mutation and order transition is appended to a MappedJournal as
+ * a record holding the full resulting state of one entity. Snapshots periodically capture all
+ * repositories and let older journal segments be deleted. Recovery loads the latest snapshot and
+ * replays the journal tail in parallel, partitioned by entity so each entity's records stay in order.
+ * Finished orders past the configured age are periodically moved into a cold archive directory;
+ * archived orders are not part of snapshots, their archive segments are durable on their own
+ */
+public class DeliveryPersistence implements AutoCloseable {
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int SNAPSHOT_MAGIC = 0x44534E50;
+    private static final String ARCHIVE_DIRECTORY = "archive";
+    private static final int ARCHIVE_BATCH_SIZE = 65536;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final JournalRecordType[] RECORD_TYPES = JournalRecordType.values();
+
+    private final PersistenceConfig config;
+    private final CustomerRepository customerRepository;
+    private final DriverRepository driverRepository;
+    private final OrderRepository orderRepository;
+    private final Clock clock;
+    private final Consumer<Customer> customerSavedListener = customer -> append(out -> {
+        out.writeByte(JournalRecordType.CUSTOMER_SAVED.ordinal());
+        writeCustomer(out, customer);
+    });
+    private final Consumer<Driver> driverSavedListener = driver -> append(out -> {
+        out.writeByte(JournalRecordType.DRIVER_SAVED.ordinal());
+        writeDriver(out, driver);
+    });
+    private final DriverStatsListener driverStatsListener = driver -> append(out -> {
+        out.writeByte(JournalRecordType.DRIVER_STATS.ordinal());
+        out.writeUTF(driver.getId());
+        writeDriverStats(out, driver);
+    });
+    private final Consumer<Order> orderPlacedListener = order -> append(out -> {
+        out.writeByte(JournalRecordType.ORDER_PLACED.ordinal());
+        writeOrderHeader(out, order);
+    });
+    private final OrderStatusListener orderStatusListener = (order, oldStatus, newStatus) -> append(out -> {
+        out.writeByte(JournalRecordType.ORDER_STATE.ordinal());
+        out.writeUTF(order.getId());
+        writeOrderState(out, order.getState());
+    });
+    private MappedJournal journal;
+    private ScheduledExecutorService scheduler;
+    private long recoveredSequence;
+
+    public DeliveryPersistence(PersistenceConfig config, CustomerRepository customerRepository,
+                               DriverRepository driverRepository, OrderRepository orderRepository) {
+        this(config, customerRepository, driverRepository, orderRepository, Clock.SYSTEM);
+    }
+
+    /**
+     * Creates the persistence layer judging the age of finished orders for archiving by the given clock
+     * Snapshots and archive checks still run on wall time, they concern the disk, not the orders
+     */
+    public DeliveryPersistence(PersistenceConfig config, CustomerRepository customerRepository,
+                               DriverRepository driverRepository, OrderRepository orderRepository, Clock clock) {
+        this.clock = clock;
+        this.config = config;
+        this.customerRepository = customerRepository;
+        this.driverRepository = driverRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * Loads the latest snapshot and replays newer journal records into the repositories
+     * Must run before start(), so restored entities are not journaled again
+     * Returns the number of journal records replayed
+     */
+    public int recover() throws IOException {
+        Files.createDirectories(config.getDirectory());
+        Path archiveDirectory = config.getDirectory().resolve(ARCHIVE_DIRECTORY);
+        if (config.getArchiveAfterMillis() > 0 || Files.isDirectory(archiveDirectory)) {
+            orderRepository.openArchive(archiveDirectory);
+        }
+        long snapshotSequence = loadLatestSnapshot();
+        List<MappedJournal.Record> tail = MappedJournal.readAfter(config.getDirectory(), snapshotSequence);
+        replay(tail);
+        recoveredSequence = tail.isEmpty() ? snapshotSequence : tail.get(tail.size() - 1).getSequence();
+        System.out.println("Recovered delivery state: snapshot at " + snapshotSequence + ", replayed "
+                + tail.size() + " journal records");
+        return tail.size();
+    }
+
+    /**
+     * Opens a new journal segment, starts journaling repository changes and schedules snapshots and archiving
+     */
+    public void start() throws IOException {
+        journal = new MappedJournal(config.getDirectory(), recoveredSequence + 1, config.getJournalWindowBytes(),
+                config.getGroupCommitMillis(), config.isWaitForSync());
+
+        customerRepository.addSaveListener(customerSavedListener);
+        driverRepository.addSaveListener(driverSavedListener);
+        driverRepository.addStatsListener(driverStatsListener);
+        orderRepository.addSaveListener(orderPlacedListener);
+        orderRepository.addStatusListener(orderStatusListener);
+
+        if (config.getSnapshotIntervalMillis() > 0 || config.getArchiveAfterMillis() > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "delivery-persistence");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        if (config.getSnapshotIntervalMillis() > 0) {
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    snapshot();
+                } catch (Exception e) {
+                    System.err.println("ERROR: Snapshot failed: " + e.getMessage());
+                }
+            }, config.getSnapshotIntervalMillis(), config.getSnapshotIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (config.getArchiveAfterMillis() > 0) {
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    archive();
+                } catch (Exception e) {
+                    System.err.println("ERROR: Order archiving failed: " + e.getMessage());
+                }
+            }, config.getArchiveIntervalMillis(), config.getArchiveIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Moves finished orders without activity for archiveAfterMillis to the cold archive
+     * Returns the number of orders archived
+     */
+    public int archive() throws IOException {
+        long cutoffMillis = clock.currentTimeMillis() - config.getArchiveAfterMillis();
+        int total = 0;
+        int archived;
+        do {
+            archived = orderRepository.archiveFinishedBefore(cutoffMillis, ARCHIVE_BATCH_SIZE);
+            total += archived;
+        } while (archived == ARCHIVE_BATCH_SIZE);
+        return total;
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private void append(RecordWriter writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            writer.write(new DataOutputStream(bytes));
+            journal.append(bytes.toByteArray());
+        } catch (IOException e) {
+            System.err.println("ERROR: Failed to journal delivery change: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a compact snapshot of all repositories and drops the journal segments it covers
+     * The snapshot is fuzzy: changes racing with it are also in the new journal segment, and
+     * replaying them on top of the snapshot is idempotent
+     */
+    public synchronized void snapshot() throws IOException {
+        long sequence = journal.rotate();
+        Path directory = config.getDirectory();
+        Path temp = directory.resolve(SNAPSHOT_PREFIX + "tmp");
+        List<Customer> customers = customerRepository.getAllCustomers();
+        List<Driver> drivers = driverRepository.getAllDrivers();
+        List<Order> orders = new ArrayList<>(orderRepository.getAllOrders());
+
+        try (CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)), new CRC32());
+             DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(sequence);
+            out.writeInt(customers.size());
+            for (Customer customer : customers) {
+                writeCustomer(out, customer);
+            }
+            out.writeInt(drivers.size());
+            for (Driver driver : drivers) {
+                writeDriver(out, driver);
+            }
+            out.writeInt(orders.size());
+            for (Order order : orders) {
+                writeOrderHeader(out, order);
+                writeOrderState(out, order.getState());
+            }
+            out.flush();
+            out.writeLong(checked.getChecksum().getValue());
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Path target = directory.resolve(SNAPSHOT_PREFIX + String.format("%019d", sequence) + SNAPSHOT_SUFFIX);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (Path old : listSnapshots()) {
+            if (!old.equals(target)) {
+                Files.deleteIfExists(old);
+            }
+        }
+        journal.deleteSegmentsUpTo(sequence);
+    }
+
+    /**
+     * Returns the journal sequence covered by the loaded snapshot, 0 if there is none
+     * Falls back to older snapshots if the newest one is corrupt
+     */
+    private long loadLatestSnapshot() throws IOException {
+        List<Path> snapshots = listSnapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            byte[] bytes = Files.readAllBytes(snapshots.get(i));
+            if (bytes.length < 8) {
+                continue;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - 8);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            in.skipBytes(bytes.length - 8);
+            if (in.readLong() != crc.getValue()) {
+                System.err.println("WARN: Skipping corrupt snapshot " + snapshots.get(i));
+                continue;
+            }
+            return applySnapshot(new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 8)));
+        }
+        return 0;
+    }
+
+    private long applySnapshot(DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a delivery snapshot");
+        }
+        long sequence = in.readLong();
+        int customers = in.readInt();
+        for (int i = 0; i < customers; i++) {
+            applyCustomer(in);
+        }
+        int drivers = in.readInt();
+        for (int i = 0; i < drivers; i++) {
+            applyDriver(in);
+        }
+        int orders = in.readInt();
+        for (int i = 0; i < orders; i++) {
+            Order order = readOrderHeader(in);
+            OrderState state = readOrderState(in);
+            // Skips orders archived after the snapshot was taken
+            if (orderRepository.exists(order.getId())) {
+                continue;
+            }
+            orderRepository.save(Order.restore(order.getId(), order.getCustomerId(), order.getItemId(),
+                    order.getPickupLocation(), order.getCreatedAtMillis(), state));
+        }
+        return sequence;
+    }
+
+    /**
+     * Applies journal records on replayThreads workers
+     * Records are partitioned by entity key, so records of one entity are applied in journal order
+     */
+    private void replay(List<MappedJournal.Record> records) throws IOException {
+        int partitions = config.getReplayThreads();
+        List<List<MappedJournal.Record>> partitioned = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            partitioned.add(new ArrayList<>());
+        }
+        for (MappedJournal.Record record : records) {
+            partitioned.get(Math.floorMod(entityKey(record.getBody()).hashCode(), partitions)).add(record);
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(partitions);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (List<MappedJournal.Record> partition : partitioned) {
+                results.add(workers.submit(() -> {
+                    for (MappedJournal.Record record : partition) {
+                        applyRecord(record.getBody());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during journal replay");
+        } catch (ExecutionException e) {
+            throw new IOException("Journal replay failed", e.getCause());
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    /**
+     * Customers, drivers and orders live in separate key spaces, every record starts with the entity id
+     */
+    private static String entityKey(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        JournalRecordType type = RECORD_TYPES[in.readByte()];
+        String id = in.readUTF();
+        switch (type) {
+            case CUSTOMER_SAVED:
+                return "C:" + id;
+            case DRIVER_SAVED:
+            case DRIVER_STATS:
+                return "D:" + id;
+            default:
+                return "O:" + id;
+        }
+    }
+
+    private void applyRecord(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        switch (RECORD_TYPES[in.readByte()]) {
+            case CUSTOMER_SAVED:
+                applyCustomer(in);
+                break;
+            case DRIVER_SAVED:
+                applyDriver(in);
+                break;
+            case DRIVER_STATS: {
+                Driver driver = driverRepository.findById(in.readUTF());
+                DriverStats stats = readDriverStats(in);
+                if (driver != null) {
+                    driver.restoreStats(stats);
+                }
+                break;
+            }
+            case ORDER_PLACED: {
+                Order order = readOrderHeader(in);
+                if (!orderRepository.exists(order.getId())) {
+                    orderRepository.save(order);
+                }
+                break;
+            }
+            case ORDER_STATE: {
+                Order order = orderRepository.findById(in.readUTF());
+                OrderState state = readOrderState(in);
+                if (order != null) {
+                    order.restoreState(state);
+                }
+                break;
+            }
+        }
+    }
+
+    private static void writeCustomer(DataOutput out, Customer customer) throws IOException {
+        out.writeUTF(customer.getId());
+        out.writeUTF(customer.getName());
+    }
+
+    private void applyCustomer(DataInput in) throws IOException {
+        String id = in.readUTF();
+        String name = in.readUTF();
+        if (!customerRepository.exists(id)) {
+            customerRepository.save(new Customer(id, name));
+        }
+    }
+
+    private static void writeDriver(DataOutput out, Driver driver) throws IOException {
+        out.writeUTF(driver.getId());
+        out.writeUTF(driver.getName());
+        out.writeInt(driver.getCapacity());
+        out.writeLong(driver.getCapacitySetAtMillis());
+        Codec.writeLocation(out, driver.getLocation());
+        writeDriverStats(out, driver);
+    }
+
+    private static void writeDriverStats(DataOutput out, Driver driver) throws IOException {
+        DriverStats stats = driver.getStats();
+        out.writeDouble(stats.getTotalRating());
+        out.writeInt(stats.getRatingCount());
+        out.writeInt(stats.getCompletedOrders());
+        out.writeDouble(stats.getDecayedRatingSum());
+        out.writeDouble(stats.getDecayedRatingWeight());
+        out.writeLong(stats.getLastRatedAtMillis());
+    }
+
+    private static DriverStats readDriverStats(DataInput in) throws IOException {
+        double totalRating = in.readDouble();
+        int ratingCount = in.readInt();
+        int completedOrders = in.readInt();
+        double decayedRatingSum = in.readDouble();
+        double decayedRatingWeight = in.readDouble();
+        long lastRatedAtMillis = in.readLong();
+        return DriverStats.restore(totalRating, ratingCount, completedOrders,
+                decayedRatingSum, decayedRatingWeight, lastRatedAtMillis);
+    }
+
+    private void applyDriver(DataInput in) throws IOException {
+        String id = in.readUTF();
+        String name = in.readUTF();
+        int capacity = in.readInt();
+        long capacitySetAtMillis = in.readLong();
+        Location location = Codec.readLocation(in);
+        DriverStats stats = readDriverStats(in);
+        Driver driver = driverRepository.findById(id);
+        if (driver == null) {
+            // Idle stretches are not persisted, a restored driver starts one at recovery time
+            driver = Driver.restore(id, name, capacity, capacitySetAtMillis, clock.currentTimeMillis());
+            driver.setLocation(location);
+            driverRepository.save(driver);
+        } else {
+            // The driver may be shared with a running service that changed its capacity since
+            driver.restoreCapacity(capacity, capacitySetAtMillis, clock.currentTimeMillis());
+        }
+        driver.restoreStats(stats);
+    }
+
+    private static void writeOrderHeader(DataOutput out, Order order) throws IOException {
+        out.writeUTF(order.getId());
+        out.writeUTF(order.getCustomerId());
+        out.writeUTF(order.getItemId());
+        Codec.writeLocation(out, order.getPickupLocation());
+        out.writeLong(order.getCreatedAtMillis());
+    }
+
+    private static Order readOrderHeader(DataInput in) throws IOException {
+        String id = in.readUTF();
+        String customerId = in.readUTF();
+        String itemId = in.readUTF();
+        Location pickupLocation = Codec.readLocation(in);
+        return Order.restore(id, customerId, itemId, pickupLocation, in.readLong(),
+                OrderState.restore(OrderStatus.PENDING, null, OrderState.NOT_SET, OrderState.NOT_SET, OrderState.NOT_SET, 0));
+    }
+
+    private static void writeOrderState(DataOutput out, OrderState state) throws IOException {
+        out.writeByte(state.getStatus().ordinal());
+        Codec.writeNullableString(out, state.getAssignedDriverId());
+        out.writeLong(state.getAssignedAtMillis());
+        out.writeLong(state.getPickedUpAtMillis());
+        out.writeLong(state.getDeliveredAtMillis());
+        out.writeInt(state.getVersion());
+    }
+
+    private static OrderState readOrderState(DataInput in) throws IOException {
+        OrderStatus status = STATUSES[in.readByte()];
+        String driverId = Codec.readNullableString(in);
+        long assignedAt = in.readLong();
+        long pickedUpAt = in.readLong();
+        long deliveredAt = in.readLong();
+        return OrderState.restore(status, driverId, assignedAt, pickedUpAt, deliveredAt, in.readInt());
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        try (Stream<Path> files = Files.list(config.getDirectory())) {
+            return files.filter(p -> p.getFileName().toString().startsWith(SNAPSHOT_PREFIX)
+                            && p.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Takes a final snapshot and closes the journal
+     */
+    @Override
+    public void close() throws IOException {
+        // The customer and driver repositories are usually shared singletons that outlive this journal
+        customerRepository.removeSaveListener(customerSavedListener);
+        driverRepository.removeSaveListener(driverSavedListener);
+        driverRepository.removeStatsListener(driverStatsListener);
+        orderRepository.removeSaveListener(orderPlacedListener);
+        orderRepository.removeStatusListener(orderStatusListener);
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        if (journal != null) {
+            snapshot();
+            journal.close();
+        }
+    }
+}
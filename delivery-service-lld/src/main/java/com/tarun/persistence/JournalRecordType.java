@@ -0,0 +1,13 @@
+package com.tarun.persistence;
+
+/**
+ * Kinds of mutations recorded in the delivery journal
+ * Every record carries the full resulting state of one entity, so replaying it is idempotent
+ */
+public enum JournalRecordType {
+    CUSTOMER_SAVED,
+    DRIVER_SAVED,
+    DRIVER_STATS,
+    ORDER_PLACED,
+    ORDER_STATE
+}
@@ -0,0 +1,314 @@
+package com.tarun.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal split into segment files named after their first sequence number
+ * A segment starts with [magic][window size], followed by records of [length][crc32][sequence][body].
+ * Segments are written through fixed size mapped windows; a length of -1 skips to the next window
+ * and a length of 0 marks the end of the segment. The end marker is rewritten after every record,
+ * and a segment reusing an existing file name is truncated first, so stale records are never read.
+ * Durability is a group commit: a flusher forces the mapped window every groupCommitMillis and
+ * optionally releases writers waiting for their record to be covered
+ */
+public class MappedJournal implements AutoCloseable {
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER_BYTES = 4 + 4 + 8;
+    private static final int SKIP_WINDOW = -1;
+    private static final int SEGMENT_MAGIC = 0x444A524E;
+
+    /**
+     * A decoded journal record
+     */
+    public static final class Record {
+        private final long sequence;
+        private final byte[] body;
+
+        Record(long sequence, byte[] body) {
+            this.sequence = sequence;
+            this.body = body;
+        }
+
+        public long getSequence() { return sequence; }
+        public byte[] getBody() { return body; }
+    }
+
+    private final Path directory;
+    private final int windowBytes;
+    private final long groupCommitMillis;
+    private final boolean waitForSync;
+    private final Object flushMonitor = new Object();
+    private final Thread flusher;
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowOffset;
+    private long nextSequence;
+    private volatile long writtenSequence;
+    private volatile long flushedSequence;
+    private volatile boolean open = true;
+
+    /**
+     * Opens a fresh segment whose first record gets firstSequence
+     */
+    public MappedJournal(Path directory, long firstSequence, int windowBytes, long groupCommitMillis,
+                         boolean waitForSync) throws IOException {
+        this.directory = directory;
+        this.windowBytes = windowBytes;
+        this.groupCommitMillis = groupCommitMillis;
+        this.waitForSync = waitForSync;
+        this.nextSequence = firstSequence;
+        this.writtenSequence = firstSequence - 1;
+        this.flushedSequence = firstSequence - 1;
+        Files.createDirectories(directory);
+        openSegment(firstSequence);
+        if (groupCommitMillis > 0) {
+            flusher = new Thread(this::flushLoop, "journal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Appends a record and returns its sequence number
+     * Depending on the config, returns once the record is durable
+     */
+    public long append(byte[] body) throws IOException {
+        if (body.length + HEADER_BYTES + 4 > windowBytes) {
+            throw new IllegalArgumentException("Journal record of " + body.length + " bytes exceeds window size");
+        }
+        long sequence;
+        synchronized (this) {
+            if (!open) {
+                throw new IOException("Journal is closed");
+            }
+            // Keep 4 bytes free so the end-of-segment marker always fits
+            if (window.remaining() < body.length + HEADER_BYTES + 4) {
+                window.putInt(SKIP_WINDOW);
+                window.force();
+                mapWindow(windowOffset + windowBytes);
+            }
+            sequence = nextSequence++;
+            crc.reset();
+            crc.update(body);
+            window.putInt(body.length);
+            window.putInt((int) crc.getValue());
+            window.putLong(sequence);
+            window.put(body);
+            window.putInt(window.position(), 0);
+            writtenSequence = sequence;
+            if (groupCommitMillis == 0) {
+                window.force();
+                flushedSequence = sequence;
+            }
+        }
+        if (waitForSync && groupCommitMillis > 0) {
+            awaitFlush(sequence);
+        }
+        return sequence;
+    }
+
+    /**
+     * Starts a new segment and returns the sequence of the last record in the previous ones
+     * Used before a snapshot, so older segments can be deleted once the snapshot is durable
+     */
+    public synchronized long rotate() throws IOException {
+        closeSegment();
+        openSegment(nextSequence);
+        return nextSequence - 1;
+    }
+
+    /**
+     * Deletes segments that only contain records up to and including the given sequence
+     */
+    public synchronized void deleteSegmentsUpTo(long sequence) throws IOException {
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            // A segment ends right before the next one starts
+            if (firstSequenceOf(segments.get(i + 1)) - 1 <= sequence) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    public long getLastSequence() {
+        return writtenSequence;
+    }
+
+    private void flushLoop() {
+        while (open) {
+            try {
+                Thread.sleep(groupCommitMillis);
+                flush();
+            } catch (InterruptedException e) {
+                // Closing, the final flush happens in close()
+            } catch (Exception e) {
+                System.err.println("ERROR: Journal flush failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void flush() {
+        MappedByteBuffer current;
+        long target;
+        synchronized (this) {
+            current = window;
+            target = writtenSequence;
+        }
+        if (target > flushedSequence && current != null) {
+            current.force();
+            synchronized (flushMonitor) {
+                flushedSequence = Math.max(flushedSequence, target);
+                flushMonitor.notifyAll();
+            }
+        }
+    }
+
+    private void awaitFlush(long sequence) throws IOException {
+        synchronized (flushMonitor) {
+            while (flushedSequence < sequence) {
+                if (!open) {
+                    throw new IOException("Journal closed before record " + sequence + " was synced");
+                }
+                try {
+                    flushMonitor.wait(groupCommitMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted waiting for journal sync");
+                }
+            }
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path file = directory.resolve(PREFIX + String.format("%019d", firstSequence) + SUFFIX);
+        // A file of this name only holds records recovery could not read, e.g. one torn at its first record
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapWindow(0);
+        window.putInt(SEGMENT_MAGIC);
+        window.putInt(windowBytes);
+        window.putInt(window.position(), 0);
+    }
+
+    private void mapWindow(long offset) throws IOException {
+        windowOffset = offset;
+        window = channel.map(FileChannel.MapMode.READ_WRITE, offset, windowBytes);
+    }
+
+    private void closeSegment() throws IOException {
+        if (window != null) {
+            window.force();
+            flushedSequence = writtenSequence;
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (!open) {
+                return;
+            }
+            open = false;
+            closeSegment();
+        }
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+        synchronized (flushMonitor) {
+            flushMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * Reads every intact record with a sequence greater than afterSequence, in sequence order
+     * Reading a segment stops at the end marker or at the first torn or corrupt record
+     */
+    public static List<Record> readAfter(Path directory, long afterSequence) throws IOException {
+        List<Record> records = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return records;
+        }
+        CRC32 crc = new CRC32();
+        for (Path segment : listSegments(directory)) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size == 0) {
+                    continue;
+                }
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                readSegment(buffer, afterSequence, crc, records);
+            }
+        }
+        return records;
+    }
+
+    private static void readSegment(ByteBuffer buffer, long afterSequence, CRC32 crc, List<Record> records) {
+        if (buffer.remaining() < 8 || buffer.getInt() != SEGMENT_MAGIC) {
+            return;
+        }
+        int windowSize = buffer.getInt();
+        long windowStart = 0;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int length = buffer.getInt();
+            if (length == 0) {
+                return;
+            }
+            if (length == SKIP_WINDOW) {
+                windowStart += windowSize;
+                if (windowStart >= buffer.limit()) {
+                    return;
+                }
+                buffer.position((int) windowStart);
+                continue;
+            }
+            if (length < 0 || length > buffer.remaining() - 12) {
+                return;
+            }
+            int storedCrc = buffer.getInt();
+            long sequence = buffer.getLong();
+            byte[] body = new byte[length];
+            buffer.get(body);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != storedCrc) {
+                return;
+            }
+            if (sequence > afterSequence) {
+                records.add(new Record(sequence, body));
+            }
+        }
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(PREFIX)
+                            && p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,67 @@
+package com.tarun.persistence;
+
+import java.nio.file.Path;
+
+/**
+ * Settings for the delivery write-ahead journal, snapshots and the cold order archive
+ */
+public class PersistenceConfig {
+    private final Path directory;
+    private final long groupCommitMillis;
+    private final boolean waitForSync;
+    private final long snapshotIntervalMillis;
+    private final int journalWindowBytes;
+    private final int replayThreads;
+    private final long archiveAfterMillis;
+    private final long archiveIntervalMillis;
+
+    /**
+     * Creates a config with 10 ms group commits that callers don't wait for, a snapshot every
+     * 5 minutes, 16 MB journal windows, one replay thread per core, and finished orders archived
+     * after an hour without activity, checked every minute
+     */
+    public PersistenceConfig(Path directory) {
+        this(directory, 10, false, 5 * 60 * 1000L, 16 * 1024 * 1024, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a config that archives finished orders after an hour without activity, checked every minute
+     */
+    public PersistenceConfig(Path directory, long groupCommitMillis, boolean waitForSync,
+                             long snapshotIntervalMillis, int journalWindowBytes, int replayThreads) {
+        this(directory, groupCommitMillis, waitForSync, snapshotIntervalMillis, journalWindowBytes, replayThreads,
+                60 * 60 * 1000L, 60 * 1000L);
+    }
+
+    /**
+     * groupCommitMillis = 0 forces the journal after every record
+     * waitForSync makes writers block until the group commit covering their record. Records are
+     * appended from repository listeners, so this holds up the thread making each change, the
+     * assignment engine included, for up to groupCommitMillis per order transition. The matcher's
+     * throughput then drops to about one transition per group commit; enable it only when every change
+     * must be durable before the call that made it returns
+     * snapshotIntervalMillis = 0 disables periodic snapshots
+     * archiveAfterMillis = 0 disables archiving, orders archived earlier stay readable
+     */
+    public PersistenceConfig(Path directory, long groupCommitMillis, boolean waitForSync,
+                             long snapshotIntervalMillis, int journalWindowBytes, int replayThreads,
+                             long archiveAfterMillis, long archiveIntervalMillis) {
+        this.directory = directory;
+        this.groupCommitMillis = groupCommitMillis;
+        this.waitForSync = waitForSync;
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+        this.journalWindowBytes = journalWindowBytes;
+        this.replayThreads = Math.max(1, replayThreads);
+        this.archiveAfterMillis = archiveAfterMillis;
+        this.archiveIntervalMillis = archiveIntervalMillis;
+    }
+
+    public Path getDirectory() { return directory; }
+    public long getGroupCommitMillis() { return groupCommitMillis; }
+    public boolean isWaitForSync() { return waitForSync; }
+    public long getSnapshotIntervalMillis() { return snapshotIntervalMillis; }
+    public int getJournalWindowBytes() { return journalWindowBytes; }
+    public int getReplayThreads() { return replayThreads; }
+    public long getArchiveAfterMillis() { return archiveAfterMillis; }
+    public long getArchiveIntervalMillis() { return archiveIntervalMillis; }
+}
@@ -0,0 +1,464 @@
+package com.tarun.repository;
+
+import com.tarun.model.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * File-backed cold tier for old terminal orders
+ * Every archival batch becomes one immutable segment file: a [magic][row count] header followed by
+ * a deflated stream of columns. The prefix table, sorted order keys and statuses come first, then
+ * per-segment string dictionaries with their code columns, delta-encoded timestamps and coordinates.
+ * Only the key column of each segment stays in memory as its index, 8 bytes per order. A lookup
+ * binary searches the index and decodes the matching segment, the last decoded one is cached
+ */
+class ColdOrderArchive {
+    private static final String PREFIX = "orders-";
+    private static final String SUFFIX = ".cold";
+    private static final String TEMP_FILE = PREFIX + "tmp";
+    private static final int MAGIC = 0x434F4C44;
+    private static final int NUMBER_BITS = 40;
+    private static final long MAX_NUMBER = (1L << NUMBER_BITS) - 1;
+    private static final long ABSENT = Long.MIN_VALUE;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    /**
+     * In-memory index of one segment file
+     * Keys pack the segment-local prefix code with the order number, rows are stored in key order
+     */
+    private static final class Segment {
+        private final Path file;
+        private final String[] prefixes;
+        private final long[] keys;
+
+        Segment(Path file, String[] prefixes, long[] keys) {
+            this.file = file;
+            this.prefixes = prefixes;
+            this.keys = keys;
+        }
+
+        int rowOf(String prefix, long number) {
+            int code = prefixCode(prefix);
+            if (code < 0 || keys.length == 0) {
+                return -1;
+            }
+            long key = ((long) code << NUMBER_BITS) | number;
+            if (key < keys[0] || key > keys[keys.length - 1]) {
+                return -1;
+            }
+            int row = Arrays.binarySearch(keys, key);
+            return row >= 0 ? row : -1;
+        }
+
+        /**
+         * Returns the highest order number stored under the prefix, or -1
+         */
+        long maxNumber(String prefix) {
+            int code = prefixCode(prefix);
+            if (code < 0) {
+                return -1;
+            }
+            int next = Arrays.binarySearch(keys, (long) (code + 1) << NUMBER_BITS);
+            int last = (next >= 0 ? next : -next - 1) - 1;
+            return last >= 0 && keys[last] >>> NUMBER_BITS == code ? keys[last] & MAX_NUMBER : -1;
+        }
+
+        private int prefixCode(String prefix) {
+            for (int i = 0; i < prefixes.length; i++) {
+                if (prefixes[i].equals(prefix)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * All columns of one segment, decoded
+     */
+    private static final class Columns {
+        private final Segment segment;
+        private final byte[] statuses;
+        private final String[] customers;
+        private final String[] items;
+        private final String[] drivers;
+        private final int[] versions;
+        private final long[] createdAt;
+        private final long[] assignedAt;
+        private final long[] pickedUpAt;
+        private final long[] deliveredAt;
+        private final double[] pickupLatitudes;
+        private final double[] pickupLongitudes;
+
+        Columns(Segment segment, DataInputStream in) throws IOException {
+            this.segment = segment;
+            int rows = segment.keys.length;
+            statuses = new byte[rows];
+            in.readFully(statuses);
+            customers = readDictionaryColumn(in, rows);
+            items = readDictionaryColumn(in, rows);
+            drivers = readDictionaryColumn(in, rows);
+            versions = new int[rows];
+            for (int row = 0; row < rows; row++) {
+                versions[row] = in.readInt();
+            }
+            createdAt = new long[rows];
+            long previous = 0;
+            for (int row = 0; row < rows; row++) {
+                previous += in.readLong();
+                createdAt[row] = previous;
+            }
+            assignedAt = readTimeColumn(in, createdAt);
+            pickedUpAt = readTimeColumn(in, createdAt);
+            deliveredAt = readTimeColumn(in, createdAt);
+            pickupLatitudes = new double[rows];
+            pickupLongitudes = new double[rows];
+            for (int row = 0; row < rows; row++) {
+                pickupLatitudes[row] = in.readDouble();
+            }
+            for (int row = 0; row < rows; row++) {
+                pickupLongitudes[row] = in.readDouble();
+            }
+        }
+
+        Order rebuild(int row) {
+            long key = segment.keys[row];
+            String orderId = OrderIds.format(segment.prefixes[(int) (key >>> NUMBER_BITS)], key & MAX_NUMBER);
+            Location pickup = Double.isNaN(pickupLatitudes[row]) ? null
+                    : new Location(pickupLatitudes[row], pickupLongitudes[row]);
+            OrderState state = OrderState.restore(STATUSES[statuses[row]], drivers[row],
+                    assignedAt[row], pickedUpAt[row], deliveredAt[row], versions[row]);
+            return Order.restore(orderId, customers[row], items[row], pickup, createdAt[row], state);
+        }
+    }
+
+    private final Path directory;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final int[] countsByStatus = new int[STATUSES.length];
+    private long nextSegmentNumber;
+    private Segment cachedSegment;
+    private Columns cachedColumns;
+
+    private ColdOrderArchive(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the archive in the directory, loading the index of every existing segment
+     */
+    static ColdOrderArchive open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(TEMP_FILE));
+        ColdOrderArchive archive = new ColdOrderArchive(directory);
+        for (Path file : listSegments(directory)) {
+            archive.segments.add(archive.loadIndex(file));
+            archive.nextSegmentNumber = segmentNumberOf(file) + 1;
+        }
+        return archive;
+    }
+
+    /**
+     * Writes the orders as a new segment and indexes it
+     * The segment is durable once this returns. Orders must have canonical IDs
+     */
+    synchronized void append(List<Order> orders) throws IOException {
+        int rows = orders.size();
+        Map<String, Integer> prefixCodes = new LinkedHashMap<>();
+        long[] unsortedKeys = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            String orderId = orders.get(i).getId();
+            String prefix = orderId.substring(0, OrderIds.prefixLength(orderId));
+            int code = prefixCodes.computeIfAbsent(prefix, p -> prefixCodes.size());
+            unsortedKeys[i] = ((long) code << NUMBER_BITS) | OrderIds.parseNumber(orderId);
+        }
+        Integer[] byKey = new Integer[rows];
+        for (int i = 0; i < rows; i++) {
+            byKey[i] = i;
+        }
+        Arrays.sort(byKey, Comparator.comparingLong(i -> unsortedKeys[i]));
+        List<Order> sorted = new ArrayList<>(rows);
+        long[] keys = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            sorted.add(orders.get(byKey[i]));
+            keys[i] = unsortedKeys[byKey[i]];
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows * 32 + 64);
+        DataOutputStream header = new DataOutputStream(bytes);
+        header.writeInt(MAGIC);
+        header.writeInt(rows);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new DeflaterOutputStream(bytes), 1 << 16))) {
+            writeColumns(out, prefixCodes.keySet(), keys, sorted);
+        }
+
+        Path temp = directory.resolve(TEMP_FILE);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes.toByteArray()));
+            channel.force(true);
+        }
+        Path target = directory.resolve(PREFIX + String.format("%019d", nextSegmentNumber) + SUFFIX);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        nextSegmentNumber++;
+
+        segments.add(new Segment(target, prefixCodes.keySet().toArray(new String[0]), keys));
+        for (Order order : sorted) {
+            countsByStatus[order.getStatus().ordinal()]++;
+        }
+    }
+
+    /**
+     * Returns the archived order with the given ID, or null
+     * Newer segments are searched first
+     */
+    Order find(String orderId) {
+        long number = OrderIds.parseNumber(orderId);
+        if (number < 0 || number > MAX_NUMBER) {
+            return null;
+        }
+        String prefix = orderId.substring(0, OrderIds.prefixLength(orderId));
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Segment segment = segments.get(i);
+            int row = segment.rowOf(prefix, number);
+            if (row >= 0) {
+                try {
+                    return columnsOf(segment).rebuild(row);
+                } catch (IOException e) {
+                    System.err.println("ERROR: Failed to read archived order " + orderId + ": " + e.getMessage());
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    boolean contains(String orderId) {
+        long number = OrderIds.parseNumber(orderId);
+        if (number < 0 || number > MAX_NUMBER) {
+            return false;
+        }
+        String prefix = orderId.substring(0, OrderIds.prefixLength(orderId));
+        for (Segment segment : segments) {
+            if (segment.rowOf(prefix, number) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rebuilds every archived order in turn, decoding one segment at a time
+     */
+    void forEach(Consumer<Order> consumer) throws IOException {
+        for (Segment segment : segments) {
+            Columns columns = columnsOf(segment);
+            for (int row = 0; row < segment.keys.length; row++) {
+                consumer.accept(columns.rebuild(row));
+            }
+        }
+    }
+
+    /**
+     * Returns the highest archived order number with the given ID prefix, or -1 if there is none
+     */
+    long maxOrderNumber(String prefix) {
+        long max = -1;
+        for (Segment segment : segments) {
+            max = Math.max(max, segment.maxNumber(prefix));
+        }
+        return max;
+    }
+
+    synchronized int countByStatus(OrderStatus status) {
+        return countsByStatus[status.ordinal()];
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.keys.length;
+        }
+        return size;
+    }
+
+    private synchronized Columns columnsOf(Segment segment) throws IOException {
+        if (cachedSegment != segment) {
+            try (DataInputStream in = openColumns(segment.file)) {
+                skipIndex(in);
+                cachedColumns = new Columns(segment, in);
+                cachedSegment = segment;
+            }
+        }
+        return cachedColumns;
+    }
+
+    /**
+     * Reads only the prefix table, keys and statuses of a segment
+     */
+    private Segment loadIndex(Path file) throws IOException {
+        try (DataInputStream in = openColumns(file)) {
+            String[] prefixes = readStrings(in);
+            long[] keys = readKeys(in);
+            for (long ignored : keys) {
+                countsByStatus[in.readByte()]++;
+            }
+            return new Segment(file, prefixes, keys);
+        }
+    }
+
+    private static DataInputStream openColumns(Path file) throws IOException {
+        InputStream raw = Files.newInputStream(file);
+        DataInputStream header = new DataInputStream(raw);
+        if (header.readInt() != MAGIC) {
+            raw.close();
+            throw new IOException("Not an order archive segment: " + file);
+        }
+        header.readInt();
+        return new DataInputStream(new BufferedInputStream(new InflaterInputStream(raw), 1 << 16));
+    }
+
+    private static void skipIndex(DataInputStream in) throws IOException {
+        readStrings(in);
+        readKeys(in);
+    }
+
+    private static void writeColumns(DataOutputStream out, Collection<String> prefixes, long[] keys,
+                                     List<Order> orders) throws IOException {
+        int rows = orders.size();
+        writeStrings(out, prefixes);
+        out.writeInt(rows);
+        long previousKey = 0;
+        for (long key : keys) {
+            out.writeLong(key - previousKey);
+            previousKey = key;
+        }
+        for (Order order : orders) {
+            out.writeByte(order.getStatus().ordinal());
+        }
+        writeDictionaryColumn(out, orders, Order::getCustomerId);
+        writeDictionaryColumn(out, orders, Order::getItemId);
+        writeDictionaryColumn(out, orders, Order::getAssignedDriverId);
+        for (Order order : orders) {
+            out.writeInt(order.getState().getVersion());
+        }
+        long previousCreatedAt = 0;
+        for (Order order : orders) {
+            out.writeLong(order.getCreatedAtMillis() - previousCreatedAt);
+            previousCreatedAt = order.getCreatedAtMillis();
+        }
+        for (Order order : orders) {
+            writeTimeDelta(out, order.getState().getAssignedAtMillis(), order.getCreatedAtMillis());
+        }
+        for (Order order : orders) {
+            writeTimeDelta(out, order.getState().getPickedUpAtMillis(), order.getCreatedAtMillis());
+        }
+        for (Order order : orders) {
+            writeTimeDelta(out, order.getState().getDeliveredAtMillis(), order.getCreatedAtMillis());
+        }
+        for (Order order : orders) {
+            Location pickup = order.getPickupLocation();
+            out.writeDouble(pickup != null ? pickup.getLatitude() : Double.NaN);
+        }
+        for (Order order : orders) {
+            Location pickup = order.getPickupLocation();
+            out.writeDouble(pickup != null ? pickup.getLongitude() : Double.NaN);
+        }
+    }
+
+    private static long[] readKeys(DataInputStream in) throws IOException {
+        long[] keys = new long[in.readInt()];
+        long previous = 0;
+        for (int row = 0; row < keys.length; row++) {
+            previous += in.readLong();
+            keys[row] = previous;
+        }
+        return keys;
+    }
+
+    /**
+     * Timestamps other than creation are stored relative to it, so they compress well
+     */
+    private static void writeTimeDelta(DataOutputStream out, long millis, long createdAtMillis) throws IOException {
+        out.writeLong(millis == OrderState.NOT_SET ? ABSENT : millis - createdAtMillis);
+    }
+
+    private static long[] readTimeColumn(DataInputStream in, long[] createdAt) throws IOException {
+        long[] column = new long[createdAt.length];
+        for (int row = 0; row < column.length; row++) {
+            long delta = in.readLong();
+            column[row] = delta == ABSENT ? OrderState.NOT_SET : createdAt[row] + delta;
+        }
+        return column;
+    }
+
+    /**
+     * Writes the distinct values of a string column followed by one code per row, -1 for null
+     */
+    private static void writeDictionaryColumn(DataOutputStream out, List<Order> orders,
+                                              Function<Order, String> column) throws IOException {
+        Map<String, Integer> codes = new LinkedHashMap<>();
+        int[] rowCodes = new int[orders.size()];
+        for (int row = 0; row < rowCodes.length; row++) {
+            String value = column.apply(orders.get(row));
+            rowCodes[row] = value == null ? -1 : codes.computeIfAbsent(value, v -> codes.size());
+        }
+        writeStrings(out, codes.keySet());
+        for (int code : rowCodes) {
+            out.writeInt(code);
+        }
+    }
+
+    private static String[] readDictionaryColumn(DataInputStream in, int rows) throws IOException {
+        String[] values = readStrings(in);
+        String[] column = new String[rows];
+        for (int row = 0; row < rows; row++) {
+            int code = in.readInt();
+            column[row] = code < 0 ? null : values[code];
+        }
+        return column;
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        String[] values = new String[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readUTF();
+        }
+        return values;
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(PREFIX)
+                            && p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long segmentNumberOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,252 @@
+package com.tarun.repository;
+
+import com.tarun.model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Struct-of-arrays storage for orders that reached a terminal status
+ * A finished order never changes again, so instead of an Order object with its strings,
+ * location and state it becomes one row across primitive arrays: dictionary codes for the
+ * prefix, customer, item and driver, epoch millis for every timestamp and raw coordinates.
+ * That takes roughly a quarter of the heap of the object form. Rows are looked up by a key packing
+ * the prefix code with the order number, and reads rebuild an equivalent Order on demand.
+ * Each status keeps a list of its rows, so a status query only visits matching rows, and
+ * removing a row moves the last row into its place instead of compacting the arrays
+ */
+class CompactOrderStore {
+    private static final int NUMBER_BITS = 40;
+    private static final long MAX_NUMBER = (1L << NUMBER_BITS) - 1;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final IdDictionary prefixes = new IdDictionary();
+    private final IdDictionary customers;
+    private final IdDictionary items;
+    private final IdDictionary drivers;
+    private final LongIntHashMap rowsByKey = new LongIntHashMap(1024);
+    private final int[][] rowsByStatus = new int[STATUSES.length][16];
+    private final int[] statusRowCounts = new int[STATUSES.length];
+
+    private int size;
+    private long[] keys = new long[1024];
+    private int[] customerCodes = new int[1024];
+    private int[] itemCodes = new int[1024];
+    private int[] driverCodes = new int[1024];
+    private byte[] statuses = new byte[1024];
+    private int[] versions = new int[1024];
+    private long[] createdAt = new long[1024];
+    private long[] assignedAt = new long[1024];
+    private long[] pickedUpAt = new long[1024];
+    private long[] deliveredAt = new long[1024];
+    private double[] pickupLatitudes = new double[1024];
+    private double[] pickupLongitudes = new double[1024];
+    // Index of each row within its status's row list
+    private int[] statusPositions = new int[1024];
+
+    CompactOrderStore(IdDictionary customers, IdDictionary items, IdDictionary drivers) {
+        this.customers = customers;
+        this.items = items;
+        this.drivers = drivers;
+    }
+
+    /**
+     * Copies the order into a row
+     * Returns false if its ID is not in the canonical prefix plus number format, such orders stay objects
+     */
+    synchronized boolean add(Order order) {
+        long key = keyOf(order.getId(), true);
+        if (key < 0) {
+            return false;
+        }
+        int row = rowsByKey.get(key);
+        if (row < 0) {
+            ensureCapacity();
+            row = size++;
+            rowsByKey.put(key, row);
+        } else {
+            unindexStatus(row);
+        }
+        OrderState state = order.getState();
+        keys[row] = key;
+        customerCodes[row] = customers.encode(order.getCustomerId());
+        itemCodes[row] = items.encode(order.getItemId());
+        driverCodes[row] = drivers.encode(state.getAssignedDriverId());
+        statuses[row] = (byte) state.getStatus().ordinal();
+        versions[row] = state.getVersion();
+        createdAt[row] = order.getCreatedAtMillis();
+        assignedAt[row] = state.getAssignedAtMillis();
+        pickedUpAt[row] = state.getPickedUpAtMillis();
+        deliveredAt[row] = state.getDeliveredAtMillis();
+        Location pickup = order.getPickupLocation();
+        pickupLatitudes[row] = pickup != null ? pickup.getLatitude() : Double.NaN;
+        pickupLongitudes[row] = pickup != null ? pickup.getLongitude() : Double.NaN;
+        indexStatus(row);
+        return true;
+    }
+
+    synchronized Order find(String orderId) {
+        long key = keyOf(orderId, false);
+        int row = key < 0 ? -1 : rowsByKey.get(key);
+        return row < 0 ? null : rebuild(row);
+    }
+
+    synchronized boolean contains(String orderId) {
+        long key = keyOf(orderId, false);
+        return key >= 0 && rowsByKey.get(key) >= 0;
+    }
+
+    synchronized List<Order> findByStatus(OrderStatus status) {
+        int[] rows = rowsByStatus[status.ordinal()];
+        int count = statusRowCounts[status.ordinal()];
+        List<Order> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(rebuild(rows[i]));
+        }
+        return result;
+    }
+
+    synchronized List<Order> findAll() {
+        List<Order> result = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            result.add(rebuild(row));
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to limit orders whose last recorded activity is before cutoffMillis
+     * Cancellation has no timestamp of its own, so the latest of the order's timestamps is used
+     */
+    synchronized List<Order> findFinishedBefore(long cutoffMillis, int limit) {
+        List<Order> result = new ArrayList<>();
+        for (int row = 0; row < size && result.size() < limit; row++) {
+            long lastActivity = Math.max(Math.max(createdAt[row], assignedAt[row]),
+                    Math.max(pickedUpAt[row], deliveredAt[row]));
+            if (lastActivity < cutoffMillis) {
+                result.add(rebuild(row));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops the rows of the given orders, each in O(1) by moving the last row into its place
+     */
+    synchronized void removeAll(List<Order> removed) {
+        for (Order order : removed) {
+            long key = keyOf(order.getId(), false);
+            int row = key < 0 ? -1 : rowsByKey.remove(key);
+            if (row >= 0) {
+                removeRow(row);
+            }
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private void removeRow(int row) {
+        unindexStatus(row);
+        int last = --size;
+        if (row == last) {
+            return;
+        }
+        moveRow(last, row);
+        rowsByKey.put(keys[row], row);
+        statusPositions[row] = statusPositions[last];
+        rowsByStatus[statuses[row]][statusPositions[row]] = row;
+    }
+
+    private void indexStatus(int row) {
+        int status = statuses[row];
+        int count = statusRowCounts[status];
+        if (count == rowsByStatus[status].length) {
+            rowsByStatus[status] = Arrays.copyOf(rowsByStatus[status], count * 2);
+        }
+        rowsByStatus[status][count] = row;
+        statusPositions[row] = count;
+        statusRowCounts[status] = count + 1;
+    }
+
+    /**
+     * Takes the row out of its status's list by moving that list's last row into its place
+     */
+    private void unindexStatus(int row) {
+        int status = statuses[row];
+        int position = statusPositions[row];
+        int lastRow = rowsByStatus[status][--statusRowCounts[status]];
+        rowsByStatus[status][position] = lastRow;
+        statusPositions[lastRow] = position;
+    }
+
+    private void moveRow(int from, int to) {
+        keys[to] = keys[from];
+        customerCodes[to] = customerCodes[from];
+        itemCodes[to] = itemCodes[from];
+        driverCodes[to] = driverCodes[from];
+        statuses[to] = statuses[from];
+        versions[to] = versions[from];
+        createdAt[to] = createdAt[from];
+        assignedAt[to] = assignedAt[from];
+        pickedUpAt[to] = pickedUpAt[from];
+        deliveredAt[to] = deliveredAt[from];
+        pickupLatitudes[to] = pickupLatitudes[from];
+        pickupLongitudes[to] = pickupLongitudes[from];
+    }
+
+    private Order rebuild(int row) {
+        String prefix = prefixes.decode((int) (keys[row] >>> NUMBER_BITS));
+        String orderId = OrderIds.format(prefix, keys[row] & MAX_NUMBER);
+        Location pickup = Double.isNaN(pickupLatitudes[row]) ? null
+                : new Location(pickupLatitudes[row], pickupLongitudes[row]);
+        OrderState state = OrderState.restore(STATUSES[statuses[row]], drivers.decode(driverCodes[row]),
+                assignedAt[row], pickedUpAt[row], deliveredAt[row], versions[row]);
+        return Order.restore(orderId, customers.decode(customerCodes[row]), items.decode(itemCodes[row]),
+                pickup, createdAt[row], state);
+    }
+
+    /**
+     * Packs prefix code and order number into one key, or returns -1 if the ID can't be packed
+     * Lookups never register new prefixes
+     */
+    private long keyOf(String orderId, boolean register) {
+        long number = OrderIds.parseNumber(orderId);
+        if (number < 0 || number > MAX_NUMBER) {
+            return -1;
+        }
+        String prefix = orderId.substring(0, OrderIds.prefixLength(orderId));
+        int prefixCode;
+        if (register) {
+            prefixCode = prefixes.encode(prefix);
+        } else {
+            prefixCode = prefixes.find(prefix);
+            if (prefixCode == IdDictionary.NONE) {
+                return -1;
+            }
+        }
+        return ((long) prefixCode << NUMBER_BITS) | number;
+    }
+
+    private void ensureCapacity() {
+        if (size < keys.length) {
+            return;
+        }
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        customerCodes = Arrays.copyOf(customerCodes, capacity);
+        itemCodes = Arrays.copyOf(itemCodes, capacity);
+        driverCodes = Arrays.copyOf(driverCodes, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        assignedAt = Arrays.copyOf(assignedAt, capacity);
+        pickedUpAt = Arrays.copyOf(pickedUpAt, capacity);
+        deliveredAt = Arrays.copyOf(deliveredAt, capacity);
+        pickupLatitudes = Arrays.copyOf(pickupLatitudes, capacity);
+        pickupLongitudes = Arrays.copyOf(pickupLongitudes, capacity);
+        statusPositions = Arrays.copyOf(statusPositions, capacity);
+    }
+}
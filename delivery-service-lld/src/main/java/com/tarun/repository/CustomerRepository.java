@@ -2,17 +2,23 @@ package com.tarun.repository;
 
 import com.tarun.model.Customer;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.Map;
 
 public class CustomerRepository {
     private static CustomerRepository instance;
     private final Map<String, Customer> customers = new ConcurrentHashMap<>();
+    private final List<Consumer<Customer>> saveListeners = new CopyOnWriteArrayList<>();
 
     /**
-     * Private constructor for singleton pattern
+     * Creates a standalone repository, e.g. for one shard of a ShardedDeliveryService
+     * Most callers share the singleton from getInstance()
      */
-    private CustomerRepository() {}
+    public CustomerRepository() {}
 
     /**
      * Returns the singleton instance of CustomerRepository
@@ -24,8 +30,37 @@ public class CustomerRepository {
         return instance;
     }
 
+    /**
+     * Discards the singleton so the next getInstance() starts from an empty repository
+     * Services created earlier keep the old instance; used to isolate benchmark iterations
+     */
+    public static synchronized void resetInstance() {
+        instance = null;
+    }
+
     public void save(Customer customer) {
         customers.put(customer.getId(), customer);
+        for (Consumer<Customer> listener : saveListeners) {
+            listener.accept(customer);
+        }
+    }
+
+    /**
+     * Registers a callback invoked after every customer save
+     */
+    public void addSaveListener(Consumer<Customer> listener) {
+        saveListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a save callback added through addSaveListener
+     */
+    public void removeSaveListener(Consumer<Customer> listener) {
+        saveListeners.remove(listener);
+    }
+
+    public List<Customer> getAllCustomers() {
+        return new ArrayList<>(customers.values());
     }
 
     /**
@@ -0,0 +1,117 @@
+package com.tarun.repository;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent growable bitmap over dense driver slots
+ * Bits live in 64-bit words updated by CAS. Words are grouped in fixed-size chunks, so growing
+ * only appends chunks and never copies or locks words other threads may be updating. A scan
+ * reads one word at a time and skips empty words with a single comparison. The number of set
+ * bits is counted as they flip, so it is read without a scan
+ */
+final class DriverAvailabilityBitmap {
+    private static final int WORD_BITS = 6;
+    private static final int CHUNK_WORD_BITS = 10;
+    private static final int CHUNK_WORDS = 1 << CHUNK_WORD_BITS;
+    private static final int CHUNK_SLOTS = CHUNK_WORDS << WORD_BITS;
+
+    private volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+    private final LongAdder setBits = new LongAdder();
+
+    /**
+     * Makes room for slots 0 to slots - 1
+     */
+    synchronized void ensureCapacity(int slots) {
+        AtomicLongArray[] current = chunks;
+        int needed = (slots + CHUNK_SLOTS - 1) / CHUNK_SLOTS;
+        if (needed > current.length) {
+            AtomicLongArray[] grown = Arrays.copyOf(current, needed);
+            for (int i = current.length; i < needed; i++) {
+                grown[i] = new AtomicLongArray(CHUNK_WORDS);
+            }
+            chunks = grown;
+        }
+    }
+
+    boolean get(int slot) {
+        return (chunkOf(slot).get(wordIndex(slot)) & bit(slot)) != 0;
+    }
+
+    void set(int slot) {
+        AtomicLongArray words = chunkOf(slot);
+        int index = wordIndex(slot);
+        long mask = bit(slot);
+        long current;
+        do {
+            current = words.get(index);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(index, current, current | mask));
+        setBits.increment();
+    }
+
+    void clear(int slot) {
+        tryClear(slot);
+    }
+
+    /**
+     * Clears the bit, returns true only for the caller that actually turned it from set to clear
+     */
+    boolean tryClear(int slot) {
+        AtomicLongArray words = chunkOf(slot);
+        int index = wordIndex(slot);
+        long mask = bit(slot);
+        long current;
+        do {
+            current = words.get(index);
+            if ((current & mask) == 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(index, current, current & ~mask));
+        setBits.decrement();
+        return true;
+    }
+
+    /**
+     * Returns the first set slot at or after from, or -1 if there is none
+     */
+    int nextSetBit(int from) {
+        AtomicLongArray[] current = chunks;
+        int limit = current.length * CHUNK_SLOTS;
+        if (from < 0 || from >= limit) {
+            return -1;
+        }
+        int wordNumber = from >>> WORD_BITS;
+        long word = current[wordNumber >>> CHUNK_WORD_BITS].get(wordNumber & (CHUNK_WORDS - 1)) & (-1L << from);
+        int totalWords = current.length * CHUNK_WORDS;
+        while (word == 0) {
+            if (++wordNumber == totalWords) {
+                return -1;
+            }
+            word = current[wordNumber >>> CHUNK_WORD_BITS].get(wordNumber & (CHUNK_WORDS - 1));
+        }
+        return (wordNumber << WORD_BITS) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Returns the number of set bits, a moving figure while bits change
+     */
+    int cardinality() {
+        return (int) setBits.sum();
+    }
+
+    private AtomicLongArray chunkOf(int slot) {
+        return chunks[slot / CHUNK_SLOTS];
+    }
+
+    private static int wordIndex(int slot) {
+        return (slot >>> WORD_BITS) & (CHUNK_WORDS - 1);
+    }
+
+    private static long bit(int slot) {
+        return 1L << slot;
+    }
+}
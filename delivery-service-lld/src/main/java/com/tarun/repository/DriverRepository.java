@@ -1,19 +1,42 @@
 package com.tarun.repository;
 
 import com.tarun.model.Driver;
+import com.tarun.model.DriverStatsListener;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Stores drivers and tracks which of them are available
+ * Every saved driver gets a dense integer slot, reused after the driver is removed. One concurrent
+ * bitmap has the slot's bit set while the driver is available, i.e. has a free slot for an order,
+ * and a second one while it is idle, i.e. holds no order at all. Drivers report each load change,
+ * so finding available drivers is a scan over bitmap words, and claiming an idle one is a CAS on
+ * its bit followed by the driver's own load CAS, with no lock and no per-driver walk.
+ * Driver.Load stays the source of truth: a set bit is only a hint and is re-checked on claim
+ */
+public class DriverRepository implements DriverStatsListener {
+    private static final int INITIAL_SLOTS = 1024;
 
-public class DriverRepository {
     private static DriverRepository instance;
     private final Map<String, Driver> drivers = new ConcurrentHashMap<>();
+    private final Map<String, Integer> slotsById = new ConcurrentHashMap<>();
+    private final DriverAvailabilityBitmap availableSlots = new DriverAvailabilityBitmap();
+    private final DriverAvailabilityBitmap idleSlots = new DriverAvailabilityBitmap();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private volatile AtomicReferenceArray<Driver> driversBySlot = new AtomicReferenceArray<>(INITIAL_SLOTS);
+    private int nextSlot;
+    private final List<Consumer<Driver>> saveListeners = new CopyOnWriteArrayList<>();
+    private final List<DriverStatsListener> statsListeners = new CopyOnWriteArrayList<>();
 
     /**
-     * Private constructor for singleton pattern
+     * Creates a standalone repository, e.g. for one shard of a ShardedDeliveryService
+     * Most callers share the singleton from getInstance()
      */
-    private DriverRepository() {}
+    public DriverRepository() {}
 
     /**
      * Returns the singleton instance of DriverRepository
@@ -25,8 +48,135 @@ public class DriverRepository {
         return instance;
     }
 
+    /**
+     * Discards the singleton so the next getInstance() starts from an empty repository
+     * Services created earlier keep the old instance; used to isolate benchmark iterations
+     */
+    public static synchronized void resetInstance() {
+        instance = null;
+    }
+
     public void save(Driver driver) {
         drivers.put(driver.getId(), driver);
+        assignSlot(driver);
+        driver.setStatsListener(this);
+        for (Consumer<Driver> listener : saveListeners) {
+            listener.accept(driver);
+        }
+    }
+
+    /**
+     * Registers a callback invoked after every driver save
+     */
+    public void addSaveListener(Consumer<Driver> listener) {
+        saveListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a save callback, so a stopped service no longer hears about drivers saved later
+     */
+    public void removeSaveListener(Consumer<Driver> listener) {
+        saveListeners.remove(listener);
+    }
+
+    /**
+     * Registers a callback invoked whenever the rating or completed orders of a saved driver change
+     */
+    public void addStatsListener(DriverStatsListener listener) {
+        statsListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a stats callback added through addStatsListener
+     */
+    public void removeStatsListener(DriverStatsListener listener) {
+        statsListeners.remove(listener);
+    }
+
+    @Override
+    public void onStatsChange(Driver driver) {
+        for (DriverStatsListener listener : statsListeners) {
+            listener.onStatsChange(driver);
+        }
+    }
+
+    /**
+     * Removes a driver, detaching it from this repository's stats listeners
+     * Returns the removed driver, or null if it didn't exist
+     */
+    public Driver remove(String id) {
+        Driver driver = drivers.remove(id);
+        if (driver != null) {
+            driver.setStatsListener(null);
+            releaseSlot(driver);
+        }
+        return driver;
+    }
+
+    /**
+     * Gives a newly saved driver a slot, or rebinds the slot of a driver saved again
+     * The slot table only changes under this lock; readers see it through the volatile reference
+     */
+    private synchronized void assignSlot(Driver driver) {
+        Integer existing = slotsById.get(driver.getId());
+        int slot;
+        if (existing != null) {
+            slot = existing;
+        } else {
+            slot = freeSlots.isEmpty() ? nextSlot++ : freeSlots.pop();
+            if (slot >= driversBySlot.length()) {
+                AtomicReferenceArray<Driver> grown = new AtomicReferenceArray<>(driversBySlot.length() * 2);
+                for (int i = 0; i < driversBySlot.length(); i++) {
+                    grown.set(i, driversBySlot.get(i));
+                }
+                driversBySlot = grown;
+            }
+            availableSlots.ensureCapacity(driversBySlot.length());
+            idleSlots.ensureCapacity(driversBySlot.length());
+            slotsById.put(driver.getId(), slot);
+        }
+        driversBySlot.set(slot, driver);
+        driver.setAvailabilityListener(changed -> syncAvailability(slot, changed));
+        syncAvailability(slot, driver);
+    }
+
+    private synchronized void releaseSlot(Driver driver) {
+        Integer slot = slotsById.get(driver.getId());
+        if (slot == null || driversBySlot.get(slot) != driver) {
+            return;
+        }
+        driver.setAvailabilityListener(null);
+        slotsById.remove(driver.getId());
+        driversBySlot.set(slot, null);
+        availableSlots.clear(slot);
+        idleSlots.clear(slot);
+        freeSlots.push(slot);
+    }
+
+    /**
+     * Makes the driver's bits match its current availability and idleness
+     * Both are re-read after writing the bits, and the bits rewritten if either changed in between,
+     * so whichever notification writes last leaves the bits right. A driver that no longer owns the
+     * slot never touches it; a bit it set just before losing the slot is cleared by the next claim
+     */
+    private void syncAvailability(int slot, Driver driver) {
+        while (driversBySlot.get(slot) == driver) {
+            boolean available = driver.isAvailable();
+            boolean idle = driver.isIdle();
+            if (available) {
+                availableSlots.set(slot);
+            } else {
+                availableSlots.clear(slot);
+            }
+            if (idle) {
+                idleSlots.set(slot);
+            } else {
+                idleSlots.clear(slot);
+            }
+            if (driver.isAvailable() == available && driver.isIdle() == idle) {
+                return;
+            }
+        }
     }
 
     public Driver findById(String id) {
@@ -37,10 +187,59 @@ public class DriverRepository {
         return drivers.containsKey(id);
     }
 
+    /**
+     * Returns the drivers whose availability bit is set and who are still available
+     */
     public List<Driver> findAvailableDrivers() {
-        return drivers.values().stream()
-                .filter(Driver::isAvailable)
-                .collect(Collectors.toList());
+        List<Driver> result = new ArrayList<>();
+        AtomicReferenceArray<Driver> slots = driversBySlot;
+        for (int slot = availableSlots.nextSetBit(0); slot >= 0; slot = availableSlots.nextSetBit(slot + 1)) {
+            Driver driver = slot < slots.length() ? slots.get(slot) : null;
+            if (driver != null && driver.isAvailable()) {
+                result.add(driver);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of drivers with a free slot for another order in O(1), read from the bitmap
+     * Partly loaded drivers count, see countIdleDrivers() for drivers holding no order
+     */
+    public int countAvailableDrivers() {
+        return availableSlots.cardinality();
+    }
+
+    /**
+     * Returns the number of on-duty drivers holding no order in O(1), read from the bitmap
+     */
+    public int countIdleDrivers() {
+        return idleSlots.cardinality();
+    }
+
+    /**
+     * Finds an idle driver and takes it off duty, e.g. to move it to another shard
+     * Each candidate's idle bit is cleared by CAS first, so concurrent callers never race for the
+     * same driver; the bits are then re-synced, which sets it again if the driver is still idle
+     * Returns the claimed driver, or null if no idle driver was found
+     */
+    public Driver claimIdleDriver() {
+        for (int slot = idleSlots.nextSetBit(0); slot >= 0; slot = idleSlots.nextSetBit(slot + 1)) {
+            if (!idleSlots.tryClear(slot)) {
+                continue;
+            }
+            AtomicReferenceArray<Driver> slots = driversBySlot;
+            Driver driver = slot < slots.length() ? slots.get(slot) : null;
+            if (driver == null) {
+                continue;
+            }
+            boolean claimed = driver.tryClaim();
+            syncAvailability(slot, driver);
+            if (claimed) {
+                return driver;
+            }
+        }
+        return null;
     }
 
     public List<Driver> getAllDrivers() {
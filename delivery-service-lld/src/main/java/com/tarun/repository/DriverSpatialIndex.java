@@ -0,0 +1,205 @@
+package com.tarun.repository;
+
+import com.tarun.model.Driver;
+import com.tarun.model.Location;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent uniform grid over available drivers
+ * Each driver lives in exactly one cell keyed by its last known location; drivers without a
+ * location are kept aside and only handed out once the located ones near the pickup run out
+ * Nearest-driver queries scan square rings of cells around the pickup cell and stop as soon as
+ * no unscanned cell can hold a closer driver than the k-th best found so far, or as soon as every
+ * located driver has been seen. Past maxRings the remaining occupied cells are scanned directly,
+ * so far away drivers are still found
+ */
+public class DriverSpatialIndex {
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final Long UNLOCATED = Long.MIN_VALUE;
+
+    private final DriverRepository driverRepository;
+    private final double cellDegrees;
+    private final int maxRings;
+    private final Map<Long, Set<String>> cells = new ConcurrentHashMap<>();
+    private final Map<String, Long> driverCells = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an index with square cells of cellDegrees, searching maxRings rings out before
+     * falling back to a scan of every occupied cell
+     */
+    public DriverSpatialIndex(DriverRepository driverRepository, double cellDegrees, int maxRings) {
+        this.driverRepository = driverRepository;
+        this.cellDegrees = cellDegrees;
+        this.maxRings = maxRings;
+    }
+
+    /**
+     * Adds the driver to the cell of its current location, moving it if it was indexed elsewhere
+     */
+    public void add(Driver driver) {
+        Long cell = cellOf(driver.getLocation());
+        driverCells.compute(driver.getId(), (id, previous) -> {
+            if (previous != null && !previous.equals(cell)) {
+                removeFromCell(previous, id);
+            }
+            cells.compute(cell, (c, driverIds) -> {
+                Set<String> updated = driverIds != null ? driverIds : ConcurrentHashMap.newKeySet();
+                updated.add(id);
+                return updated;
+            });
+            return cell;
+        });
+    }
+
+    /**
+     * Removes the driver from the index, returns false if it was not indexed
+     */
+    public boolean remove(String driverId) {
+        boolean[] removed = new boolean[1];
+        driverCells.computeIfPresent(driverId, (id, cell) -> {
+            removeFromCell(cell, id);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    public boolean contains(String driverId) {
+        return driverCells.containsKey(driverId);
+    }
+
+    public boolean isEmpty() {
+        return driverCells.isEmpty();
+    }
+
+    public int size() {
+        return driverCells.size();
+    }
+
+    /**
+     * Returns up to k indexed drivers closest to the location, nearest first
+     * A null location means any location is acceptable
+     */
+    public List<Driver> findNearest(Location location, int k) {
+        List<Driver> result = new ArrayList<>(k);
+        if (location == null) {
+            for (String driverId : driverCells.keySet()) {
+                Driver driver = driverRepository.findById(driverId);
+                if (driver != null) {
+                    result.add(driver);
+                    if (result.size() == k) {
+                        break;
+                    }
+                }
+            }
+            return result;
+        }
+
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.comparingDouble((Candidate c) -> c.distanceKm).reversed());
+        long centerLat = (long) Math.floor(location.getLatitude() / cellDegrees);
+        long centerLon = (long) Math.floor(location.getLongitude() / cellDegrees);
+        double ringWidthKm = cellDegrees * KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(Math.abs(location.getLatitude()))), 0.01);
+
+        // With fewer than k drivers the distance bound never holds, so also stop once all were seen
+        Set<String> unlocated = cells.get(UNLOCATED);
+        int located = driverCells.size() - (unlocated != null ? unlocated.size() : 0);
+        int seen = 0;
+        boolean settled = false;
+        for (int ring = 0; ring <= maxRings && !settled; ring++) {
+            for (long lat = centerLat - ring; lat <= centerLat + ring; lat++) {
+                boolean edgeRow = lat == centerLat - ring || lat == centerLat + ring;
+                long step = edgeRow ? 1 : 2L * ring;
+                for (long lon = centerLon - ring; lon <= centerLon + ring; lon += Math.max(step, 1)) {
+                    seen += collect(cellKey(lat, lon), location, k, best);
+                }
+            }
+            // Every cell beyond this ring is at least ring * ringWidthKm away from the pickup
+            settled = seen >= located || best.size() == k && best.peek().distanceKm <= ring * ringWidthKm;
+        }
+        if (!settled) {
+            // Occupied cells are at most one per driver, far fewer than the empty ones in further rings
+            for (Long cell : cells.keySet()) {
+                long lat = cell >> 32;
+                long lon = (int) cell.longValue();
+                if (!cell.equals(UNLOCATED) && Math.max(Math.abs(lat - centerLat), Math.abs(lon - centerLon)) > maxRings) {
+                    collect(cell, location, k, best);
+                }
+            }
+        }
+        if (best.size() < k) {
+            collect(UNLOCATED, location, k, best);
+        }
+
+        Candidate[] sorted = best.toArray(new Candidate[0]);
+        Arrays.sort(sorted, Comparator.comparingDouble(c -> c.distanceKm));
+        for (Candidate candidate : sorted) {
+            result.add(candidate.driver);
+        }
+        return result;
+    }
+
+    /**
+     * Offers the drivers of the cell to the k best, returns how many drivers the cell held
+     */
+    private int collect(Long cell, Location location, int k, PriorityQueue<Candidate> best) {
+        Set<String> driverIds = cells.get(cell);
+        if (driverIds == null) {
+            return 0;
+        }
+        int seen = 0;
+        for (String driverId : driverIds) {
+            seen++;
+            Driver driver = driverRepository.findById(driverId);
+            if (driver == null) {
+                continue;
+            }
+            Location driverLocation = driver.getLocation();
+            double distance = driverLocation != null ? location.distanceKm(driverLocation) : Double.MAX_VALUE;
+            if (best.size() < k) {
+                best.add(new Candidate(driver, distance));
+            } else if (distance < best.peek().distanceKm) {
+                best.poll();
+                best.add(new Candidate(driver, distance));
+            }
+        }
+        return seen;
+    }
+
+    private void removeFromCell(Long cell, String driverId) {
+        cells.computeIfPresent(cell, (c, driverIds) -> {
+            driverIds.remove(driverId);
+            return driverIds.isEmpty() ? null : driverIds;
+        });
+    }
+
+    /**
+     * Returns the key of the grid cell containing the location, e.g. to group nearby pickups
+     */
+    public long cellKeyOf(Location location) {
+        return cellOf(location);
+    }
+
+    private Long cellOf(Location location) {
+        if (location == null) {
+            return UNLOCATED;
+        }
+        return cellKey((long) Math.floor(location.getLatitude() / cellDegrees),
+                (long) Math.floor(location.getLongitude() / cellDegrees));
+    }
+
+    private static Long cellKey(long lat, long lon) {
+        return (lat << 32) | (lon & 0xffffffffL);
+    }
+
+    private static final class Candidate {
+        private final Driver driver;
+        private final double distanceKm;
+
+        private Candidate(Driver driver, double distanceKm) {
+            this.driver = driver;
+            this.distanceKm = distanceKm;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.tarun.repository;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Two-way mapping between string IDs and dense int codes
+ * Codes are handed out in first-seen order and never reused, so an int can stand in for a
+ * repeated ID in compact storage. Encoding a known ID and decoding are lock-free
+ */
+public class IdDictionary {
+    public static final int NONE = -1;
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+    private int size;
+
+    /**
+     * Returns the code of the ID, assigning the next code on first use; NONE for null
+     */
+    public int encode(String id) {
+        if (id == null) {
+            return NONE;
+        }
+        Integer code = codes.get(id);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(id);
+            if (code != null) {
+                return code;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = id;
+            // Published after the slot is written, so a reader holding the code always sees the ID
+            codes.put(id, size);
+            return size++;
+        }
+    }
+
+    /**
+     * Returns the code of an already known ID without assigning one, NONE if unknown
+     */
+    public int find(String id) {
+        Integer code = id != null ? codes.get(id) : null;
+        return code != null ? code : NONE;
+    }
+
+    /**
+     * Returns the ID of a code handed out by encode, null for NONE
+     */
+    public String decode(int code) {
+        return code == NONE ? null : values[code];
+    }
+
+    public int size() {
+        return codes.size();
+    }
+}
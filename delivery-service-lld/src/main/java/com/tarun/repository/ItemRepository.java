@@ -1,6 +1,7 @@
 package com.tarun.repository;
 
 import com.tarun.model.Item;
+import com.tarun.model.PriorityClass;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.Map;
@@ -19,4 +20,12 @@ public class ItemRepository {
     public boolean exists(String id) {
         return items.containsKey(id);
     }
+
+    /**
+     * Returns the priority class of the item, NORMAL for unknown items
+     */
+    public PriorityClass priorityOf(String id) {
+        Item item = items.get(id);
+        return item != null ? item.getPriorityClass() : PriorityClass.NORMAL;
+    }
 }
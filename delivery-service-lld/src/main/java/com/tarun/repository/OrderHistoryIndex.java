@@ -0,0 +1,68 @@
+package com.tarun.repository;
+
+import com.tarun.model.Order;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Secondary index from an owner ID (customer or driver) to the IDs of its orders, newest first
+ * Each owner has its own concurrent skip list keyed by (creation time, order ID), so adding is
+ * O(log n) and a page is one seek plus a walk of the page, however long the history is
+ */
+final class OrderHistoryIndex {
+
+    /**
+     * Position of one order in a history
+     */
+    static final class Entry implements Comparable<Entry> {
+        private final long createdAtMillis;
+        private final String orderId;
+
+        Entry(long createdAtMillis, String orderId) {
+            this.createdAtMillis = createdAtMillis;
+            this.orderId = orderId;
+        }
+
+        long getCreatedAtMillis() { return createdAtMillis; }
+        String getOrderId() { return orderId; }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byTime = Long.compare(other.createdAtMillis, createdAtMillis);
+            return byTime != 0 ? byTime : other.orderId.compareTo(orderId);
+        }
+    }
+
+    private final Map<String, NavigableSet<Entry>> entriesByOwner = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the order to the owner's history; adding it again has no effect
+     */
+    void add(String ownerId, Order order) {
+        entriesByOwner.computeIfAbsent(ownerId, id -> new ConcurrentSkipListSet<>())
+                .add(new Entry(order.getCreatedAtMillis(), order.getId()));
+    }
+
+    /**
+     * Returns up to limit entries of the owner, newest first, starting after the given position
+     * or at the newest order if afterOrderId is null
+     */
+    List<Entry> page(String ownerId, long afterCreatedAtMillis, String afterOrderId, int limit) {
+        NavigableSet<Entry> entries = entriesByOwner.get(ownerId);
+        if (entries == null) {
+            return Collections.emptyList();
+        }
+        Iterable<Entry> from = afterOrderId == null ? entries
+                : entries.tailSet(new Entry(afterCreatedAtMillis, afterOrderId), false);
+        List<Entry> page = new ArrayList<>(Math.min(limit, 64));
+        for (Entry entry : from) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(entry);
+        }
+        return page;
+    }
+}
@@ -1,52 +1,315 @@
 package com.tarun.repository;
 
 import com.tarun.model.Order;
+import com.tarun.model.OrderPage;
 import com.tarun.model.OrderStatus;
+import com.tarun.model.OrderStatusListener;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class OrderRepository {
+/**
+ * Stores orders and indexes them by status
+ * Orders in flight are kept as objects. Once an order reaches a terminal status it never changes
+ * again, so it is moved into a compact struct-of-arrays store and rebuilt on lookup.
+ * With an archive opened, old compacted orders are moved further into cold segment files.
+ * Per-customer and per-driver history indexes keep the IDs of every order, wherever it is stored
+ */
+public class OrderRepository implements OrderStatusListener {
+    private final CompactOrderStore terminalOrders =
+            new CompactOrderStore(new IdDictionary(), new IdDictionary(), new IdDictionary());
     private final Map<String, Order> orders = new ConcurrentHashMap<>();
+    private final Map<OrderStatus, Set<Order>> ordersByStatus = new EnumMap<>(OrderStatus.class);
+    private final Map<OrderStatus, AtomicInteger> countsByStatus = new EnumMap<>(OrderStatus.class);
+    private final List<Consumer<Order>> saveListeners = new CopyOnWriteArrayList<>();
+    private final List<OrderStatusListener> statusListeners = new CopyOnWriteArrayList<>();
+    private final OrderHistoryIndex ordersByCustomer = new OrderHistoryIndex();
+    private final OrderHistoryIndex ordersByDriver = new OrderHistoryIndex();
+    private volatile ColdOrderArchive archive;
 
+    /**
+     * Creates the repository with an empty index set and counter per order status
+     */
+    public OrderRepository() {
+        for (OrderStatus status : OrderStatus.values()) {
+            ordersByStatus.put(status, ConcurrentHashMap.newKeySet());
+            countsByStatus.put(status, new AtomicInteger());
+        }
+    }
+
+    /**
+     * Saves an order and indexes it under its current status
+     * The repository then tracks every status change of the order
+     */
     public void save(Order order) {
-        orders.put(order.getId(), order);
+        Order previous = orders.put(order.getId(), order);
+        if (previous == order) {
+            return;
+        }
+        order.setStatusListener(this);
+        indexHistory(order);
+        OrderStatus status = order.getStatus();
+        ordersByStatus.get(status).add(order);
+        countsByStatus.get(status).incrementAndGet();
+        for (Consumer<Order> listener : saveListeners) {
+            listener.accept(order);
+        }
+        if (status.isTerminal()) {
+            compact(order, status);
+        }
+    }
+
+    /**
+     * Registers a callback invoked after a new order is saved
+     */
+    public void addSaveListener(Consumer<Order> listener) {
+        saveListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a save callback added through addSaveListener
+     */
+    public void removeSaveListener(Consumer<Order> listener) {
+        saveListeners.remove(listener);
+    }
+
+    /**
+     * Registers a callback invoked after every status change of a saved order
+     */
+    public void addStatusListener(OrderStatusListener listener) {
+        statusListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a status callback added through addStatusListener
+     */
+    public void removeStatusListener(OrderStatusListener listener) {
+        statusListeners.remove(listener);
+    }
+
+    /**
+     * Returns a copy of every order held in memory, live ones first, rebuilding the compacted ones
+     * Archived orders are not included
+     */
+    public Collection<Order> getAllOrders() {
+        List<Order> result = new ArrayList<>(orders.values());
+        result.addAll(terminalOrders.findAll());
+        return result;
     }
 
+    /**
+     * Returns the live order, or a rebuilt copy if it was already compacted or archived
+     */
     public Order findById(String id) {
-        return orders.get(id);
+        Order order = orders.get(id);
+        if (order == null) {
+            order = terminalOrders.find(id);
+        }
+        ColdOrderArchive cold = archive;
+        if (order == null && cold != null) {
+            order = cold.find(id);
+        }
+        return order;
     }
 
     public boolean exists(String id) {
-        return orders.containsKey(id);
+        if (orders.containsKey(id) || terminalOrders.contains(id)) {
+            return true;
+        }
+        ColdOrderArchive cold = archive;
+        return cold != null && cold.contains(id);
+    }
+
+    /**
+     * Returns the number of terminal orders held in compact form
+     */
+    public int getCompactedCount() {
+        return terminalOrders.size();
+    }
+
+    /**
+     * Opens the cold archive in the directory, making previously archived orders resolvable by ID
+     * Archived orders count towards countByStatus and are indexed into the customer and driver
+     * histories, but are not returned by status scans
+     */
+    public synchronized void openArchive(Path directory) throws IOException {
+        if (archive != null) {
+            return;
+        }
+        ColdOrderArchive opened = ColdOrderArchive.open(directory);
+        opened.forEach(this::indexHistory);
+        for (OrderStatus status : OrderStatus.values()) {
+            countsByStatus.get(status).addAndGet(opened.countByStatus(status));
+        }
+        archive = opened;
+    }
+
+    /**
+     * Moves up to maxOrders compacted orders with no activity since cutoffMillis to the cold archive
+     * The archive segment is durable before the orders leave memory
+     * Returns the number of orders archived, 0 if no archive is open
+     */
+    public synchronized int archiveFinishedBefore(long cutoffMillis, int maxOrders) throws IOException {
+        if (archive == null) {
+            return 0;
+        }
+        List<Order> batch = terminalOrders.findFinishedBefore(cutoffMillis, maxOrders);
+        if (!batch.isEmpty()) {
+            archive.append(batch);
+            terminalOrders.removeAll(batch);
+        }
+        return batch.size();
+    }
+
+    public int getArchivedCount() {
+        ColdOrderArchive cold = archive;
+        return cold != null ? cold.size() : 0;
+    }
+
+    /**
+     * Returns the highest archived order number with the given ID prefix, or -1 if there is none
+     */
+    public long getMaxArchivedOrderNumber(String prefix) {
+        ColdOrderArchive cold = archive;
+        return cold != null ? cold.maxOrderNumber(prefix) : -1;
+    }
+
+    /**
+     * Moves the order between status index sets after a successful transition
+     * Notifications of back-to-back transitions may arrive out of order, so the order is only
+     * left in the new set if that is still its current status
+     */
+    @Override
+    public void onStatusChange(Order order, OrderStatus oldStatus, OrderStatus newStatus) {
+        String driverId = order.getAssignedDriverId();
+        if (driverId != null) {
+            ordersByDriver.add(driverId, order);
+        }
+        countsByStatus.get(oldStatus).decrementAndGet();
+        countsByStatus.get(newStatus).incrementAndGet();
+        ordersByStatus.get(oldStatus).remove(order);
+        Set<Order> index = ordersByStatus.get(newStatus);
+        index.add(order);
+        if (order.getStatus() != newStatus) {
+            index.remove(order);
+        }
+        for (OrderStatusListener listener : statusListeners) {
+            listener.onStatusChange(order, oldStatus, newStatus);
+        }
+        if (newStatus.isTerminal() && order.getStatus() == newStatus) {
+            compact(order, newStatus);
+        }
+    }
+
+    private void indexHistory(Order order) {
+        ordersByCustomer.add(order.getCustomerId(), order);
+        String driverId = order.getAssignedDriverId();
+        if (driverId != null) {
+            ordersByDriver.add(driverId, order);
+        }
+    }
+
+    /**
+     * Moves a finished order into the compact store
+     * It is added there before being dropped from the map, so lookups never miss it
+     */
+    private void compact(Order order, OrderStatus status) {
+        if (terminalOrders.add(order)) {
+            orders.remove(order.getId(), order);
+            ordersByStatus.get(status).remove(order);
+        }
+    }
+
+    /**
+     * Returns all orders currently in the given status, except archived ones
+     * O(result size), terminal statuses also rebuild their rows from the compact store
+     */
+    public List<Order> findByStatus(OrderStatus status) {
+        List<Order> result = new ArrayList<>(ordersByStatus.get(status));
+        if (status.isTerminal()) {
+            result.addAll(terminalOrders.findByStatus(status));
+        }
+        return result;
+    }
+
+    /**
+     * Returns one page of the customer's orders, newest first
+     * cursor is null for the first page, otherwise the next cursor of the previous page
+     */
+    public OrderPage findByCustomer(String customerId, String cursor, int limit) {
+        return page(ordersByCustomer, customerId, cursor, limit);
+    }
+
+    /**
+     * Returns one page of the orders ever assigned to or picked up by the driver, newest first
+     */
+    public OrderPage findByDriver(String driverId, String cursor, int limit) {
+        return page(ordersByDriver, driverId, cursor, limit);
+    }
+
+    /**
+     * Reads one entry past the limit to know whether another page follows
+     * Orders are resolved through findById, so compacted and archived ones are rebuilt
+     */
+    private OrderPage page(OrderHistoryIndex index, String ownerId, String cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        long afterCreatedAtMillis = cursor == null ? 0 : OrderPage.cursorCreatedAtMillis(cursor);
+        String afterOrderId = cursor == null ? null : OrderPage.cursorOrderId(cursor);
+        List<Order> page = new ArrayList<>(Math.min(limit, 64));
+        boolean more = true;
+        // IDs that no longer resolve are skipped, so keep reading until the page is full
+        while (more && page.size() < limit) {
+            int wanted = limit - page.size();
+            List<OrderHistoryIndex.Entry> entries = index.page(ownerId, afterCreatedAtMillis, afterOrderId, wanted + 1);
+            more = entries.size() > wanted;
+            for (int i = 0; i < entries.size() && i < wanted; i++) {
+                OrderHistoryIndex.Entry entry = entries.get(i);
+                afterCreatedAtMillis = entry.getCreatedAtMillis();
+                afterOrderId = entry.getOrderId();
+                Order order = findById(afterOrderId);
+                if (order != null) {
+                    page.add(order);
+                }
+            }
+        }
+        // The cursor marks the last index entry read, whether or not its order resolved
+        String nextCursor = more ? OrderPage.cursorAt(afterCreatedAtMillis, afterOrderId) : null;
+        return new OrderPage(page, nextCursor);
+    }
+
+    /**
+     * Returns the number of orders currently in the given status in O(1)
+     */
+    public int countByStatus(OrderStatus status) {
+        return countsByStatus.get(status).get();
     }
 
     /**
      * Returns a list of all orders in PENDING status
      */
     public List<Order> findPendingOrders() {
-        return orders.values().stream()
-                .filter(o -> o.getStatus() == OrderStatus.PENDING)
-                .collect(Collectors.toList());
+        return findByStatus(OrderStatus.PENDING);
     }
 
     /**
      * Returns a list of all orders in ASSIGNED status
      */
     public List<Order> findAssignedOrders() {
-        return orders.values().stream()
-                .filter(o -> o.getStatus() == OrderStatus.ASSIGNED)
-                .collect(Collectors.toList());
+        return findByStatus(OrderStatus.ASSIGNED);
     }
 
     /**
      * Returns a list of all orders in CANCELLED status
      */
     public List<Order> findCancelledOrders() {
-        return orders.values().stream()
-                .filter(o -> o.getStatus() == OrderStatus.CANCELLED)
-                .collect(Collectors.toList());
+        return findByStatus(OrderStatus.CANCELLED);
     }
 
 }
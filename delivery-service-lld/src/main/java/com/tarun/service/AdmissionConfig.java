@@ -0,0 +1,38 @@
+package com.tarun.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits of admission control, which sheds new orders during a surge instead of letting them
+ * wait for the 30-minute auto-cancellation
+ */
+public class AdmissionConfig {
+    private final int maxPendingOrders;
+    private final long maxEstimatedWaitMillis;
+    private final long rateWindowMillis;
+
+    /**
+     * Creates a config admitting up to 10000 pending orders and estimated waits of up to 15 minutes,
+     * half the pickup timeout, with the assignment rate measured over the last 5 minutes
+     */
+    public AdmissionConfig() {
+        this(10_000, TimeUnit.MINUTES.toMillis(15), TimeUnit.MINUTES.toMillis(5));
+    }
+
+    /**
+     * maxPendingOrders bounds the backlog, and with it memory, whatever the estimated wait
+     * rateWindowMillis is rounded up to whole seconds
+     */
+    public AdmissionConfig(int maxPendingOrders, long maxEstimatedWaitMillis, long rateWindowMillis) {
+        if (maxPendingOrders <= 0 || maxEstimatedWaitMillis <= 0 || rateWindowMillis <= 0) {
+            throw new IllegalArgumentException("Admission limits must be positive");
+        }
+        this.maxPendingOrders = maxPendingOrders;
+        this.maxEstimatedWaitMillis = maxEstimatedWaitMillis;
+        this.rateWindowMillis = rateWindowMillis;
+    }
+
+    public int getMaxPendingOrders() { return maxPendingOrders; }
+    public long getMaxEstimatedWaitMillis() { return maxEstimatedWaitMillis; }
+    public long getRateWindowMillis() { return rateWindowMillis; }
+}
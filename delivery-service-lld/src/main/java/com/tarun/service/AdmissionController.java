@@ -0,0 +1,134 @@
+package com.tarun.service;
+
+import com.tarun.model.Order;
+import com.tarun.model.OrderAdmission;
+import com.tarun.model.OrderStatus;
+import com.tarun.model.OrderStatusListener;
+import com.tarun.timer.Clock;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Decides whether a new order is accepted, queued or shed, before it is placed
+ * It compares the pending backlog with the drivers free to take orders and estimates the wait
+ * of a new order from the recent rate at which pending orders get a driver. The rate is counted
+ * in one-second buckets over a sliding window, each bucket a packed (second, count) word updated
+ * by CAS. Concurrent placements read the same backlog, so the pending limit is a soft bound
+ */
+public class AdmissionController implements OrderStatusListener {
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final AdmissionConfig config;
+    private final Clock clock;
+    private final IntSupplier pendingOrders;
+    private final IntSupplier freeDrivers;
+    private final AtomicLongArray buckets;
+    private final long startMillis;
+    private final LongAdder rejections = new LongAdder();
+
+    public AdmissionController(AdmissionConfig config, Clock clock, IntSupplier pendingOrders, IntSupplier freeDrivers) {
+        this.config = config;
+        this.clock = clock;
+        this.pendingOrders = pendingOrders;
+        this.freeDrivers = freeDrivers;
+        this.buckets = new AtomicLongArray((int) Math.max(1, (config.getRateWindowMillis() + 999) / 1000));
+        this.startMillis = clock.currentTimeMillis();
+    }
+
+    public AdmissionConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Decides on one new order, with alreadyAdmitted orders of the same burst not yet placed
+     */
+    public OrderAdmission admit(int alreadyAdmitted) {
+        int pending = pendingOrders.getAsInt() + alreadyAdmitted;
+        if (pending >= config.getMaxPendingOrders()) {
+            return reject("Too many pending orders (" + pending + "), please try again later");
+        }
+        int ahead = pending - freeDrivers.getAsInt() + 1;
+        if (ahead <= 0) {
+            return OrderAdmission.accepted();
+        }
+        long windowAssignments = countAssignments();
+        if (windowAssignments == 0) {
+            return OrderAdmission.queued(OrderAdmission.UNKNOWN_WAIT);
+        }
+        long estimatedWaitMillis = ahead * measuredWindowMillis() / windowAssignments;
+        if (estimatedWaitMillis > config.getMaxEstimatedWaitMillis()) {
+            return reject("Estimated wait of " + (estimatedWaitMillis + 59_999) / 60_000 + " minutes exceeds "
+                    + config.getMaxEstimatedWaitMillis() / 60_000 + " minutes, please try again later");
+        }
+        return OrderAdmission.queued(estimatedWaitMillis);
+    }
+
+    /**
+     * Returns pending orders getting a driver per second, over the rate window
+     */
+    public double getAssignmentsPerSecond() {
+        return countAssignments() * 1000.0 / measuredWindowMillis();
+    }
+
+    public long getRejectedCount() {
+        return rejections.sum();
+    }
+
+    /**
+     * Counts every order that leaves PENDING with a driver, whether assigned or picked up directly
+     */
+    @Override
+    public void onStatusChange(Order order, OrderStatus oldStatus, OrderStatus newStatus) {
+        if (oldStatus == OrderStatus.PENDING && newStatus != OrderStatus.CANCELLED) {
+            recordAssignment(clock.currentTimeMillis() / 1000);
+        }
+    }
+
+    private OrderAdmission reject(String reason) {
+        rejections.increment();
+        return OrderAdmission.rejected(reason);
+    }
+
+    private void recordAssignment(long second) {
+        int slot = (int) (second % buckets.length());
+        while (true) {
+            long current = buckets.get(slot);
+            long updated;
+            if (current >>> COUNT_BITS == second) {
+                if ((current & COUNT_MASK) == COUNT_MASK) {
+                    return;
+                }
+                updated = current + 1;
+            } else {
+                updated = second << COUNT_BITS | 1;
+            }
+            if (buckets.compareAndSet(slot, current, updated)) {
+                return;
+            }
+        }
+    }
+
+    private long countAssignments() {
+        long now = clock.currentTimeMillis() / 1000;
+        long total = 0;
+        for (int slot = 0; slot < buckets.length(); slot++) {
+            long bucket = buckets.get(slot);
+            long second = bucket >>> COUNT_BITS;
+            if (second <= now && now - second < buckets.length()) {
+                total += bucket & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * The window, or the time since the controller started while that is shorter
+     */
+    private long measuredWindowMillis() {
+        long elapsed = clock.currentTimeMillis() - startMillis;
+        return Math.max(1000, Math.min((long) buckets.length() * 1000, elapsed));
+    }
+}
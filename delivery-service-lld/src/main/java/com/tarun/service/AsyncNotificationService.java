@@ -0,0 +1,306 @@
+package com.tarun.service;
+
+import com.tarun.metrics.LatencyHistogram;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking NotificationService that hands notifications to a background dispatcher
+ * Callers only enqueue into a bounded queue with many producers and a single consumer. The
+ * dispatcher drains up to maxBatchSize notifications at a time, groups them by channel and
+ * sends one batch per channel through the gateway. When the queue is full the configured
+ * BackpressurePolicy decides whether to drop, block or spill to disk. Once anything has spilled,
+ * new notifications follow it into the spill file until the dispatcher has sent everything queued
+ * before it and replayed the file, so notifications are delivered in the order they were sent.
+ * With SPILL_TO_DISK producers enqueue under the spill lock to keep that order, trading some
+ * producer concurrency for it.
+ * Enqueue-to-delivery latency is recorded in microseconds
+ */
+public class AsyncNotificationService implements NotificationService {
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final NotificationGateway gateway;
+    private final BlockingQueue<Notification> queue;
+    private final int maxBatchSize;
+    private final BackpressurePolicy policy;
+    private final Path spillFile;
+    private final Object spillLock = new Object();
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+    private BufferedWriter spillWriter;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong spillBacklog = new AtomicLong();
+    private final LatencyHistogram deliveryLatencyMicros = new LatencyHistogram();
+
+    /**
+     * Creates the service with a console gateway, dropping notifications once 10,000 are queued
+     * Order placement never waits for a slow provider; dropped notifications are counted
+     */
+    public AsyncNotificationService() {
+        this(new ConsoleNotificationGateway(), 10_000, 64, BackpressurePolicy.DROP, null);
+    }
+
+    /**
+     * Creates the service and starts its dispatcher thread
+     * spillFile is required for SPILL_TO_DISK and ignored otherwise
+     */
+    public AsyncNotificationService(NotificationGateway gateway, int capacity, int maxBatchSize,
+                                    BackpressurePolicy policy, Path spillFile) {
+        if (policy == BackpressurePolicy.SPILL_TO_DISK && spillFile == null) {
+            throw new IllegalArgumentException("SPILL_TO_DISK requires a spill file");
+        }
+        this.gateway = gateway;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.policy = policy;
+        this.spillFile = spillFile;
+        this.dispatcher = new Thread(this::dispatchLoop, "notification-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    @Override
+    public void sendEmail(String recipient, String subject, String message) {
+        enqueue(new Notification(NotificationChannel.EMAIL, recipient, subject, message, System.nanoTime()));
+    }
+
+    @Override
+    public void sendSMS(String phoneNumber, String message) {
+        enqueue(new Notification(NotificationChannel.SMS, phoneNumber, null, message, System.nanoTime()));
+    }
+
+    /**
+     * Enqueues the batch with one counter update, stamping every notification with the same time
+     * The backpressure policy still applies to each notification that doesn't fit
+     */
+    @Override
+    public void sendAll(List<Notification> notifications) {
+        if (!running) {
+            dropped.addAndGet(notifications.size());
+            return;
+        }
+        enqueued.addAndGet(notifications.size());
+        long now = System.nanoTime();
+        for (Notification notification : notifications) {
+            offer(new Notification(notification.getChannel(), notification.getRecipient(),
+                    notification.getSubject(), notification.getMessage(), now));
+        }
+    }
+
+    private void enqueue(Notification notification) {
+        if (!running) {
+            dropped.incrementAndGet();
+            return;
+        }
+        enqueued.incrementAndGet();
+        offer(notification);
+    }
+
+    private void offer(Notification notification) {
+        if (policy == BackpressurePolicy.SPILL_TO_DISK) {
+            offerOrSpill(notification);
+            return;
+        }
+        if (queue.offer(notification)) {
+            return;
+        }
+        switch (policy) {
+            case DROP:
+                dropped.incrementAndGet();
+                break;
+            case BLOCK:
+                try {
+                    queue.put(notification);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.incrementAndGet();
+                }
+                break;
+        }
+    }
+
+    /**
+     * Queues the notification unless the queue is full or older notifications are still spilled
+     * The backlog check, the offer and the spill are one step under spillLock, so a notification
+     * can never reach the queue while one sent before it is on its way to the spill file
+     */
+    private void offerOrSpill(Notification notification) {
+        synchronized (spillLock) {
+            if (spillBacklog.get() == 0 && queue.offer(notification)) {
+                return;
+            }
+            spill(notification);
+        }
+    }
+
+    private void dispatchLoop() {
+        List<Notification> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty() || spillBacklog.get() > 0) {
+            try {
+                Notification first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+                    dispatch(batch);
+                    batch.clear();
+                }
+                // Everything queued is older than the spill file, so replay only once the queue is empty
+                if (spillBacklog.get() > 0 && queue.isEmpty()) {
+                    replaySpill();
+                }
+            } catch (InterruptedException e) {
+                // Loop condition decides whether there is still work to flush
+            } catch (Exception e) {
+                System.err.println("ERROR: Notification dispatcher failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Splits a drained batch by channel and sends one gateway batch per channel
+     */
+    private void dispatch(List<Notification> batch) {
+        List<Notification> emails = new ArrayList<>();
+        List<Notification> sms = new ArrayList<>();
+        for (Notification notification : batch) {
+            (notification.getChannel() == NotificationChannel.EMAIL ? emails : sms).add(notification);
+        }
+        send(NotificationChannel.EMAIL, emails);
+        send(NotificationChannel.SMS, sms);
+    }
+
+    private void send(NotificationChannel channel, List<Notification> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            gateway.sendBatch(channel, batch);
+            long now = System.nanoTime();
+            for (Notification notification : batch) {
+                deliveryLatencyMicros.record((now - notification.getEnqueuedAtNanos()) / 1_000);
+            }
+            delivered.addAndGet(batch.size());
+        } catch (Exception e) {
+            failed.addAndGet(batch.size());
+            System.err.println("ERROR: Failed to send " + batch.size() + " " + channel + " notifications: " + e.getMessage());
+        }
+    }
+
+    private void spill(Notification notification) {
+        synchronized (spillLock) {
+            try {
+                if (spillWriter == null) {
+                    spillWriter = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                spillWriter.write(encode(notification));
+                spillWriter.newLine();
+                spillWriter.flush();
+                spilled.incrementAndGet();
+                spillBacklog.incrementAndGet();
+            } catch (IOException e) {
+                dropped.incrementAndGet();
+                System.err.println("ERROR: Failed to spill notification: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Swaps the spill file out from under the producers and dispatches its contents in batches
+     */
+    private void replaySpill() throws IOException {
+        Path replayFile = spillFile.resolveSibling(spillFile.getFileName() + ".replay");
+        long backlog;
+        synchronized (spillLock) {
+            if (spillWriter != null) {
+                spillWriter.close();
+                spillWriter = null;
+            }
+            if (!Files.exists(spillFile)) {
+                spillBacklog.set(0);
+                return;
+            }
+            Files.move(spillFile, replayFile, StandardCopyOption.REPLACE_EXISTING);
+            backlog = spillBacklog.getAndSet(0);
+        }
+
+        List<Notification> batch = new ArrayList<>(maxBatchSize);
+        long replayed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                batch.add(decode(line));
+                replayed++;
+                if (batch.size() == maxBatchSize) {
+                    dispatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        dispatch(batch);
+        Files.delete(replayFile);
+        if (replayed != backlog) {
+            System.err.println("WARN: Replayed " + replayed + " spilled notifications, expected " + backlog);
+        }
+    }
+
+    private static String encode(Notification notification) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return notification.getChannel() + "\t"
+                + encoder.encodeToString(notification.getRecipient().getBytes(StandardCharsets.UTF_8)) + "\t"
+                + (notification.getSubject() == null ? "-" : encoder.encodeToString(notification.getSubject().getBytes(StandardCharsets.UTF_8))) + "\t"
+                + encoder.encodeToString(notification.getMessage().getBytes(StandardCharsets.UTF_8)) + "\t"
+                + notification.getEnqueuedAtNanos();
+    }
+
+    private static Notification decode(String line) {
+        Base64.Decoder decoder = Base64.getDecoder();
+        String[] fields = line.split("\t");
+        String subject = "-".equals(fields[2]) ? null : new String(decoder.decode(fields[2]), StandardCharsets.UTF_8);
+        return new Notification(NotificationChannel.valueOf(fields[0]),
+                new String(decoder.decode(fields[1]), StandardCharsets.UTF_8),
+                subject,
+                new String(decoder.decode(fields[3]), StandardCharsets.UTF_8),
+                Long.parseLong(fields[4]));
+    }
+
+    /**
+     * Stops accepting notifications and waits for queued and spilled ones to be delivered
+     */
+    @Override
+    public void shutdown() {
+        running = false;
+        try {
+            dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getEnqueuedCount() { return enqueued.get(); }
+    public long getDeliveredCount() { return delivered.get(); }
+    public long getDroppedCount() { return dropped.get(); }
+    public long getSpilledCount() { return spilled.get(); }
+    public long getFailedCount() { return failed.get(); }
+    public int getQueueDepth() { return queue.size(); }
+    public LatencyHistogram getDeliveryLatencyMicros() { return deliveryLatencyMicros; }
+}
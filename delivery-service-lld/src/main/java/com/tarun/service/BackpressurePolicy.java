@@ -0,0 +1,10 @@
+package com.tarun.service;
+
+/**
+ * What the async notification service does when its queue is full
+ */
+public enum BackpressurePolicy {
+    DROP,           // Discard the notification and count it as dropped
+    BLOCK,          // Block the caller until the dispatcher frees a slot
+    SPILL_TO_DISK   // Append the notification to a spill file, replayed once the queue drains
+}
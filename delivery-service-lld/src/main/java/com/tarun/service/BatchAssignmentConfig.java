@@ -0,0 +1,47 @@
+package com.tarun.service;
+
+import com.tarun.strategy.AssignmentCostStrategy;
+import com.tarun.strategy.WeightedAssignmentCostStrategy;
+
+/**
+ * Settings for batch assignment, where pending orders are matched to drivers as a whole by
+ * minimum total cost instead of one by one to the nearest driver
+ */
+public class BatchAssignmentConfig {
+    private final long tickMillis;
+    private final int batchSizeTrigger;
+    private final int maxBatchSize;
+    private final int candidatesPerOrder;
+    private final AssignmentCostStrategy costStrategy;
+
+    /**
+     * Creates a config matching every 500 ms or after 64 new orders, at most 256 orders per batch,
+     * each considering its 8 nearest drivers, priced by WeightedAssignmentCostStrategy
+     */
+    public BatchAssignmentConfig() {
+        this(500, 64, 256, 8, new WeightedAssignmentCostStrategy());
+    }
+
+    /**
+     * batchSizeTrigger is the number of new pending orders that starts a batch before the tick
+     * maxBatchSize bounds orders and drivers per batch; it shrinks further while solving a batch
+     * takes more than half a tick
+     */
+    public BatchAssignmentConfig(long tickMillis, int batchSizeTrigger, int maxBatchSize, int candidatesPerOrder,
+                                 AssignmentCostStrategy costStrategy) {
+        if (tickMillis <= 0 || batchSizeTrigger <= 0 || maxBatchSize <= 0 || candidatesPerOrder <= 0) {
+            throw new IllegalArgumentException("Batch assignment settings must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.batchSizeTrigger = batchSizeTrigger;
+        this.maxBatchSize = maxBatchSize;
+        this.candidatesPerOrder = candidatesPerOrder;
+        this.costStrategy = costStrategy;
+    }
+
+    public long getTickMillis() { return tickMillis; }
+    public int getBatchSizeTrigger() { return batchSizeTrigger; }
+    public int getMaxBatchSize() { return maxBatchSize; }
+    public int getCandidatesPerOrder() { return candidatesPerOrder; }
+    public AssignmentCostStrategy getCostStrategy() { return costStrategy; }
+}
@@ -0,0 +1,25 @@
+package com.tarun.service;
+
+import java.util.List;
+
+public class ConsoleNotificationGateway implements NotificationGateway {
+
+    /**
+     * Prints every notification of the batch to the console (mock provider)
+     */
+    @Override
+    public void sendBatch(NotificationChannel channel, List<Notification> batch) {
+        StringBuilder sb = new StringBuilder();
+        for (Notification notification : batch) {
+            if (channel == NotificationChannel.EMAIL) {
+                sb.append("\n[EMAIL] To: ").append(notification.getRecipient())
+                        .append(" | Subject: ").append(notification.getSubject())
+                        .append(" | Message: ").append(notification.getMessage()).append("\n");
+            } else {
+                sb.append("\n[SMS] To: ").append(notification.getRecipient())
+                        .append(" | Message: ").append(notification.getMessage()).append("\n");
+            }
+        }
+        System.out.print(sb);
+    }
+}
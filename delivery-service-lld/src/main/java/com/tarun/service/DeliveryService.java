@@ -1,40 +1,240 @@
 package com.tarun.service;
 
 
+import com.tarun.event.DeliveryEventBus;
+import com.tarun.metrics.DeliveryMetrics;
 import com.tarun.model.*;
+import com.tarun.persistence.DeliveryPersistence;
+import com.tarun.persistence.PersistenceConfig;
 import com.tarun.repository.CustomerRepository;
 import com.tarun.repository.DriverRepository;
+import com.tarun.repository.DriverSpatialIndex;
 import com.tarun.repository.ItemRepository;
 import com.tarun.repository.OrderRepository;
+import com.tarun.strategy.DriverLeaderboard;
 import com.tarun.strategy.DriverRankingStrategy;
+import com.tarun.timer.Clock;
+import com.tarun.timer.Scheduler;
+import com.tarun.timer.SystemScheduler;
+import com.tarun.timer.Timeout;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class DeliveryService {
 
+    private static final long ORDER_TIMEOUT_MINUTES = 30;
+    private static final long DEFAULT_CANCELLATION_TICK_MILLIS = 1000;
+    private static final double GRID_CELL_DEGREES = 0.01;
+    private static final int MAX_SEARCH_RINGS = 50;
+    private static final int NEAREST_CANDIDATES = 8;
+    private static final String DEFAULT_ORDER_ID_PREFIX = "ORD";
+    static final int MAX_HISTORY_PAGE_SIZE = 500;
+
     private final CustomerRepository customerRepository;
     private final DriverRepository driverRepository;
     private final ItemRepository itemRepository;
     private final OrderRepository orderRepository;
     private final NotificationService notificationService;
-    private final AtomicInteger orderIdCounter = new AtomicInteger(1);
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
-    private final Map<String, ScheduledFuture<?>> orderCancellationTasks = new ConcurrentHashMap<>();
+    private final DriverSpatialIndex availableDriverIndex;
+    private final DriverLeaderboard leaderboard;
+    private final DriverAssignmentEngine assignmentEngine;
+    private final DeliveryMetrics metrics;
+    private final AtomicLong orderIdCounter = new AtomicLong(1);
+    private final String orderIdPrefix;
+    private final Scheduler scheduler;
+    private final Clock clock;
+    private final Map<String, Timeout> orderCancellationTasks = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<String>> assignmentFutures = new ConcurrentHashMap<>();
+    private final Consumer<Driver> driverSavedListener = this::onDriverSaved;
+    private final Consumer<Driver> driverUpdatePublisher = this::publishDriverUpdate;
+    private final DriverStatsListener driverStatsPublisher = this::publishDriverUpdate;
+    private DeliveryPersistence persistence;
+    private volatile DeliveryEventBus eventBus;
+    private volatile AdmissionController admissionController;
 
     /**
-     * Creates DeliveryService, initializes repositories, items, and starts background workers
+     * Creates DeliveryService, initializes repositories, items, and starts the assignment engine
      */
     public DeliveryService() {
-        this.customerRepository = CustomerRepository.getInstance();
-        this.driverRepository = DriverRepository.getInstance();
+        this(DEFAULT_CANCELLATION_TICK_MILLIS);
+    }
+
+    /**
+     * Creates DeliveryService whose auto-cancellation timer advances every cancellationTickMillis
+     * A coarser tick means fewer wakeups, timeouts fire at most one tick late
+     */
+    public DeliveryService(long cancellationTickMillis) {
+        this(cancellationTickMillis, new AsyncNotificationService());
+    }
+
+    /**
+     * Creates DeliveryService that sends notifications through the given service
+     * Notifications are sent while order and driver monitors are held, so the service should not block
+     */
+    public DeliveryService(long cancellationTickMillis, NotificationService notificationService) {
+        this(cancellationTickMillis, notificationService, null);
+    }
+
+    /**
+     * Creates DeliveryService whose repositories are journaled and snapshotted to disk
+     * State found in the persistence directory is recovered first: pending orders are queued for
+     * assignment again and auto-cancellation timers resume with their remaining time
+     * A null config disables persistence
+     */
+    public DeliveryService(long cancellationTickMillis, NotificationService notificationService,
+                           PersistenceConfig persistenceConfig) {
+        this(CustomerRepository.getInstance(), DriverRepository.getInstance(), cancellationTickMillis,
+                notificationService, persistenceConfig, DEFAULT_ORDER_ID_PREFIX);
+    }
+
+    /**
+     * Creates DeliveryService on top of the given customer and driver repositories
+     * Order IDs are orderIdPrefix followed by a sequence number, so services sharing an
+     * order ID space, like the shards of a ShardedDeliveryService, need distinct prefixes
+     */
+    public DeliveryService(CustomerRepository customerRepository, DriverRepository driverRepository,
+                           long cancellationTickMillis, NotificationService notificationService,
+                           PersistenceConfig persistenceConfig, String orderIdPrefix) {
+        this(customerRepository, driverRepository, new SystemScheduler("delivery-scheduler", cancellationTickMillis),
+                notificationService, persistenceConfig, orderIdPrefix);
+    }
+
+    /**
+     * Creates DeliveryService whose timestamps, auto-cancellation timers and assignment passes all run
+     * on the given scheduler and its clock
+     * With a VirtualTimeScheduler the service is deterministic and hours of simulated time pass as
+     * fast as the scheduler is advanced. The service stops the scheduler on shutdown
+     */
+    public DeliveryService(CustomerRepository customerRepository, DriverRepository driverRepository,
+                           Scheduler scheduler, NotificationService notificationService,
+                           PersistenceConfig persistenceConfig, String orderIdPrefix) {
+        this.scheduler = scheduler;
+        this.clock = scheduler.getClock();
+        this.customerRepository = customerRepository;
+        this.driverRepository = driverRepository;
+        this.orderIdPrefix = orderIdPrefix;
         this.itemRepository = new ItemRepository();
         this.orderRepository = new OrderRepository();
-        this.notificationService = new NotificationServiceImpl();
+        this.notificationService = notificationService;
+        this.leaderboard = new DriverLeaderboard(driverRepository);
+        leaderboard.start();
+        this.availableDriverIndex = new DriverSpatialIndex(driverRepository, GRID_CELL_DEGREES, MAX_SEARCH_RINGS);
+        this.assignmentEngine = new DriverAssignmentEngine(orderRepository, driverRepository, itemRepository,
+                availableDriverIndex, NEAREST_CANDIDATES, this::tryAssign, scheduler);
+        this.metrics = new DeliveryMetrics(() -> orderRepository.countByStatus(OrderStatus.PENDING),
+                driverRepository::countIdleDrivers);
         initializeItems();
-        startDriverAssignmentWorker();
+        if (persistenceConfig != null) {
+            recover(persistenceConfig);
+        }
+        // Registered after recovery so replayed transitions are not counted or published again
+        orderRepository.addStatusListener(metrics);
+        orderRepository.addStatusListener((order, oldStatus, newStatus) -> {
+            AdmissionController controller = admissionController;
+            if (controller != null) {
+                controller.onStatusChange(order, oldStatus, newStatus);
+            }
+        });
+        registerEventPublishers();
+        startDriverAssignmentEngine();
+        if (persistence != null) {
+            try {
+                persistence.start();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to open delivery journal: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Forwards order and driver changes to the event bus, if one is set
+     * The driver listeners go on the shared repository and are removed again on shutdown
+     */
+    private void registerEventPublishers() {
+        orderRepository.addSaveListener(order -> {
+            DeliveryEventBus bus = eventBus;
+            if (bus != null) {
+                bus.publishOrderPlaced(order, clock.currentTimeMillis());
+            }
+        });
+        orderRepository.addStatusListener((order, oldStatus, newStatus) -> {
+            DeliveryEventBus bus = eventBus;
+            if (bus != null) {
+                bus.publishOrderStatusChange(order, oldStatus, newStatus, clock.currentTimeMillis());
+            }
+        });
+        driverRepository.addSaveListener(driverUpdatePublisher);
+        driverRepository.addStatsListener(driverStatsPublisher);
+    }
+
+    /**
+     * Publishes the driver's current state, called after every change of its load or location
+     */
+    private void publishDriverUpdate(Driver driver) {
+        DeliveryEventBus bus = eventBus;
+        if (bus != null) {
+            bus.publishDriverUpdate(driver, clock.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Publishes every subsequent order and driver state change to the bus, or stops publishing for null
+     * The caller owns the bus and shuts it down after the service
+     */
+    public void setEventBus(DeliveryEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Restores repositories from disk and resumes in-flight orders
+     * Drivers holding an assigned or picked up order stay busy, pending orders are queued in
+     * placement order, and new order IDs continue after the highest recovered one
+     */
+    private void recover(PersistenceConfig persistenceConfig) {
+        persistence = new DeliveryPersistence(persistenceConfig, customerRepository, driverRepository, orderRepository,
+                clock);
+        try {
+            persistence.recover();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to recover delivery state: " + e.getMessage(), e);
+        }
+
+        List<Order> orders = new ArrayList<>(orderRepository.getAllOrders());
+        orders.sort(Comparator.comparingLong(Order::getCreatedAtMillis));
+        long now = clock.currentTimeMillis();
+        long maxOrderNumber = 0;
+        for (Order order : orders) {
+            maxOrderNumber = Math.max(maxOrderNumber, parseOrderNumber(order.getId()));
+            OrderState state = order.getState();
+            if (state.getStatus() == OrderStatus.ASSIGNED || state.getStatus() == OrderStatus.PICKED_UP) {
+                Driver driver = driverRepository.findById(state.getAssignedDriverId());
+                if (driver != null) {
+                    driver.restoreActiveOrder(order.getId());
+                }
+            }
+            if (state.getStatus() == OrderStatus.PENDING || state.getStatus() == OrderStatus.ASSIGNED) {
+                long elapsedMillis = now - order.getCreatedAtMillis();
+                long remainingMillis = TimeUnit.MINUTES.toMillis(ORDER_TIMEOUT_MINUTES) - elapsedMillis;
+                scheduleOrderCancellation(order, Math.max(0, remainingMillis));
+            }
+            if (state.getStatus() == OrderStatus.PENDING) {
+                assignmentEngine.onOrderPending(order.getId());
+            }
+        }
+        maxOrderNumber = Math.max(maxOrderNumber, orderRepository.getMaxArchivedOrderNumber(orderIdPrefix));
+        orderIdCounter.set(maxOrderNumber + 1);
+    }
+
+    private long parseOrderNumber(String orderId) {
+        if (!orderId.startsWith(orderIdPrefix) || OrderIds.prefixLength(orderId) != orderIdPrefix.length()) {
+            return 0;
+        }
+        return Math.max(0, OrderIds.parseNumber(orderId));
     }
 
     /**
@@ -42,9 +242,9 @@ public class DeliveryService {
      */
     private void initializeItems() {
         itemRepository.save(new Item("ITEM001", "Documents", "Important documents"));
-        itemRepository.save(new Item("ITEM002", "Food", "Food package"));
+        itemRepository.save(new Item("ITEM002", "Food", "Food package", PriorityClass.HIGH));
         itemRepository.save(new Item("ITEM003", "Electronics", "Electronic items"));
-        itemRepository.save(new Item("ITEM004", "Medicines", "Medical supplies"));
+        itemRepository.save(new Item("ITEM004", "Medicines", "Medical supplies", PriorityClass.URGENT));
         itemRepository.save(new Item("ITEM005", "Groceries", "Grocery items"));
         itemRepository.save(new Item("ITEM006", "Flowers", "Fresh flower bouquet"));
         itemRepository.save(new Item("ITEM007", "Books", "Books and magazines"));
@@ -53,13 +253,66 @@ public class DeliveryService {
         itemRepository.save(new Item("ITEM010", "Stationery", "Office supplies"));
     }
 
+    /**
+     * Places a new order for delivery without a known pickup location
+     * Any available driver may be assigned
+     * Returns order ID if successful, null if validation fails or admission control sheds the order
+     */
+    public String placeOrder(String customerId, String itemId) {
+        return tryPlaceOrder(customerId, itemId).getOrderId();
+    }
+
+    /**
+     * Places a new order to be picked up at the given coordinates
+     * The nearest available driver is assigned
+     * Returns order ID if successful, null if validation fails or admission control sheds the order
+     */
+    public String placeOrder(String customerId, String itemId, double latitude, double longitude) {
+        return tryPlaceOrder(customerId, itemId, latitude, longitude).getOrderId();
+    }
+
+    /**
+     * Places a new order without a known pickup location, telling the caller how long it may wait
+     * With admission control on, the order is rejected up front when the backlog is too deep,
+     * otherwise it is accepted or queued with an estimated wait. With it off every valid order
+     * is accepted
+     */
+    public OrderAdmission tryPlaceOrder(String customerId, String itemId) {
+        return admitAndPlace(customerId, itemId, null);
+    }
+
+    /**
+     * Places a new order to be picked up at the given coordinates, see tryPlaceOrder
+     */
+    public OrderAdmission tryPlaceOrder(String customerId, String itemId, double latitude, double longitude) {
+        Location pickupLocation;
+        try {
+            pickupLocation = new Location(latitude, longitude);
+        } catch (IllegalArgumentException e) {
+            System.err.println("ERROR: Failed to place order: " + e.getMessage());
+            return OrderAdmission.rejected(e.getMessage());
+        }
+        return admitAndPlace(customerId, itemId, pickupLocation);
+    }
+
+    private OrderAdmission admitAndPlace(String customerId, String itemId, Location pickupLocation) {
+        AdmissionController controller = admissionController;
+        OrderAdmission admission = controller != null ? controller.admit(0) : OrderAdmission.accepted();
+        if (!admission.isPlaced()) {
+            System.out.println("Order rejected for customer " + customerId + ": " + admission.getReason());
+            return admission;
+        }
+        String orderId = placeOrder(customerId, itemId, pickupLocation);
+        return orderId != null ? admission.forOrder(orderId) : OrderAdmission.rejected("Unknown customer or item");
+    }
+
     /**
      * Places a new order for delivery
      * Validates customer and item existence
      * Schedules auto-cancellation after 30 minutes if not picked up
      * Returns order ID if successful, null if validation fails
      */
-    public String placeOrder(String customerId, String itemId) {
+    private String placeOrder(String customerId, String itemId, Location pickupLocation) {
         try {
             if (!customerRepository.exists(customerId)) {
                 return null;
@@ -68,15 +321,16 @@ public class DeliveryService {
                 return null;
             }
 
-            String orderId = "ORD" + String.format("%05d", orderIdCounter.getAndIncrement());
-            Order order = new Order(orderId, customerId, itemId);
+            String orderId = formatOrderId(orderIdCounter.getAndIncrement());
+            Order order = new Order(orderId, customerId, itemId, pickupLocation, clock.currentTimeMillis());
             orderRepository.save(order);
 
             System.out.println("Order placed: " + orderId + " by customer " + customerId + " for item " + itemId);
             notificationService.sendEmail(customerId, "Order Placed", "Your order " + orderId + " has been placed successfully.");
 
             // Schedule auto-cancellation after 30 minutes
-            scheduleOrderCancellation(order);
+            scheduleOrderCancellation(order, TimeUnit.MINUTES.toMillis(ORDER_TIMEOUT_MINUTES));
+            assignmentEngine.onOrderPending(orderId);
 
             return orderId;
         } catch (Exception e) {
@@ -86,41 +340,168 @@ public class DeliveryService {
     }
 
     /**
-     * Schedules automatic cancellation of an order after 30 minutes
-     * Cancels only if order hasn't been picked up, delivered, or manually cancelled
+     * Places a burst of orders in one pass
+     * Customers and items are looked up once per distinct ID, one contiguous ID range is reserved
+     * for all valid orders, their cancellation timers are registered as one batch, confirmation
+     * emails are enqueued as one batch and the assignment engine is triggered once
+     * Returns one result per request, in request order
      */
-    private void scheduleOrderCancellation(Order order) {
-        ScheduledFuture<?> task = scheduler.schedule(() -> {
-            synchronized (order) {
-                if (order.getStatus() != OrderStatus.PICKED_UP &&
-                        order.getStatus() != OrderStatus.DELIVERED &&
-                        order.getStatus() != OrderStatus.CANCELLED) {
-
-                    order.setStatus(OrderStatus.CANCELLED);
-                    System.out.println("Order " + order.getId() + " auto-cancelled due to 30 minute timeout");
-
-                    String driverId = order.getAssignedDriverId();
-                    if (driverId != null) {
-                        Driver driver = driverRepository.findById(driverId);
-                        if (driver != null) {
-                            driver.setAvailable(true);
-                            notificationService.sendSMS(driverId, "Order " + order.getId() + " cancelled (timeout)");
-                        }
-                    }
-
-                    notificationService.sendEmail(order.getCustomerId(), "Order Cancelled",
-                            "Order " + order.getId() + " was cancelled due to no driver pickup within 30 minutes.");
+    public List<OrderPlacementResult> placeOrders(List<OrderRequest> requests) {
+        OrderPlacementResult[] results = new OrderPlacementResult[requests.size()];
+        Location[] pickupLocations = new Location[requests.size()];
+        Map<String, Boolean> knownCustomers = new HashMap<>();
+        Map<String, Boolean> knownItems = new HashMap<>();
+        int valid = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            OrderRequest request = requests.get(i);
+            if (request == null || request.getCustomerId() == null
+                    || !knownCustomers.computeIfAbsent(request.getCustomerId(), customerRepository::exists)) {
+                results[i] = OrderPlacementResult.rejected("Unknown customer");
+                continue;
+            }
+            if (request.getItemId() == null || !knownItems.computeIfAbsent(request.getItemId(), itemRepository::exists)) {
+                results[i] = OrderPlacementResult.rejected("Unknown item");
+                continue;
+            }
+            if (request.hasPickupLocation()) {
+                try {
+                    pickupLocations[i] = new Location(request.getLatitude(), request.getLongitude());
+                } catch (IllegalArgumentException e) {
+                    results[i] = OrderPlacementResult.rejected(e.getMessage());
+                    continue;
+                }
+            }
+            valid++;
+        }
+        AdmissionController controller = admissionController;
+        if (controller != null) {
+            int admitted = 0;
+            for (int i = 0; i < requests.size(); i++) {
+                if (results[i] != null) {
+                    continue;
+                }
+                OrderAdmission admission = controller.admit(admitted);
+                if (admission.isPlaced()) {
+                    admitted++;
+                } else {
+                    results[i] = OrderPlacementResult.rejected(admission.getReason());
+                    valid--;
                 }
             }
-        }, 30, TimeUnit.MINUTES);
+        }
+
+        List<Order> orders = new ArrayList<>(valid);
+        List<String> orderIds = new ArrayList<>(valid);
+        List<Notification> confirmations = new ArrayList<>(valid);
+        long nextNumber = orderIdCounter.getAndAdd(valid);
+        long placedAtMillis = clock.currentTimeMillis();
+        long placedAtNanos = clock.nanoTime();
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            OrderRequest request = requests.get(i);
+            String orderId = formatOrderId(nextNumber++);
+            Order order = new Order(orderId, request.getCustomerId(), request.getItemId(), pickupLocations[i],
+                    placedAtMillis);
+            orderRepository.save(order);
+            orders.add(order);
+            orderIds.add(orderId);
+            confirmations.add(new Notification(NotificationChannel.EMAIL, request.getCustomerId(), "Order Placed",
+                    "Your order " + orderId + " has been placed successfully.", placedAtNanos));
+            results[i] = OrderPlacementResult.placed(orderId);
+        }
 
+        if (!orders.isEmpty()) {
+            scheduleOrderCancellations(orders);
+            notificationService.sendAll(confirmations);
+            assignmentEngine.onOrdersPending(orderIds);
+        }
+        System.out.println("Bulk placement: " + orders.size() + " orders placed, "
+                + (requests.size() - orders.size()) + " rejected");
+        return Arrays.asList(results);
+    }
+
+    private String formatOrderId(long number) {
+        return OrderIds.format(orderIdPrefix, number);
+    }
+
+    /**
+     * Schedules automatic cancellation of an order on the scheduler, 30 minutes after placement
+     * Cancels only if order hasn't been picked up, delivered, or manually cancelled
+     */
+    private void scheduleOrderCancellation(Order order, long delayMillis) {
+        Timeout task = scheduler.schedule(cancellationTask(order), delayMillis, TimeUnit.MILLISECONDS);
         orderCancellationTasks.put(order.getId(), task);
     }
 
+    /**
+     * Schedules the 30-minute auto-cancellation of a batch of orders placed together
+     */
+    private void scheduleOrderCancellations(List<Order> orders) {
+        List<Runnable> tasks = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            tasks.add(cancellationTask(order));
+        }
+        List<Timeout> timeouts = scheduler.scheduleAll(tasks, ORDER_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        for (int i = 0; i < orders.size(); i++) {
+            orderCancellationTasks.put(orders.get(i).getId(), timeouts.get(i));
+        }
+    }
+
+    private Runnable cancellationTask(Order order) {
+        return () -> {
+            orderCancellationTasks.remove(order.getId());
+            OrderState previous = order.cancel();
+            if (previous == null) {
+                return;
+            }
+            metrics.recordAutoCancel();
+            completeAssignment(order.getId(), null);
+            System.out.println("Order " + order.getId() + " auto-cancelled due to 30 minute timeout");
+
+            String driverId = previous.getAssignedDriverId();
+            if (driverId != null && releaseDriver(driverId, order.getId())) {
+                notificationService.sendSMS(driverId, "Order " + order.getId() + " cancelled (timeout)");
+            }
+
+            notificationService.sendEmail(order.getCustomerId(), "Order Cancelled",
+                    "Order " + order.getId() + " was cancelled due to no driver pickup within 30 minutes.");
+        };
+    }
+
+    /**
+     * Cancels the pending auto-cancellation timer of an order, if any
+     */
+    private void cancelOrderTimeout(String orderId) {
+        Timeout task = orderCancellationTasks.remove(orderId);
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    /**
+     * Frees the driver's slot held by the order and hands the driver back to the assignment
+     * engine if it now has room for another order
+     * Returns false if the driver doesn't exist
+     */
+    private boolean releaseDriver(String driverId, String orderId) {
+        Driver driver = driverRepository.findById(driverId);
+        if (driver == null) {
+            return false;
+        }
+        driver.release(orderId, clock.currentTimeMillis());
+        publishDriverUpdate(driver);
+        if (driver.isAvailable()) {
+            assignmentEngine.onDriverAvailable(driverId);
+        }
+        return true;
+    }
+
     /**
      * Cancels an order
      * Cannot cancel if order is already picked up, delivered, or cancelled
-     * Frees up assigned driver if any
+     * Frees the assigned driver's slot for this order, if any
      * Returns true if cancellation successful, false otherwise
      */
     public boolean cancelOrder(String orderId) {
@@ -130,41 +511,23 @@ public class DeliveryService {
                 return false;
             }
 
-            synchronized (order) {
-                if (order.getStatus() == OrderStatus.PICKED_UP) {
-                    return false;
-                }
-
-                if (order.getStatus() == OrderStatus.CANCELLED) {
-                    return false;
-                }
-
-                if (order.getStatus() == OrderStatus.DELIVERED) {
-                    return false;
-                }
-
-                order.setStatus(OrderStatus.CANCELLED);
-                System.out.println("Order cancelled: " + orderId);
-
-                // Cancel the auto-cancellation task
-                ScheduledFuture<?> task = orderCancellationTasks.remove(orderId);
-                if (task != null) {
-                    task.cancel(false);
-                }
+            OrderState previous = order.cancel();
+            if (previous == null) {
+                return false;
+            }
+            completeAssignment(orderId, null);
+            System.out.println("Order cancelled: " + orderId);
 
-                String driverId = order.getAssignedDriverId();
-                if (driverId != null) {
-                    Driver driver = driverRepository.findById(driverId);
-                    if (driver != null) {
-                        driver.setAvailable(true);
-                        notificationService.sendSMS(driverId, "Order " + orderId + " has been cancelled");
-                    }
-                }
+            cancelOrderTimeout(orderId);
 
-                notificationService.sendEmail(order.getCustomerId(), "Order Cancelled",
-                        "Your order " + orderId + " has been cancelled.");
-                return true;
+            String driverId = previous.getAssignedDriverId();
+            if (driverId != null && releaseDriver(driverId, orderId)) {
+                notificationService.sendSMS(driverId, "Order " + orderId + " has been cancelled");
             }
+
+            notificationService.sendEmail(order.getCustomerId(), "Order Cancelled",
+                    "Your order " + orderId + " has been cancelled.");
+            return true;
         } catch (Exception e) {
             System.err.println("ERROR: Failed to cancel order: " + e.getMessage());
             return false;
@@ -173,7 +536,8 @@ public class DeliveryService {
 
     /**
      * Marks an order as picked up by a driver
-     * Validates driver and order exist, order is not cancelled
+     * Validates driver and order exist, order is not cancelled and not assigned to another driver
+     * Picking up a pending order directly takes one of the driver's free slots, so it fails if the driver is full
      * Cancels the 30-minute auto-cancellation timer
      * Returns true if pickup successful, false otherwise
      */
@@ -189,39 +553,27 @@ public class DeliveryService {
                 return false;
             }
 
-            synchronized (order) {
-                if (order.getStatus() == OrderStatus.CANCELLED) {
+            boolean claimed = false;
+            if (order.getStatus() == OrderStatus.PENDING) {
+                if (!driver.tryClaim(orderId)) {
                     return false;
                 }
-
-                if (!orderId.equals(order.getAssignedDriverId()) && order.getAssignedDriverId() != null
-                        && !driverId.equals(order.getAssignedDriverId())) {
-                    return false;
-                }
-
-                if (order.getStatus() == OrderStatus.PICKED_UP) {
-                    return false;
-                }
-
-                if (order.getStatus() == OrderStatus.DELIVERED) {
-                    return false;
-                }
-
-                order.setStatus(OrderStatus.PICKED_UP);
-                order.setPickedUpAt(LocalDateTime.now());
-                order.setAssignedDriverId(driverId);
-
-                // Cancel the auto-cancellation task
-                ScheduledFuture<?> task = orderCancellationTasks.remove(orderId);
-                if (task != null) {
-                    task.cancel(false);
+                claimed = true;
+                publishDriverUpdate(driver);
+            }
+            if (order.pickUp(driverId, clock.currentTimeMillis()) == null) {
+                if (claimed) {
+                    releaseDriver(driverId, orderId);
                 }
-
-                System.out.println("Order picked up: " + orderId + " by driver " + driverId);
-                notificationService.sendEmail(order.getCustomerId(), "Order Picked Up",
-                        "Your order " + orderId + " has been picked up by driver " + driverId);
-                return true;
+                return false;
             }
+            completeAssignment(orderId, driverId);
+            cancelOrderTimeout(orderId);
+
+            System.out.println("Order picked up: " + orderId + " by driver " + driverId);
+            notificationService.sendEmail(order.getCustomerId(), "Order Picked Up",
+                    "Your order " + orderId + " has been picked up by driver " + driverId);
+            return true;
         } catch (Exception e) {
             System.err.println("ERROR: Failed to pickup order: " + e.getMessage());
             return false;
@@ -231,7 +583,7 @@ public class DeliveryService {
     /**
      * Marks an order as delivered
      * Validates order was picked up by this driver
-     * Makes driver available for new orders and increments completed order count
+     * Frees the driver's slot for this order and increments completed order count
      * Returns true if delivery successful, false otherwise
      */
     public boolean deliverOrder(String driverId, String orderId) {
@@ -246,26 +598,17 @@ public class DeliveryService {
                 return false;
             }
 
-            synchronized (order) {
-                if (!driverId.equals(order.getAssignedDriverId())) {
-                    return false;
-                }
-
-                if (order.getStatus() != OrderStatus.PICKED_UP) {
-                    return false;
-                }
-
-                order.setStatus(OrderStatus.DELIVERED);
-                order.setDeliveredAt(LocalDateTime.now());
-                driver.setAvailable(true);
-                driver.incrementCompletedOrders();
-
-                System.out.println("Order delivered: " + orderId + " by driver " + driverId);
-                notificationService.sendEmail(order.getCustomerId(), "Order Delivered",
-                        "Your order " + orderId + " has been delivered successfully.");
-                notificationService.sendSMS(driverId, "Order " + orderId + " marked as delivered");
-                return true;
+            if (order.deliver(driverId, clock.currentTimeMillis()) == null) {
+                return false;
             }
+            driver.incrementCompletedOrders();
+            releaseDriver(driverId, orderId);
+
+            System.out.println("Order delivered: " + orderId + " by driver " + driverId);
+            notificationService.sendEmail(order.getCustomerId(), "Order Delivered",
+                    "Your order " + orderId + " has been delivered successfully.");
+            notificationService.sendSMS(driverId, "Order " + orderId + " marked as delivered");
+            return true;
         } catch (Exception e) {
             System.err.println("ERROR: Failed to deliver order: " + e.getMessage());
             return false;
@@ -278,6 +621,14 @@ public class DeliveryService {
      * Returns true if rating successful, false otherwise
      */
     public boolean rateDriver(String orderId, String customerId, double rating) {
+        return rateDriver(orderId, customerId, rating, driverRepository::findById);
+    }
+
+    /**
+     * Same as rateDriver, resolving the rated driver through driverLookup
+     * Lets a sharded deployment rate drivers that moved to another shard after the delivery
+     */
+    boolean rateDriver(String orderId, String customerId, double rating, Function<String, Driver> driverLookup) {
         try {
             if (rating < 1.0 || rating > 5.0) {
                 return false;
@@ -292,57 +643,115 @@ public class DeliveryService {
                 return false;
             }
 
-            synchronized (order) {
-                if (order.getStatus() != OrderStatus.DELIVERED) {
-                    return false;
-                }
+            OrderState state = order.getState();
+            if (state.getStatus() != OrderStatus.DELIVERED) {
+                return false;
+            }
 
-                String driverId = order.getAssignedDriverId();
-                if (driverId == null) {
-                    return false;
-                }
+            String driverId = state.getAssignedDriverId();
+            if (driverId == null) {
+                return false;
+            }
 
-                Driver driver = driverRepository.findById(driverId);
-                if (driver != null) {
-                    driver.addRating(rating);
-                    System.out.println("Driver " + driverId + " rated " + rating + " stars for order " + orderId);
-                    notificationService.sendSMS(driverId, "You received a " + rating + " star rating");
-                    return true;
-                } else {
-                    return false;
-                }
+            Driver driver = driverLookup.apply(driverId);
+            if (driver == null) {
+                return false;
             }
+            driver.addRating(rating, clock.currentTimeMillis());
+            System.out.println("Driver " + driverId + " rated " + rating + " stars for order " + orderId);
+            notificationService.sendSMS(driverId, "You received a " + rating + " star rating");
+            return true;
         } catch (Exception e) {
             System.err.println("ERROR: Failed to rate driver: " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Records the live location of a driver, re-indexing it if it is waiting for an order
+     * Returns false if driver doesn't exist or coordinates are invalid
+     */
+    public boolean updateDriverLocation(String driverId, double latitude, double longitude) {
+        try {
+            Driver driver = driverRepository.findById(driverId);
+            if (driver == null) {
+                return false;
+            }
+            driver.setLocation(new Location(latitude, longitude));
+            assignmentEngine.onDriverMoved(driver);
+            publishDriverUpdate(driver);
+            return true;
+        } catch (Exception e) {
+            System.err.println("ERROR: Failed to update driver location: " + e.getMessage());
+            return false;
+        }
+    }
+
     public String showOrderStatus(String orderId) {
         Order order = orderRepository.findById(orderId);
         if (order == null) {
             return "Order not found: " + orderId;
         }
 
+        OrderState state = order.getState();
         StringBuilder sb = new StringBuilder();
         sb.append("\n=== Order Status ===\n");
         sb.append("Order ID: ").append(order.getId()).append("\n");
         sb.append("Customer ID: ").append(order.getCustomerId()).append("\n");
         sb.append("Item ID: ").append(order.getItemId()).append("\n");
-        sb.append("Status: ").append(order.getStatus()).append("\n");
+        if (order.getPickupLocation() != null) {
+            sb.append("Pickup Location: ").append(order.getPickupLocation()).append("\n");
+        }
+        sb.append("Status: ").append(state.getStatus()).append("\n");
         sb.append("Created At: ").append(order.getCreatedAt()).append("\n");
-        sb.append("Assigned Driver: ").append(order.getAssignedDriverId() != null ? order.getAssignedDriverId() : "Not assigned").append("\n");
-        if (order.getPickedUpAt() != null) {
-            sb.append("Picked Up At: ").append(order.getPickedUpAt()).append("\n");
+        sb.append("Assigned Driver: ").append(state.getAssignedDriverId() != null ? state.getAssignedDriverId() : "Not assigned").append("\n");
+        if (state.getPickedUpAt() != null) {
+            sb.append("Picked Up At: ").append(state.getPickedUpAt()).append("\n");
         }
-        if (order.getDeliveredAt() != null) {
-            sb.append("Delivered At: ").append(order.getDeliveredAt()).append("\n");
+        if (state.getDeliveredAt() != null) {
+            sb.append("Delivered At: ").append(state.getDeliveredAt()).append("\n");
         }
         sb.append("===================\n");
 
         return sb.toString();
     }
 
+    /**
+     * Returns one page of the customer's order history, newest first, without scanning other orders
+     * Pass null as cursor for the first page and the page's next cursor for the following ones
+     * Returns null if the cursor or page size is invalid
+     */
+    public OrderPage getCustomerOrders(String customerId, String cursor, int limit) {
+        try {
+            checkPageSize(limit);
+            return orderRepository.findByCustomer(customerId, cursor, limit);
+        } catch (Exception e) {
+            System.err.println("ERROR: Failed to fetch orders of customer " + customerId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns one page of the orders the driver was assigned or picked up, newest first
+     * Orders handled in this service are included even after the driver left it
+     * Returns null if the cursor or page size is invalid
+     */
+    public OrderPage getDriverOrders(String driverId, String cursor, int limit) {
+        try {
+            checkPageSize(limit);
+            return orderRepository.findByDriver(driverId, cursor, limit);
+        } catch (Exception e) {
+            System.err.println("ERROR: Failed to fetch orders of driver " + driverId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    static void checkPageSize(int limit) {
+        if (limit <= 0 || limit > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+    }
+
     public String showDriverStatus(String driverId) {
         Driver driver = driverRepository.findById(driverId);
         if (driver == null) {
@@ -354,31 +763,39 @@ public class DeliveryService {
         sb.append("Driver ID: ").append(driver.getId()).append("\n");
         sb.append("Name: ").append(driver.getName()).append("\n");
         sb.append("Available: ").append(driver.isAvailable() ? "Yes" : "No").append("\n");
-        sb.append("Completed Orders: ").append(driver.getCompletedOrders()).append("\n");
-        sb.append("Average Rating: ").append(String.format("%.2f", driver.getAverageRating())).append("\n");
-        sb.append("Total Ratings: ").append(driver.getRatingCount()).append("\n");
+        sb.append("Active Orders: ").append(driver.getActiveOrderCount()).append("/").append(driver.getCapacity()).append("\n");
+        if (driver.getLocation() != null) {
+            sb.append("Location: ").append(driver.getLocation()).append("\n");
+        }
+        DriverStats stats = driver.getStats();
+        sb.append("Completed Orders: ").append(stats.getCompletedOrders()).append("\n");
+        sb.append("Average Rating: ").append(String.format("%.2f", stats.getAverageRating())).append("\n");
+        sb.append("Recent Rating: ").append(String.format("%.2f", stats.getDecayedRating())).append("\n");
+        sb.append("Total Ratings: ").append(stats.getRatingCount()).append("\n");
         sb.append("====================\n");
 
         return sb.toString();
     }
 
+    /**
+     * Shows the top drivers by the given strategy, reading the incrementally maintained leaderboard
+     * Only drivers with completed orders are ranked
+     */
     public String showTopDrivers(DriverRankingStrategy strategy, int limit) {
-        List<Driver> allDrivers = driverRepository.getAllDrivers();
-        List<Driver> rankedDrivers = strategy.rankDrivers(allDrivers);
+        return formatTopDrivers(leaderboard.topDrivers(strategy, limit));
+    }
 
+    static String formatTopDrivers(List<Driver> rankedDrivers) {
         StringBuilder sb = new StringBuilder();
         sb.append("\n=== Top Drivers ===\n");
         int rank = 1;
         for (Driver driver : rankedDrivers) {
-            if (rank > limit) break;
-            // Only show drivers with completed orders
-            if (driver.getCompletedOrders() > 0) {
-                sb.append(rank++).append(". ").append(driver.getName())
-                        .append(" (ID: ").append(driver.getId()).append(")")
-                        .append(" - Orders: ").append(driver.getCompletedOrders())
-                        .append(", Rating: ").append(String.format("%.2f", driver.getAverageRating()))
-                        .append("\n");
-            }
+            DriverStats stats = driver.getStats();
+            sb.append(rank++).append(". ").append(driver.getName())
+                    .append(" (ID: ").append(driver.getId()).append(")")
+                    .append(" - Orders: ").append(stats.getCompletedOrders())
+                    .append(", Rating: ").append(String.format("%.2f", stats.getAverageRating()))
+                    .append("\n");
         }
         if (rank == 1) {
             sb.append("No drivers with completed orders yet.\n");
@@ -388,53 +805,184 @@ public class DeliveryService {
         return sb.toString();
     }
 
-    private void startDriverAssignmentWorker() {
-        scheduler.scheduleWithFixedDelay(() -> {
-            try {
-                assignPendingOrders();
-            } catch (Exception e) {
-                System.err.println("Error in driver assignment worker: " + e.getMessage());
-            }
-        }, 0, 2, TimeUnit.SECONDS);
+    /**
+     * Returns the live lifecycle metrics, call snapshot() on them for a consistent export
+     */
+    public DeliveryMetrics getMetrics() {
+        return metrics;
     }
 
-    private void assignPendingOrders() {
-        List<Order> pendingOrders = orderRepository.findPendingOrders();
-        List<Driver> availableDrivers = driverRepository.findAvailableDrivers();
+    public String showMetrics() {
+        return metrics.snapshot().toString();
+    }
 
-        for (Order order : pendingOrders) {
-            synchronized (order) {
-                if (order.getStatus() != OrderStatus.PENDING) {
-                    continue;
-                }
+    /**
+     * Feeds drivers into the assignment engine: every driver that is available now,
+     * and every driver onboarded later through the shared repository until shutdown
+     */
+    private void startDriverAssignmentEngine() {
+        driverRepository.addSaveListener(driverSavedListener);
+        for (Driver driver : driverRepository.findAvailableDrivers()) {
+            assignmentEngine.onDriverAvailable(driver.getId());
+        }
+    }
 
-                for (Driver driver : availableDrivers) {
-                    synchronized (driver) {
-                        if (driver.isAvailable()) {
-                            order.setStatus(OrderStatus.ASSIGNED);
-                            order.setAssignedDriverId(driver.getId());
-                            driver.setAvailable(false);
-
-                            System.out.println("Order " + order.getId() + " assigned to driver " + driver.getId());
-                            notificationService.sendSMS(driver.getId(), "New order assigned: " + order.getId());
-                            notificationService.sendEmail(order.getCustomerId(), "Order Assigned",
-                                    "Your order " + order.getId() + " has been assigned to driver " + driver.getId());
-                            break;
-                        }
-                    }
-                }
+    private void onDriverSaved(Driver driver) {
+        if (driver.isAvailable()) {
+            assignmentEngine.onDriverAvailable(driver.getId());
+        }
+    }
+
+    Driver findDriver(String driverId) {
+        return driverRepository.findById(driverId);
+    }
+
+    /**
+     * Returns up to limit drivers of this service ranked by the strategy, best first
+     */
+    List<Driver> topDrivers(DriverRankingStrategy strategy, int limit) {
+        return leaderboard.topDrivers(strategy, limit);
+    }
+
+    /**
+     * Takes an idle driver out of this service so it can join another shard
+     * The driver is claimed first, so it cannot be assigned while it moves
+     * Returns the driver, or null if it doesn't exist here or is busy
+     */
+    Driver detachDriver(String driverId) {
+        Driver driver = driverRepository.findById(driverId);
+        if (driver == null || !driver.tryClaim()) {
+            return null;
+        }
+        return detach(driver);
+    }
+
+    /**
+     * Takes any idle driver out of this service, found and claimed through the availability bitmap
+     * Returns the driver, or null if no driver here is idle
+     */
+    Driver detachIdleDriver() {
+        Driver driver = driverRepository.claimIdleDriver();
+        return driver != null ? detach(driver) : null;
+    }
+
+    private Driver detach(Driver driver) {
+        assignmentEngine.onDriverRemoved(driver.getId());
+        leaderboard.remove(driver.getId());
+        driverRepository.remove(driver.getId());
+        publishDriverUpdate(driver);
+        return driver;
+    }
+
+    /**
+     * Takes over a driver detached from another shard and offers it to pending orders
+     */
+    void attachDriver(Driver driver) {
+        driver.setAvailable(true, clock.currentTimeMillis());
+        driverRepository.save(driver);
+        leaderboard.onStatsChange(driver);
+    }
+
+    /**
+     * Runs a matching pass synchronously on the calling thread
+     * Normally not needed since the engine matches as soon as orders and drivers arrive
+     */
+    public void assignPendingOrders() {
+        assignmentEngine.matchNow();
+    }
+
+    /**
+     * Switches the assignment engine to batch min-cost matching, or back to immediate nearest-driver
+     * matching for a null config
+     */
+    public void setBatchAssignment(BatchAssignmentConfig config) {
+        assignmentEngine.setBatchAssignment(config);
+    }
+
+    /**
+     * Turns on admission control with the given limits, or turns it off for null
+     * The assignment rate is measured from this call on
+     */
+    public void setAdmissionControl(AdmissionConfig config) {
+        admissionController = config != null
+                ? new AdmissionController(config, clock, () -> orderRepository.countByStatus(OrderStatus.PENDING),
+                        driverRepository::countAvailableDrivers)
+                : null;
+    }
+
+    /**
+     * Returns the active admission controller, or null if admission control is off
+     */
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    /**
+     * Changes how many orders a driver may carry at once and offers any new free slots to pending orders
+     * Returns false if the driver doesn't exist or capacity is below 1
+     */
+    public boolean updateDriverCapacity(String driverId, int capacity) {
+        try {
+            Driver driver = driverRepository.findById(driverId);
+            if (driver == null) {
+                return false;
             }
+            driver.setCapacity(capacity, clock.currentTimeMillis());
+            driverRepository.save(driver);
+            return true;
+        } catch (Exception e) {
+            System.err.println("ERROR: Failed to update driver capacity: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Assigns the order to one of the driver's free slots if the order is still pending
+     * Invoked by the assignment engine
+     */
+    private boolean tryAssign(Order order, Driver driver) {
+        if (!driver.tryClaim(order.getId())) {
+            return false;
+        }
+        if (order.assign(driver.getId(), clock.currentTimeMillis()) == null) {
+            // Lost the race against a cancel or direct pickup, give the slot back
+            driver.release(order.getId(), clock.currentTimeMillis());
+            return false;
         }
+        completeAssignment(order.getId(), driver.getId());
+        publishDriverUpdate(driver);
+
+        System.out.println("Order " + order.getId() + " assigned to driver " + driver.getId());
+        notificationService.sendSMS(driver.getId(), "New order assigned: " + order.getId());
+        notificationService.sendEmail(order.getCustomerId(), "Order Assigned",
+                "Your order " + order.getId() + " has been assigned to driver " + driver.getId());
+        return true;
     }
 
     public void shutdown() {
-        scheduler.shutdown();
-        try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
+        shutdown(true);
+    }
+
+    /**
+     * Stops the engine, scheduler and persistence, detaches from the shared driver repository, and
+     * stops the notification service unless it is shared
+     */
+    void shutdown(boolean shutdownNotifications) {
+        driverRepository.removeSaveListener(driverSavedListener);
+        driverRepository.removeSaveListener(driverUpdatePublisher);
+        driverRepository.removeStatsListener(driverStatsPublisher);
+        leaderboard.close();
+        assignmentEngine.shutdown();
+        scheduler.stop();
+        if (shutdownNotifications) {
+            notificationService.shutdown();
+        }
+        if (persistence != null) {
+            try {
+                persistence.close();
+            } catch (IOException e) {
+                System.err.println("ERROR: Failed to close delivery journal: " + e.getMessage());
             }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
         }
     }
 
@@ -447,45 +995,90 @@ public class DeliveryService {
     }
 
     /**
-     * Waits for an order to be assigned to a driver
-     * Polls every 2 seconds for up to 5 minutes
-     * Returns null if order is cancelled during wait or timeout occurs
+     * Returns a future completed with the assigned driver ID the moment the order is assigned
+     * Completes with null if the order doesn't exist or is cancelled before assignment
+     * Each caller gets its own copy, so cancelling or timing out one wait never affects another
+     */
+    public CompletableFuture<String> awaitDriverAssignment(String orderId) {
+        Order order = orderRepository.findById(orderId);
+        if (order == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<String> assignment = assignmentFutures.computeIfAbsent(orderId, id -> new CompletableFuture<>());
+        // The order may have been assigned or cancelled before the future was registered
+        OrderState state = order.getState();
+        if (state.getStatus() == OrderStatus.CANCELLED) {
+            completeAssignment(orderId, null);
+        } else if (state.getAssignedDriverId() != null) {
+            completeAssignment(orderId, state.getAssignedDriverId());
+        }
+        return assignment.copy();
+    }
+
+    /**
+     * Same as awaitDriverAssignment, failing with a TimeoutException if no driver is assigned in time
+     * The timeout runs on the service's scheduler, so it may fire up to one tick late
+     */
+    public CompletableFuture<String> awaitDriverAssignment(String orderId, long timeout, TimeUnit unit) {
+        CompletableFuture<String> assignment = awaitDriverAssignment(orderId);
+        if (!assignment.isDone()) {
+            Timeout timer = scheduler.schedule(() -> assignment.completeExceptionally(new TimeoutException()),
+                    timeout, unit);
+            assignment.whenComplete((driverId, error) -> timer.cancel());
+        }
+        return assignment;
+    }
+
+    /**
+     * Completes and forgets the pending assignment future of an order, if anyone is waiting on it
+     */
+    private void completeAssignment(String orderId, String driverId) {
+        CompletableFuture<String> assignment = assignmentFutures.remove(orderId);
+        if (assignment != null) {
+            assignment.complete(driverId);
+        }
+    }
+
+    /**
+     * Blocks until an order is assigned to a driver
+     * Returns null if the order is cancelled or the thread is interrupted during wait
      */
     public String waitForDriverAssignment(String orderId) {
-        while (true) {
-            String driverId = getAssignedDriver(orderId);
-            if (driverId != null) {
-                return driverId;
-            }
-            try {
-                Thread.sleep(2000); // Check every 2 seconds (same as auto-assignment interval)
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                System.err.println("ERROR: Interrupted while waiting for driver assignment");
-                return null;
-            }
+        try {
+            return awaitDriverAssignment(orderId).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("ERROR: Interrupted while waiting for driver assignment");
+            return null;
+        } catch (ExecutionException e) {
+            System.err.println("ERROR: Failed waiting for driver assignment: " + e.getMessage());
+            return null;
         }
     }
 
     public void printSystemSummary() {
-        System.out.println("\n========== System Summary ==========");
+        printSystemSummary("System Summary");
+    }
+
+    /**
+     * Prints the summary under the given title, e.g. to tell shards apart
+     */
+    public void printSystemSummary(String title) {
+        System.out.println("\n========== " + title + " ==========");
 
         List<Driver> allDrivers = driverRepository.getAllDrivers();
         int totalDrivers = allDrivers.size();
-        int activeDrivers = (int) allDrivers.stream().filter(d -> !d.isAvailable()).count();
+        int activeDrivers = (int) allDrivers.stream().filter(d -> d.getActiveOrderCount() > 0).count();
         int totalDeliveries = allDrivers.stream().mapToInt(Driver::getCompletedOrders).sum();
 
         System.out.println("Total Drivers: " + totalDrivers);
         System.out.println("Currently Active (delivering): " + activeDrivers);
         System.out.println("Total Completed Deliveries: " + totalDeliveries);
 
-        List<Order> pendingOrders = orderRepository.findPendingOrders();
-        List<Order> assignedOrders = orderRepository.findAssignedOrders();
-        List<Order> cancelledOrders = orderRepository.findCancelledOrders();
-
-        System.out.println("Cancelled Orders: " + cancelledOrders.size());
-        System.out.println("Pending Orders: " + pendingOrders.size());
-        System.out.println("Assigned Orders: " + assignedOrders.size());
+        System.out.println("Cancelled Orders: " + orderRepository.countByStatus(OrderStatus.CANCELLED));
+        System.out.println("Pending Orders: " + orderRepository.countByStatus(OrderStatus.PENDING));
+        System.out.println("Assigned Orders: " + orderRepository.countByStatus(OrderStatus.ASSIGNED));
         System.out.println("====================================\n");
     }
 
@@ -494,33 +1087,28 @@ public class DeliveryService {
      * Returns true if all steps complete successfully, false otherwise
      */
     public boolean completeOrder(String orderId, String customerId, double rating) {
-        try {
-            // Wait for driver assignment
-            String driverId = waitForDriverAssignment(orderId);
-            if (driverId == null) {
-                System.err.println("ERROR: Could not assign driver to order " + orderId);
-                return false;
-            }
-
-            // Pickup order
-            if (!pickupOrder(driverId, orderId)) {
-                return false;
-            }
-
-            // Deliver order
-            if (!deliverOrder(driverId, orderId)) {
-                return false;
-            }
-
-            // Rate driver
-            if (!rateDriver(orderId, customerId, rating)) {
-                return false;
-            }
+        return completeOrderAsync(orderId, customerId, rating).join();
+    }
 
-            return true;
-        } catch (Exception e) {
-            System.err.println("ERROR: Failed to complete order " + orderId + ": " + e.getMessage());
-            return false;
-        }
+    /**
+     * Asynchronous version of completeOrder
+     * No thread is parked while waiting for assignment; once a driver is assigned the remaining
+     * steps run on the common pool, so any number of orders can be in flight at once
+     */
+    public CompletableFuture<Boolean> completeOrderAsync(String orderId, String customerId, double rating) {
+        return awaitDriverAssignment(orderId)
+                .thenApplyAsync(driverId -> {
+                    if (driverId == null) {
+                        System.err.println("ERROR: Could not assign driver to order " + orderId);
+                        return false;
+                    }
+                    return pickupOrder(driverId, orderId)
+                            && deliverOrder(driverId, orderId)
+                            && rateDriver(orderId, customerId, rating);
+                })
+                .exceptionally(e -> {
+                    System.err.println("ERROR: Failed to complete order " + orderId + ": " + e.getMessage());
+                    return false;
+                });
     }
 }
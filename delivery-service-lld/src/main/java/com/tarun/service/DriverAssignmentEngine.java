@@ -0,0 +1,456 @@
+package com.tarun.service;
+
+import com.tarun.model.Driver;
+import com.tarun.model.Order;
+import com.tarun.model.OrderStatus;
+import com.tarun.repository.DriverRepository;
+import com.tarun.repository.DriverSpatialIndex;
+import com.tarun.repository.ItemRepository;
+import com.tarun.repository.OrderRepository;
+import com.tarun.timer.Scheduler;
+import com.tarun.timer.Timeout;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Event-driven matcher between pending orders and available drivers
+ * Orders are pushed into a priority queue by item class and age (see PendingOrderQueue) and
+ * available drivers into a spatial index when they become eligible, and a match runs as soon as
+ * both sides are non-empty, so urgent orders get scarce drivers first. Each order goes to
+ * the nearest available driver around its pickup location. Drivers with spare capacity stay
+ * indexed, and a driver taking an order is bundled further queued orders picked up in the same
+ * grid cell while it has free slots. Orders left over once no driver is indexed are parked
+ * outside the queue and only retried after a driver becomes available or moves, so passes
+ * triggered by new orders don't search for them again. Repositories stay the source of truth,
+ * so every queued order and indexed driver is re-validated when consumed.
+ * In batch mode, matching instead runs on a tick or once enough orders arrived, and assigns a
+ * whole batch of orders to nearby drivers at minimum total cost
+ */
+public class DriverAssignmentEngine {
+
+    /**
+     * Performs the actual assignment of an order to a driver
+     * Returns true if the order was assigned, false if either side changed in the meantime
+     */
+    public interface AssignmentHandler {
+        boolean tryAssign(Order order, Driver driver);
+    }
+
+    private static final double UNREACHABLE_COST = 1e12;
+    private static final int MIN_BATCH_LIMIT = 8;
+    private static final int BUNDLE_WINDOW = 256;
+    // Batch cost credit per minute of effective wait, so scarce drivers go to the best ranked orders
+    private static final double RANK_MINUTE_CREDIT = 1.0;
+
+    private final OrderRepository orderRepository;
+    private final DriverRepository driverRepository;
+    private final ItemRepository itemRepository;
+    private final DriverSpatialIndex availableDrivers;
+    private final AssignmentHandler assignmentHandler;
+    private final int nearestCandidates;
+    private final PendingOrderQueue pendingOrderQueue = new PendingOrderQueue();
+    private final AtomicBoolean matchScheduled = new AtomicBoolean(false);
+    private final AtomicInteger arrivalsSinceMatch = new AtomicInteger();
+    // Guarded by this engine's monitor, like every matching pass
+    private final List<Order> parkedOrders = new ArrayList<>();
+    private final AtomicBoolean driversChanged = new AtomicBoolean(false);
+    private volatile boolean hasParkedOrders;
+    private final Scheduler scheduler;
+    private volatile BatchAssignmentConfig batchConfig;
+    private Timeout batchTick;
+    private int batchLimit;
+
+    /**
+     * Creates an engine that tries the nearestCandidates closest drivers for every order
+     * Orders are prioritized by the class of their item. Matching passes and batch ticks run on
+     * the scheduler, costs are priced at its clock's time
+     */
+    public DriverAssignmentEngine(OrderRepository orderRepository, DriverRepository driverRepository,
+                                  ItemRepository itemRepository, DriverSpatialIndex availableDrivers,
+                                  int nearestCandidates, AssignmentHandler assignmentHandler, Scheduler scheduler) {
+        this.scheduler = scheduler;
+        this.orderRepository = orderRepository;
+        this.driverRepository = driverRepository;
+        this.itemRepository = itemRepository;
+        this.availableDrivers = availableDrivers;
+        this.nearestCandidates = nearestCandidates;
+        this.assignmentHandler = assignmentHandler;
+    }
+
+    /**
+     * Queues a newly placed order and triggers a match
+     */
+    public void onOrderPending(String orderId) {
+        enqueue(orderId);
+        onArrivals(1);
+    }
+
+    /**
+     * Queues a batch of newly placed orders in the given order and triggers a single match
+     */
+    public void onOrdersPending(List<String> orderIds) {
+        for (String orderId : orderIds) {
+            enqueue(orderId);
+        }
+        onArrivals(orderIds.size());
+    }
+
+    private void enqueue(String orderId) {
+        Order order = orderRepository.findById(orderId);
+        if (order != null) {
+            pendingOrderQueue.offer(order, itemRepository.priorityOf(order.getItemId()));
+        }
+    }
+
+    /**
+     * Holds back orders that found no driver until a driver becomes available or moves, or puts
+     * them back at the head of their classes if drivers are still indexed
+     */
+    private void defer(List<Order> deferred) {
+        if (deferred.isEmpty()) {
+            return;
+        }
+        if (availableDrivers.isEmpty()) {
+            parkedOrders.addAll(deferred);
+            hasParkedOrders = true;
+        } else {
+            requeue(deferred);
+        }
+    }
+
+    /**
+     * Puts orders that found no driver back at the head of their classes, in their original sequence
+     */
+    private void requeue(List<Order> deferred) {
+        for (int i = deferred.size() - 1; i >= 0; i--) {
+            Order order = deferred.get(i);
+            pendingOrderQueue.offerFirst(order, itemRepository.priorityOf(order.getItemId()));
+        }
+    }
+
+    /**
+     * Matches right away, or in batch mode only once the batch size trigger is reached
+     */
+    private void onArrivals(int count) {
+        BatchAssignmentConfig config = batchConfig;
+        if (config == null || arrivalsSinceMatch.addAndGet(count) >= config.getBatchSizeTrigger()) {
+            requestMatch();
+        }
+    }
+
+    /**
+     * Indexes a driver that just became available at its current location and triggers a match
+     * A driver is indexed at most once no matter how many times it is signalled
+     */
+    public void onDriverAvailable(String driverId) {
+        Driver driver = driverRepository.findById(driverId);
+        if (driver != null) {
+            availableDrivers.add(driver);
+            driversChanged.set(true);
+            if (batchConfig == null) {
+                requestMatch();
+            }
+        }
+    }
+
+    /**
+     * Re-indexes an available driver after its location changed, retrying parked orders if any
+     */
+    public void onDriverMoved(Driver driver) {
+        if (availableDrivers.contains(driver.getId())) {
+            availableDrivers.add(driver);
+            driversChanged.set(true);
+            if (hasParkedOrders && batchConfig == null) {
+                requestMatch();
+            }
+        }
+    }
+
+    /**
+     * Stops offering a driver to orders, e.g. before it leaves this engine's shard
+     */
+    public void onDriverRemoved(String driverId) {
+        availableDrivers.remove(driverId);
+    }
+
+    /**
+     * Switches to batch matching with the given settings, or back to greedy matching for null
+     */
+    public synchronized void setBatchAssignment(BatchAssignmentConfig config) {
+        if (batchTick != null) {
+            batchTick.cancel();
+            batchTick = null;
+        }
+        batchConfig = config;
+        if (config != null) {
+            batchLimit = config.getMaxBatchSize();
+            batchTick = scheduler.scheduleWithFixedDelay(this::requestMatch, config.getTickMillis(),
+                    TimeUnit.MILLISECONDS);
+        } else {
+            requestMatch();
+        }
+    }
+
+    /**
+     * Schedules a matching pass on the scheduler unless one is already queued
+     */
+    private void requestMatch() {
+        if (matchScheduled.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                matchScheduled.set(false);
+                try {
+                    matchNow();
+                } catch (Exception e) {
+                    System.err.println("Error in driver assignment engine: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs one matching pass in the current mode
+     */
+    public synchronized void matchNow() {
+        arrivalsSinceMatch.set(0);
+        if (driversChanged.getAndSet(false) && hasParkedOrders) {
+            requeue(parkedOrders);
+            parkedOrders.clear();
+            hasParkedOrders = false;
+        }
+        BatchAssignmentConfig config = batchConfig;
+        if (config != null) {
+            matchBatch(config);
+        } else {
+            matchGreedy();
+        }
+    }
+
+    /**
+     * Matches queued orders in priority order with their nearest available driver until either side runs out
+     * Orders are taken BUNDLE_WINDOW at a time so later orders from the same pickup cell can be
+     * bundled onto a driver ahead of their turn. Orders left without a driver are deferred
+     */
+    private void matchGreedy() {
+        List<Order> deferred = new ArrayList<>();
+        while (!availableDrivers.isEmpty()) {
+            List<Order> window = pollPendingOrders(BUNDLE_WINDOW);
+            if (window.isEmpty()) {
+                break;
+            }
+            Map<Long, Deque<Order>> ordersByCell = groupByPickupCell(window);
+            Set<String> handled = new HashSet<>();
+            for (Order order : window) {
+                if (handled.contains(order.getId())) {
+                    continue;
+                }
+                Driver driver = availableDrivers.isEmpty() ? null : assignToNearest(order);
+                if (driver != null) {
+                    handled.add(order.getId());
+                    bundle(driver, order, ordersByCell, handled);
+                } else if (order.getStatus() == OrderStatus.PENDING) {
+                    deferred.add(order);
+                }
+            }
+        }
+        defer(deferred);
+    }
+
+    /**
+     * Takes up to max orders that are still pending off the queue, best ranked first
+     */
+    private List<Order> pollPendingOrders(int max) {
+        List<Order> orders = new ArrayList<>();
+        while (orders.size() < max) {
+            String orderId = pendingOrderQueue.poll();
+            if (orderId == null) {
+                break;
+            }
+            Order order = orderRepository.findById(orderId);
+            if (order != null && order.getStatus() == OrderStatus.PENDING) {
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Groups orders with a known pickup location by grid cell, keeping FIFO order within each cell
+     */
+    private Map<Long, Deque<Order>> groupByPickupCell(List<Order> orders) {
+        Map<Long, Deque<Order>> ordersByCell = new HashMap<>();
+        for (Order order : orders) {
+            if (order.getPickupLocation() != null) {
+                ordersByCell.computeIfAbsent(availableDrivers.cellKeyOf(order.getPickupLocation()),
+                        cell -> new ArrayDeque<>()).add(order);
+            }
+        }
+        return ordersByCell;
+    }
+
+    /**
+     * Fills the driver's free slots with other unhandled orders from the anchor order's pickup cell
+     * The driver is evicted from the index once it is full
+     */
+    private void bundle(Driver driver, Order anchor, Map<Long, Deque<Order>> ordersByCell, Set<String> handled) {
+        Deque<Order> sameCell = anchor.getPickupLocation() == null ? null
+                : ordersByCell.get(availableDrivers.cellKeyOf(anchor.getPickupLocation()));
+        while (sameCell != null && driver.isAvailable() && !sameCell.isEmpty()) {
+            Order next = sameCell.poll();
+            if (handled.contains(next.getId()) || next.getStatus() != OrderStatus.PENDING) {
+                continue;
+            }
+            if (!assignmentHandler.tryAssign(next, driver)) {
+                if (next.getStatus() == OrderStatus.PENDING) {
+                    // Not handled, so it is still matched or deferred in its own turn
+                    sameCell.addFirst(next);
+                }
+                break;
+            }
+            handled.add(next.getId());
+        }
+        if (!driver.isAvailable()) {
+            evict(driver);
+        }
+    }
+
+    /**
+     * Takes up to batchLimit pending orders off the queue and assigns them to drivers at minimum total cost
+     * Each order may only go to one of its candidatesPerOrder nearest drivers, one order per driver;
+     * a driver with spare capacity is then bundled further batch orders from the same pickup cell.
+     * Orders left without a driver, or whose driver filled up in the meantime, are deferred in FIFO order
+     * The batch limit halves whenever solving takes more than half a tick and slowly grows back,
+     * so a pass stays well within the tick interval
+     */
+    private void matchBatch(BatchAssignmentConfig config) {
+        long startNanos = System.nanoTime();
+        List<Order> orders = availableDrivers.isEmpty() ? Collections.emptyList() : pollPendingOrders(batchLimit);
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        Map<String, Integer> columnOfDriver = new HashMap<>();
+        List<Driver> drivers = new ArrayList<>();
+        List<int[]> candidateColumns = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            List<Driver> nearest = availableDrivers.findNearest(order.getPickupLocation(), config.getCandidatesPerOrder());
+            int[] columns = new int[nearest.size()];
+            int count = 0;
+            for (Driver driver : nearest) {
+                Integer column = columnOfDriver.get(driver.getId());
+                if (column == null && driver.isAvailable() && drivers.size() < batchLimit) {
+                    column = drivers.size();
+                    columnOfDriver.put(driver.getId(), column);
+                    drivers.add(driver);
+                }
+                if (column != null) {
+                    columns[count++] = column;
+                }
+            }
+            candidateColumns.add(Arrays.copyOf(columns, count));
+        }
+
+        long nowMillis = scheduler.getClock().currentTimeMillis();
+        double[][] cost = new double[orders.size()][drivers.size()];
+        for (int row = 0; row < orders.size(); row++) {
+            Order order = orders.get(row);
+            double rankCredit = rankCredit(order, nowMillis);
+            Arrays.fill(cost[row], UNREACHABLE_COST);
+            for (int column : candidateColumns.get(row)) {
+                cost[row][column] = config.getCostStrategy().cost(order, drivers.get(column), nowMillis) - rankCredit;
+            }
+        }
+        int[] match = drivers.isEmpty() ? new int[0] : MinCostAssignment.solve(cost);
+        adaptBatchLimit(config, System.nanoTime() - startNanos);
+
+        Map<Long, Deque<Order>> ordersByCell = groupByPickupCell(orders);
+        Set<String> handled = new HashSet<>();
+        for (int row = 0; row < orders.size(); row++) {
+            Order order = orders.get(row);
+            int column = row < match.length ? match[row] : -1;
+            if (handled.contains(order.getId()) || column < 0 || cost[row][column] >= UNREACHABLE_COST) {
+                continue;
+            }
+            Driver driver = drivers.get(column);
+            if (driver.isAvailable() && assignmentHandler.tryAssign(order, driver)) {
+                handled.add(order.getId());
+                bundle(driver, order, ordersByCell, handled);
+            } else if (!driver.isAvailable()) {
+                evict(driver);
+            }
+        }
+        List<Order> deferred = new ArrayList<>();
+        for (Order order : orders) {
+            if (!handled.contains(order.getId()) && order.getStatus() == OrderStatus.PENDING) {
+                deferred.add(order);
+            }
+        }
+        defer(deferred);
+    }
+
+    /**
+     * Credits an order for its effective wait, its age plus the head start of its class
+     * The same credit applies to every driver of the order, so it only changes which orders get
+     * a driver when a batch has more orders than drivers, favouring the ones ranked first
+     */
+    private double rankCredit(Order order, long nowMillis) {
+        long effectiveWaitMillis = Math.max(0, nowMillis - order.getCreatedAtMillis())
+                + itemRepository.priorityOf(order.getItemId()).getHeadStartMillis();
+        return effectiveWaitMillis / 60_000.0 * RANK_MINUTE_CREDIT;
+    }
+
+    private void adaptBatchLimit(BatchAssignmentConfig config, long elapsedNanos) {
+        long budgetNanos = TimeUnit.MILLISECONDS.toNanos(config.getTickMillis()) / 2;
+        if (elapsedNanos > budgetNanos) {
+            batchLimit = Math.max(MIN_BATCH_LIMIT, batchLimit / 2);
+        } else if (elapsedNanos < budgetNanos / 4) {
+            batchLimit = Math.min(config.getMaxBatchSize(), batchLimit + batchLimit / 4 + 1);
+        }
+    }
+
+    /**
+     * Offers the order to its nearest indexed drivers, closest first
+     * Drivers found to be no longer available are evicted from the index on the way
+     * Returns the driver that took the order, or null if none did or the order stopped being pending
+     */
+    private Driver assignToNearest(Order order) {
+        while (true) {
+            List<Driver> candidates = availableDrivers.findNearest(order.getPickupLocation(), nearestCandidates);
+            if (candidates.isEmpty()) {
+                return null;
+            }
+            for (Driver driver : candidates) {
+                if (driver.isAvailable() && assignmentHandler.tryAssign(order, driver)) {
+                    return driver;
+                }
+                if (order.getStatus() != OrderStatus.PENDING) {
+                    return null;
+                }
+                if (!driver.isAvailable()) {
+                    evict(driver);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the driver from the index, re-adding it if it became available again concurrently
+     */
+    private void evict(Driver driver) {
+        if (availableDrivers.remove(driver.getId()) && driver.isAvailable()) {
+            availableDrivers.add(driver);
+        }
+    }
+
+    /**
+     * Stops the batch tick; the scheduler itself is owned and stopped by the caller
+     */
+    public synchronized void shutdown() {
+        if (batchTick != null) {
+            batchTick.cancel();
+            batchTick = null;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.tarun.service;
+
+import java.util.Arrays;
+
+/**
+ * Hungarian algorithm for the rectangular min-cost assignment problem
+ * Runs in O(r^2 * c) for r rows and c columns with r <= c, wider matrices are solved transposed
+ */
+final class MinCostAssignment {
+
+    private MinCostAssignment() {}
+
+    /**
+     * Returns the column matched to each row, or -1 for rows left unmatched because there are
+     * more rows than columns. The total cost of the matched cells is minimal
+     */
+    static int[] solve(double[][] cost) {
+        int rows = cost.length;
+        int columns = rows == 0 ? 0 : cost[0].length;
+        if (rows <= columns) {
+            return solveTall(cost, rows, columns, false);
+        }
+        int[] rowOfColumn = solveTall(cost, columns, rows, true);
+        int[] columnOfRow = new int[rows];
+        Arrays.fill(columnOfRow, -1);
+        for (int column = 0; column < columns; column++) {
+            columnOfRow[rowOfColumn[column]] = column;
+        }
+        return columnOfRow;
+    }
+
+    /**
+     * Shortest augmenting path variant with potentials u, v over an n x m view, n <= m
+     * When transposed, cell (i, j) of the view is cost[j][i]
+     */
+    private static int[] solveTall(double[][] cost, int n, int m, boolean transposed) {
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        // p[j] is the 1-based row matched to column j, way[j] the previous column on the path
+        int[] p = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minv = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) {
+                        continue;
+                    }
+                    double cell = transposed ? cost[j - 1][i0 - 1] : cost[i0 - 1][j - 1];
+                    double reduced = cell - u[i0] - v[j];
+                    if (reduced < minv[j]) {
+                        minv[j] = reduced;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+        int[] matched = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (p[j] != 0) {
+                matched[p[j] - 1] = j - 1;
+            }
+        }
+        return matched;
+    }
+}
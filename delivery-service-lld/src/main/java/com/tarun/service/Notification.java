@@ -0,0 +1,26 @@
+package com.tarun.service;
+
+/**
+ * A single queued notification, stamped with the time it was accepted for delivery
+ */
+public class Notification {
+    private final NotificationChannel channel;
+    private final String recipient;
+    private final String subject;
+    private final String message;
+    private final long enqueuedAtNanos;
+
+    public Notification(NotificationChannel channel, String recipient, String subject, String message, long enqueuedAtNanos) {
+        this.channel = channel;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.message = message;
+        this.enqueuedAtNanos = enqueuedAtNanos;
+    }
+
+    public NotificationChannel getChannel() { return channel; }
+    public String getRecipient() { return recipient; }
+    public String getSubject() { return subject; }
+    public String getMessage() { return message; }
+    public long getEnqueuedAtNanos() { return enqueuedAtNanos; }
+}
@@ -0,0 +1,9 @@
+package com.tarun.service;
+
+/**
+ * Delivery channels supported by the notification gateways
+ */
+public enum NotificationChannel {
+    EMAIL,
+    SMS
+}
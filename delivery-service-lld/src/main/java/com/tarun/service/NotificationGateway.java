@@ -0,0 +1,15 @@
+package com.tarun.service;
+
+import java.util.List;
+
+/**
+ * Outbound connection to an email or SMS provider that accepts notifications in batches
+ */
+public interface NotificationGateway {
+
+    /**
+     * Sends a batch of notifications that all use the same channel
+     * Throws if the provider rejected the batch
+     */
+    void sendBatch(NotificationChannel channel, List<Notification> batch) throws Exception;
+}
@@ -1,5 +1,7 @@
 package com.tarun.service;
 
+import java.util.List;
+
 /**
  * Interface for sending notifications to customers and drivers
  */
@@ -13,4 +15,23 @@ public interface NotificationService {
      * Sends an SMS notification
      */
     void sendSMS(String phoneNumber, String message);
+
+    /**
+     * Sends a batch of notifications
+     * The default sends them one by one, implementations may hand the batch over at once
+     */
+    default void sendAll(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            if (notification.getChannel() == NotificationChannel.EMAIL) {
+                sendEmail(notification.getRecipient(), notification.getSubject(), notification.getMessage());
+            } else {
+                sendSMS(notification.getRecipient(), notification.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Releases any resources, flushing notifications that are still buffered
+     */
+    default void shutdown() {}
 }
@@ -3,20 +3,39 @@ package com.tarun.service;
 
 import com.tarun.model.Customer;
 import com.tarun.model.Driver;
+import com.tarun.model.Location;
 import com.tarun.repository.CustomerRepository;
 import com.tarun.repository.DriverRepository;
+import com.tarun.timer.Clock;
 
 public class OnboardingService {
 
     private final CustomerRepository customerRepository;
     private final DriverRepository driverRepository;
+    private final Clock clock;
 
     /**
      * Creates OnboardingService with singleton repositories
      */
     public OnboardingService() {
-        this.customerRepository = CustomerRepository.getInstance();
-        this.driverRepository = DriverRepository.getInstance();
+        this(CustomerRepository.getInstance(), DriverRepository.getInstance());
+    }
+
+    /**
+     * Creates OnboardingService on top of the given repositories, e.g. those of one shard
+     */
+    public OnboardingService(CustomerRepository customerRepository, DriverRepository driverRepository) {
+        this(customerRepository, driverRepository, Clock.SYSTEM);
+    }
+
+    /**
+     * Creates OnboardingService whose new drivers are available from the given clock's current time
+     * Use the clock of the DeliveryService the drivers will work for
+     */
+    public OnboardingService(CustomerRepository customerRepository, DriverRepository driverRepository, Clock clock) {
+        this.customerRepository = customerRepository;
+        this.driverRepository = driverRepository;
+        this.clock = clock;
     }
 
     /**
@@ -46,7 +65,7 @@ public class OnboardingService {
             if (driverRepository.exists(id)) {
                 return false;
             }
-            Driver driver = new Driver(id, name);
+            Driver driver = new Driver(id, name, clock.currentTimeMillis());
             driverRepository.save(driver);
             System.out.println("Driver onboarded: " + id + " - " + name);
             return true;
@@ -55,6 +74,33 @@ public class OnboardingService {
         }
     }
 
+    /**
+     * Onboards a new driver whose current location is known
+     * Returns false if driver ID already exists or coordinates are invalid
+     */
+    public boolean onboardDriver(String id, String name, double latitude, double longitude) {
+        return onboardDriver(id, name, latitude, longitude, Driver.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Onboards a new driver at a known location who can carry up to capacity orders at once
+     * Returns false if driver ID already exists, coordinates are invalid or capacity is below 1
+     */
+    public boolean onboardDriver(String id, String name, double latitude, double longitude, int capacity) {
+        try {
+            if (driverRepository.exists(id)) {
+                return false;
+            }
+            Driver driver = new Driver(id, name, capacity, clock.currentTimeMillis());
+            driver.setLocation(new Location(latitude, longitude));
+            driverRepository.save(driver);
+            System.out.println("Driver onboarded: " + id + " - " + name + " at " + driver.getLocation());
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
     public Customer getCustomer(String id) {
         return customerRepository.findById(id);
     }
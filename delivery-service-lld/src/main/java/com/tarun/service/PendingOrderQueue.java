@@ -0,0 +1,109 @@
+package com.tarun.service;
+
+import com.tarun.model.Order;
+import com.tarun.model.PriorityClass;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Multi-level queue of pending order IDs, one FIFO level per priority class
+ * An order's rank is its creation time minus the head start of its class, lower first. Urgent
+ * orders thereby overtake orders placed up to their head start earlier, while any order that
+ * waited longer than that is served before newer urgent ones, so lower classes age into
+ * priority instead of starving. Creation times of concurrently placed orders can reach a level
+ * out of order, so each level stamps an entry's rank at enqueue time, under the level's lock, as
+ * no lower than the last rank appended and no higher than the current head when put back. Every
+ * level thereby stays sorted by rank and the next order is the best of the level heads: offer
+ * and poll are O(1) for the fixed number of classes.
+ * Any thread may offer; poll and offerFirst must come from one thread at a time
+ */
+final class PendingOrderQueue {
+
+    private static final class Entry {
+        private final String orderId;
+        private final long rank;
+
+        Entry(String orderId, long rank) {
+            this.orderId = orderId;
+            this.rank = rank;
+        }
+    }
+
+    private static final PriorityClass[] CLASSES = PriorityClass.values();
+
+    /**
+     * One priority class; entries are appended and put back under its lock, polled without it
+     */
+    private static final class Level {
+        private final Deque<Entry> entries = new ConcurrentLinkedDeque<>();
+        private long lastRank = Long.MIN_VALUE;
+    }
+
+    private final List<Level> levels = new ArrayList<>(CLASSES.length);
+
+    PendingOrderQueue() {
+        for (int i = 0; i < CLASSES.length; i++) {
+            levels.add(new Level());
+        }
+    }
+
+    /**
+     * Appends a newly pending order to the tail of its class
+     * An order created before the current tail is ranked level with it
+     */
+    void offer(Order order, PriorityClass priorityClass) {
+        Level level = levels.get(priorityClass.ordinal());
+        synchronized (level) {
+            level.lastRank = Math.max(rankOf(order, priorityClass), level.lastRank);
+            level.entries.offerLast(new Entry(order.getId(), level.lastRank));
+        }
+    }
+
+    /**
+     * Puts an order taken by poll back at the head of its class
+     * Orders put back together must be offered in reverse poll order to keep their sequence
+     */
+    void offerFirst(Order order, PriorityClass priorityClass) {
+        Level level = levels.get(priorityClass.ordinal());
+        synchronized (level) {
+            long rank = rankOf(order, priorityClass);
+            Entry head = level.entries.peekFirst();
+            level.entries.offerFirst(new Entry(order.getId(), head == null ? rank : Math.min(rank, head.rank)));
+        }
+    }
+
+    /**
+     * Removes and returns the order ID with the lowest rank, or null if the queue is empty
+     */
+    String poll() {
+        int best = -1;
+        long bestRank = Long.MAX_VALUE;
+        for (int i = 0; i < levels.size(); i++) {
+            Entry head = levels.get(i).entries.peekFirst();
+            if (head != null && (best < 0 || head.rank < bestRank)) {
+                best = i;
+                bestRank = head.rank;
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+        return levels.get(best).entries.pollFirst().orderId;
+    }
+
+    boolean isEmpty() {
+        for (Level level : levels) {
+            if (!level.entries.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long rankOf(Order order, PriorityClass priorityClass) {
+        return order.getCreatedAtMillis() - priorityClass.getHeadStartMillis();
+    }
+}
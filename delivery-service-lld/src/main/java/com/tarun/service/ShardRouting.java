@@ -0,0 +1,18 @@
+package com.tarun.service;
+
+/**
+ * How a ShardedDeliveryService assigns orders and drivers to shards
+ */
+public enum ShardRouting {
+    /**
+     * Customers, and their orders, are hashed by customer ID; drivers by driver ID
+     * Every shard covers the whole area, idle drivers are rebalanced towards backlogged shards
+     */
+    CUSTOMER,
+
+    /**
+     * Orders and drivers are hashed by the zone of their location, customers live in every shard
+     * Drivers follow their location into the shard of the zone they move to
+     */
+    ZONE
+}
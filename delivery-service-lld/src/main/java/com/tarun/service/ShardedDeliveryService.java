@@ -0,0 +1,521 @@
+package com.tarun.service;
+
+import com.tarun.event.DeliveryEventBus;
+import com.tarun.model.Driver;
+import com.tarun.model.Order;
+import com.tarun.model.OrderAdmission;
+import com.tarun.model.OrderPage;
+import com.tarun.model.OrderPlacementResult;
+import com.tarun.model.OrderRequest;
+import com.tarun.repository.CustomerRepository;
+import com.tarun.repository.DriverRepository;
+import com.tarun.strategy.DriverRankingStrategy;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Partitioned deployment of DeliveryService for multi-core matching
+ * Each shard is a complete DeliveryService with its own repositories, assignment engine and
+ * cancellation timer, so shards match in parallel without sharing any state. Orders are routed
+ * by customer or by zone (see ShardRouting) and their IDs carry the shard number, so every
+ * later call on an order goes straight to its shard. Idle drivers move between shards: with
+ * CUSTOMER routing a rebalancer shifts them towards shards with a backlog, with ZONE routing
+ * they follow their location. Busy drivers never move, and the rebalancer runs once start() is called
+ */
+public class ShardedDeliveryService {
+
+    private static final double ZONE_DEGREES = 0.05;
+    private static final long DEFAULT_CANCELLATION_TICK_MILLIS = 1000;
+    private static final long REBALANCE_INTERVAL_MILLIS = 200;
+
+    private final DeliveryService[] shards;
+    private final OnboardingService[] onboarding;
+    private final ShardRouting routing;
+    private final NotificationService notificationService;
+    private final Map<String, Integer> driverShards = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService rebalancer;
+
+    /**
+     * Creates shardCount shards sharing an asynchronous notification service
+     */
+    public ShardedDeliveryService(int shardCount, ShardRouting routing) {
+        this(shardCount, routing, DEFAULT_CANCELLATION_TICK_MILLIS, new AsyncNotificationService());
+    }
+
+    public ShardedDeliveryService(int shardCount, ShardRouting routing, long cancellationTickMillis,
+                                  NotificationService notificationService) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.routing = routing;
+        this.notificationService = notificationService;
+        this.shards = new DeliveryService[shardCount];
+        this.onboarding = new OnboardingService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            CustomerRepository customerRepository = new CustomerRepository();
+            DriverRepository driverRepository = new DriverRepository();
+            shards[i] = new DeliveryService(customerRepository, driverRepository, cancellationTickMillis,
+                    notificationService, null, "ORD" + i + "-");
+            onboarding[i] = new OnboardingService(customerRepository, driverRepository);
+        }
+
+        if (routing == ShardRouting.CUSTOMER && shardCount > 1) {
+            rebalancer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "shard-rebalancer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            rebalancer = null;
+        }
+    }
+
+    /**
+     * Starts moving idle drivers between shards every REBALANCE_INTERVAL_MILLIS with CUSTOMER routing
+     * Kept out of the constructor so the rebalancing task never sees a partly built service
+     */
+    public void start() {
+        if (rebalancer == null) {
+            return;
+        }
+        rebalancer.scheduleWithFixedDelay(() -> {
+            try {
+                rebalanceDrivers();
+            } catch (Exception e) {
+                System.err.println("ERROR: Driver rebalancing failed: " + e.getMessage());
+            }
+        }, REBALANCE_INTERVAL_MILLIS, REBALANCE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public DeliveryService getShard(int index) {
+        return shards[index];
+    }
+
+    /**
+     * Onboards a customer into its shard, or into every shard with ZONE routing
+     * Returns false if the customer ID already exists
+     */
+    public boolean onboardCustomer(String id, String name) {
+        if (routing == ShardRouting.CUSTOMER) {
+            return onboarding[hashShard(id)].onboardCustomer(id, name);
+        }
+        if (onboarding[0].getCustomer(id) != null) {
+            return false;
+        }
+        boolean onboarded = true;
+        for (OnboardingService service : onboarding) {
+            onboarded &= service.onboardCustomer(id, name);
+        }
+        return onboarded;
+    }
+
+    /**
+     * Onboards a driver without a known location, placed by driver ID
+     * Returns false if the driver ID already exists in any shard
+     */
+    public boolean onboardDriver(String id, String name) {
+        int shard = hashShard(id);
+        if (driverShards.putIfAbsent(id, shard) != null) {
+            return false;
+        }
+        if (!onboarding[shard].onboardDriver(id, name)) {
+            driverShards.remove(id, shard);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Onboards a driver at a known location, placed in the shard of its zone with ZONE routing
+     * Returns false if the driver ID already exists in any shard or coordinates are invalid
+     */
+    public boolean onboardDriver(String id, String name, double latitude, double longitude) {
+        return onboardDriver(id, name, latitude, longitude, Driver.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Onboards a driver at a known location who can carry up to capacity orders at once
+     */
+    public boolean onboardDriver(String id, String name, double latitude, double longitude, int capacity) {
+        int shard = routing == ShardRouting.ZONE ? zoneShard(latitude, longitude) : hashShard(id);
+        if (driverShards.putIfAbsent(id, shard) != null) {
+            return false;
+        }
+        if (!onboarding[shard].onboardDriver(id, name, latitude, longitude, capacity)) {
+            driverShards.remove(id, shard);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Places an order without pickup location in the customer's shard
+     * Returns order ID if successful, null if validation fails
+     */
+    public String placeOrder(String customerId, String itemId) {
+        return shards[hashShard(customerId)].placeOrder(customerId, itemId);
+    }
+
+    /**
+     * Places an order in the customer's shard, or in the shard of the pickup zone with ZONE routing
+     * Returns order ID if successful, null if validation fails
+     */
+    public String placeOrder(String customerId, String itemId, double latitude, double longitude) {
+        int shard = routing == ShardRouting.ZONE ? zoneShard(latitude, longitude) : hashShard(customerId);
+        return shards[shard].placeOrder(customerId, itemId, latitude, longitude);
+    }
+
+    /**
+     * Places an order in its shard under that shard's admission control, see placeOrder
+     */
+    public OrderAdmission tryPlaceOrder(String customerId, String itemId) {
+        return shards[hashShard(customerId)].tryPlaceOrder(customerId, itemId);
+    }
+
+    public OrderAdmission tryPlaceOrder(String customerId, String itemId, double latitude, double longitude) {
+        int shard = routing == ShardRouting.ZONE ? zoneShard(latitude, longitude) : hashShard(customerId);
+        return shards[shard].tryPlaceOrder(customerId, itemId, latitude, longitude);
+    }
+
+    /**
+     * Splits a burst of orders by shard and places each part with one bulk call
+     * Returns one result per request, in request order
+     */
+    public List<OrderPlacementResult> placeOrders(List<OrderRequest> requests) {
+        List<List<Integer>> positions = new ArrayList<>(shards.length);
+        List<List<OrderRequest>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            positions.add(new ArrayList<>());
+            parts.add(new ArrayList<>());
+        }
+        OrderPlacementResult[] results = new OrderPlacementResult[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            OrderRequest request = requests.get(i);
+            if (request == null || request.getCustomerId() == null) {
+                results[i] = OrderPlacementResult.rejected("Unknown customer");
+                continue;
+            }
+            int shard = routing == ShardRouting.ZONE && request.hasPickupLocation()
+                    ? zoneShard(request.getLatitude(), request.getLongitude())
+                    : hashShard(request.getCustomerId());
+            positions.get(shard).add(i);
+            parts.get(shard).add(request);
+        }
+        for (int shard = 0; shard < shards.length; shard++) {
+            if (parts.get(shard).isEmpty()) {
+                continue;
+            }
+            List<OrderPlacementResult> placed = shards[shard].placeOrders(parts.get(shard));
+            for (int j = 0; j < placed.size(); j++) {
+                results[positions.get(shard).get(j)] = placed.get(j);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    public boolean cancelOrder(String orderId) {
+        DeliveryService shard = shardOfOrder(orderId);
+        return shard != null && shard.cancelOrder(orderId);
+    }
+
+    /**
+     * Marks an order as picked up; the driver must currently belong to the order's shard
+     */
+    public boolean pickupOrder(String driverId, String orderId) {
+        DeliveryService shard = shardOfOrder(orderId);
+        return shard != null && shard.pickupOrder(driverId, orderId);
+    }
+
+    public boolean deliverOrder(String driverId, String orderId) {
+        DeliveryService shard = shardOfOrder(orderId);
+        return shard != null && shard.deliverOrder(driverId, orderId);
+    }
+
+    /**
+     * Rates the driver of a delivered order, wherever the driver has moved since
+     */
+    public boolean rateDriver(String orderId, String customerId, double rating) {
+        DeliveryService shard = shardOfOrder(orderId);
+        return shard != null && shard.rateDriver(orderId, customerId, rating, this::findDriver);
+    }
+
+    /**
+     * Records a driver's location; with ZONE routing an idle driver that crossed into another
+     * zone moves to that zone's shard
+     */
+    public boolean updateDriverLocation(String driverId, double latitude, double longitude) {
+        Integer current = driverShards.get(driverId);
+        if (current == null || !shards[current].updateDriverLocation(driverId, latitude, longitude)) {
+            return false;
+        }
+        if (routing == ShardRouting.ZONE) {
+            int target = zoneShard(latitude, longitude);
+            if (target != current) {
+                migrateDriver(driverId, current, target);
+            }
+        }
+        return true;
+    }
+
+    public boolean updateDriverCapacity(String driverId, int capacity) {
+        Integer shard = driverShards.get(driverId);
+        return shard != null && shards[shard].updateDriverCapacity(driverId, capacity);
+    }
+
+    public String showOrderStatus(String orderId) {
+        DeliveryService shard = shardOfOrder(orderId);
+        return shard != null ? shard.showOrderStatus(orderId) : "Order not found: " + orderId;
+    }
+
+    public String showDriverStatus(String driverId) {
+        Integer shard = driverShards.get(driverId);
+        return shard != null ? shards[shard].showDriverStatus(driverId) : "Driver not found: " + driverId;
+    }
+
+    /**
+     * Returns one page of the customer's orders, newest first
+     * With ZONE routing a customer's orders are spread over shards and the shard pages are merged
+     * Returns null if the cursor or page size is invalid
+     */
+    public OrderPage getCustomerOrders(String customerId, String cursor, int limit) {
+        if (routing == ShardRouting.CUSTOMER) {
+            return shards[hashShard(customerId)].getCustomerOrders(customerId, cursor, limit);
+        }
+        return mergePages(shard -> shard.getCustomerOrders(customerId, cursor, limit), limit);
+    }
+
+    /**
+     * Returns one page of the driver's orders across every shard the driver has worked in
+     */
+    public OrderPage getDriverOrders(String driverId, String cursor, int limit) {
+        return mergePages(shard -> shard.getDriverOrders(driverId, cursor, limit), limit);
+    }
+
+    /**
+     * Every shard returns its newest limit orders after the cursor, so the overall page is the
+     * newest limit orders of their union. Cursors are positions in time, valid in every shard
+     */
+    private OrderPage mergePages(Function<DeliveryService, OrderPage> query, int limit) {
+        List<Order> merged = new ArrayList<>();
+        boolean more = false;
+        for (DeliveryService shard : shards) {
+            OrderPage page = query.apply(shard);
+            if (page == null) {
+                return null;
+            }
+            merged.addAll(page.getOrders());
+            more |= !page.isLastPage();
+        }
+        merged.sort(OrderPage.NEWEST_FIRST);
+        if (merged.size() > limit) {
+            merged = new ArrayList<>(merged.subList(0, limit));
+            more = true;
+        }
+        String nextCursor = more && !merged.isEmpty() ? OrderPage.cursorAfter(merged.get(merged.size() - 1)) : null;
+        return new OrderPage(merged, nextCursor);
+    }
+
+    /**
+     * Merges the per-shard leaderboards into the overall top drivers by the given strategy
+     */
+    public String showTopDrivers(DriverRankingStrategy strategy, int limit) {
+        List<Driver> candidates = new ArrayList<>();
+        for (DeliveryService shard : shards) {
+            candidates.addAll(shard.topDrivers(strategy, limit));
+        }
+        candidates.sort(Comparator.comparingDouble(strategy::score).reversed().thenComparing(Driver::getId));
+        return DeliveryService.formatTopDrivers(candidates.subList(0, Math.min(limit, candidates.size())));
+    }
+
+    public String getAssignedDriver(String orderId) {
+        DeliveryService shard = shardOfOrder(orderId);
+        return shard != null ? shard.getAssignedDriver(orderId) : null;
+    }
+
+    public CompletableFuture<String> awaitDriverAssignment(String orderId) {
+        DeliveryService shard = shardOfOrder(orderId);
+        return shard != null ? shard.awaitDriverAssignment(orderId) : CompletableFuture.completedFuture(null);
+    }
+
+    public boolean completeOrder(String orderId, String customerId, double rating) {
+        return completeOrderAsync(orderId, customerId, rating).join();
+    }
+
+    /**
+     * Waits for assignment, then picks up, delivers and rates the order without parking a thread
+     */
+    public CompletableFuture<Boolean> completeOrderAsync(String orderId, String customerId, double rating) {
+        DeliveryService shard = shardOfOrder(orderId);
+        if (shard == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return shard.awaitDriverAssignment(orderId)
+                .thenApplyAsync(driverId -> {
+                    if (driverId == null) {
+                        System.err.println("ERROR: Could not assign driver to order " + orderId);
+                        return false;
+                    }
+                    return shard.pickupOrder(driverId, orderId)
+                            && shard.deliverOrder(driverId, orderId)
+                            && rateDriver(orderId, customerId, rating);
+                })
+                .exceptionally(e -> {
+                    System.err.println("ERROR: Failed to complete order " + orderId + ": " + e.getMessage());
+                    return false;
+                });
+    }
+
+    /**
+     * Switches every shard to batch min-cost matching, or back to nearest-driver matching for null
+     */
+    public void setBatchAssignment(BatchAssignmentConfig config) {
+        for (DeliveryService shard : shards) {
+            shard.setBatchAssignment(config);
+        }
+    }
+
+    /**
+     * Turns on admission control in every shard, or turns it off for null
+     * Each shard admits against its own backlog and drivers, since it matches them on its own
+     */
+    public void setAdmissionControl(AdmissionConfig config) {
+        for (DeliveryService shard : shards) {
+            shard.setAdmissionControl(config);
+        }
+    }
+
+    /**
+     * Publishes the order and driver changes of every shard to one shared bus, or stops for null
+     * Events are partitioned by entity ID, so a driver's events stay in order when it changes shard
+     */
+    public void setEventBus(DeliveryEventBus eventBus) {
+        for (DeliveryService shard : shards) {
+            shard.setEventBus(eventBus);
+        }
+    }
+
+    /**
+     * Moves idle drivers from shards with more idle drivers than pending orders to shards
+     * with more pending orders than idle drivers
+     * Returns the number of drivers moved
+     */
+    public int rebalanceDrivers() {
+        int[] surplus = new int[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            surplus[i] = shards[i].getMetrics().getIdleDrivers() - shards[i].getMetrics().getPendingOrders();
+        }
+        int moved = 0;
+        for (int target = 0; target < shards.length; target++) {
+            for (int source = 0; source < shards.length && surplus[target] < 0; source++) {
+                if (surplus[source] <= 0) {
+                    continue;
+                }
+                int wanted = Math.min(surplus[source], -surplus[target]);
+                for (int i = 0; i < wanted; i++) {
+                    Driver driver = shards[source].detachIdleDriver();
+                    if (driver == null) {
+                        break;
+                    }
+                    driverShards.put(driver.getId(), target);
+                    shards[target].attachDriver(driver);
+                    surplus[source]--;
+                    surplus[target]++;
+                    moved++;
+                }
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Moves an idle driver between shards
+     * Returns false if the driver is busy or no longer in the source shard
+     */
+    private boolean migrateDriver(String driverId, int source, int target) {
+        Driver driver = shards[source].detachDriver(driverId);
+        if (driver == null) {
+            return false;
+        }
+        driverShards.put(driverId, target);
+        shards[target].attachDriver(driver);
+        return true;
+    }
+
+    /**
+     * Resolves a driver in whatever shard it currently belongs to
+     * Retries once, in case the driver was caught between shards
+     */
+    private Driver findDriver(String driverId) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Integer shard = driverShards.get(driverId);
+            if (shard == null) {
+                return null;
+            }
+            Driver driver = shards[shard].findDriver(driverId);
+            if (driver != null) {
+                return driver;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Order IDs look like ORD<shard>-<sequence>
+     */
+    private DeliveryService shardOfOrder(String orderId) {
+        int separator = orderId != null ? orderId.indexOf('-') : -1;
+        if (separator < 4 || !orderId.startsWith("ORD")) {
+            return null;
+        }
+        try {
+            int shard = Integer.parseInt(orderId.substring(3, separator));
+            return shard >= 0 && shard < shards.length ? shards[shard] : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private int hashShard(String key) {
+        return Math.floorMod(key.hashCode(), shards.length);
+    }
+
+    private int zoneShard(double latitude, double longitude) {
+        long row = (long) Math.floor(latitude / ZONE_DEGREES);
+        long column = (long) Math.floor(longitude / ZONE_DEGREES);
+        return Math.floorMod(Long.hashCode(row * 31 + column), shards.length);
+    }
+
+    public void printSystemSummary() {
+        for (int i = 0; i < shards.length; i++) {
+            shards[i].printSystemSummary("Shard " + i + " Summary");
+        }
+    }
+
+    /**
+     * Stops the rebalancer and waits for a running pass to finish before shutting down the shards,
+     * so no driver is caught moving into a shard that is already stopped
+     */
+    public void shutdown() {
+        if (rebalancer != null) {
+            rebalancer.shutdown();
+            try {
+                if (!rebalancer.awaitTermination(5, TimeUnit.SECONDS)) {
+                    rebalancer.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                rebalancer.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (DeliveryService shard : shards) {
+            shard.shutdown(false);
+        }
+        notificationService.shutdown();
+    }
+}
@@ -0,0 +1,42 @@
+package com.tarun.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for a slow email/SMS provider, used to exercise the async dispatcher
+ * Each batch costs a fixed round trip plus a per-message latency, both adjustable at runtime
+ */
+public class StubNotificationGateway implements NotificationGateway {
+    private volatile long batchLatencyMillis;
+    private volatile long perMessageLatencyMillis;
+    private volatile boolean failing;
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+
+    public StubNotificationGateway(long batchLatencyMillis, long perMessageLatencyMillis) {
+        this.batchLatencyMillis = batchLatencyMillis;
+        this.perMessageLatencyMillis = perMessageLatencyMillis;
+    }
+
+    @Override
+    public void sendBatch(NotificationChannel channel, List<Notification> batch) throws Exception {
+        long latency = batchLatencyMillis + perMessageLatencyMillis * batch.size();
+        if (latency > 0) {
+            TimeUnit.MILLISECONDS.sleep(latency);
+        }
+        if (failing) {
+            throw new IllegalStateException("Stub gateway is failing");
+        }
+        batchesSent.incrementAndGet();
+        messagesSent.addAndGet(batch.size());
+    }
+
+    public void setBatchLatencyMillis(long batchLatencyMillis) { this.batchLatencyMillis = batchLatencyMillis; }
+    public void setPerMessageLatencyMillis(long perMessageLatencyMillis) { this.perMessageLatencyMillis = perMessageLatencyMillis; }
+    public void setFailing(boolean failing) { this.failing = failing; }
+
+    public long getBatchesSent() { return batchesSent.get(); }
+    public long getMessagesSent() { return messagesSent.get(); }
+}
@@ -0,0 +1,86 @@
+package com.tarun.simulation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line entry point for load simulations, used for capacity planning
+ * Replays a recorded trace with --trace FILE, otherwise generates Poisson arrivals.
+ * Options, with defaults:
+ *   --orders 2000 --rate 200 (arrivals per second)
+ *   --customers 500 --drivers 100 --capacity 1
+ *   --cancel 0.05 --pickup-ms 200 --deliver-ms 300 --assign-timeout-ms 10000 --seed 42
+ *   --trace FILE          replay a recorded trace instead of generating one
+ *   --write-trace FILE    save the generated trace and exit without simulating
+ *   --virtual-time        replay on simulated time as fast as possible instead of in real time
+ *   --json                print the report as JSON
+ */
+public class LoadSimulation {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = parse(args);
+        SimulationConfig defaults = new SimulationConfig();
+        SimulationConfig config = new SimulationConfig(
+                intOption(options, "customers", defaults.getCustomers()),
+                intOption(options, "drivers", defaults.getDrivers()),
+                intOption(options, "capacity", defaults.getDriverCapacity()),
+                Double.parseDouble(options.getOrDefault("cancel", String.valueOf(defaults.getCancelProbability()))),
+                longOption(options, "pickup-ms", defaults.getMeanPickupMillis()),
+                longOption(options, "deliver-ms", defaults.getMeanDeliveryMillis()),
+                longOption(options, "assign-timeout-ms", defaults.getAssignTimeoutMillis()),
+                defaults.getCenterLatitude(), defaults.getCenterLongitude(), defaults.getRadiusDegrees(),
+                longOption(options, "seed", defaults.getSeed()));
+
+        List<TraceRecord> trace;
+        if (options.containsKey("trace")) {
+            trace = TraceFile.read(Paths.get(options.get("trace")));
+        } else {
+            double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+            trace = new TraceGenerator(config, rate).generate(intOption(options, "orders", 2000));
+        }
+        if (options.containsKey("write-trace")) {
+            Path file = Paths.get(options.get("write-trace"));
+            TraceFile.write(file, trace);
+            System.out.println("Wrote " + trace.size() + " arrivals to " + file);
+            return;
+        }
+
+        System.out.println("Simulating " + trace.size() + " orders with " + config.getDrivers() + " drivers...");
+        LoadSimulator simulator = new LoadSimulator(config);
+        SimulationReport report = options.containsKey("virtual-time")
+                ? simulator.runInVirtualTime(trace) : simulator.run(trace);
+        System.out.println(options.containsKey("json") ? report.toJson() : report.toString());
+    }
+
+    /**
+     * Parses --name value pairs, --json and --virtual-time are flags without a value
+     */
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (name.equals("json") || name.equals("virtual-time")) {
+                options.put(name, "true");
+            } else if (i + 1 < args.length) {
+                options.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value for --" + name);
+            }
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+
+    private static long longOption(Map<String, String> options, String name, long defaultValue) {
+        return options.containsKey(name) ? Long.parseLong(options.get(name)) : defaultValue;
+    }
+}
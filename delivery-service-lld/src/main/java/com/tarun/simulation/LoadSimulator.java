@@ -0,0 +1,391 @@
+package com.tarun.simulation;
+
+import com.tarun.model.OrderRequest;
+import com.tarun.repository.CustomerRepository;
+import com.tarun.repository.DriverRepository;
+import com.tarun.service.AsyncNotificationService;
+import com.tarun.service.BackpressurePolicy;
+import com.tarun.service.DeliveryService;
+import com.tarun.service.NotificationService;
+import com.tarun.service.OnboardingService;
+import com.tarun.service.StubNotificationGateway;
+import com.tarun.timer.Clock;
+import com.tarun.timer.Scheduler;
+import com.tarun.timer.SystemScheduler;
+import com.tarun.timer.VirtualTimeScheduler;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays a trace of order arrivals against a fresh DeliveryService with simulated customers and drivers
+ * A customer places the order and may cancel it; once a driver is assigned, the driver picks it up
+ * and delivers it after random delays, then the customer rates the driver.
+ * run() plays the trace in real time with every customer and driver trip on its own thread, virtual
+ * when the JVM supports them. runInVirtualTime() plays it as discrete events on a VirtualTimeScheduler,
+ * so a day of traffic replays in seconds and the outcome only depends on the trace and seed.
+ * The service runs on its own repositories with console output discarded, so the numbers
+ * measure the delivery logic rather than logging
+ */
+public class LoadSimulator {
+    private static final long CANCELLATION_TICK_MILLIS = 100;
+    private static final long DRAIN_GRACE_MILLIS = 10_000;
+
+    private final SimulationConfig config;
+
+    public LoadSimulator(SimulationConfig config) {
+        this.config = config;
+    }
+
+    public static String customerId(int index) {
+        return String.format("SIMC%05d", index);
+    }
+
+    public static String driverId(int index) {
+        return String.format("SIMD%05d", index);
+    }
+
+    /**
+     * Runs the trace in real time and waits for every order to be delivered or cancelled
+     * Customers in the trace that aren't part of the configured population are onboarded first
+     */
+    public SimulationReport run(List<TraceRecord> trace) throws InterruptedException {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        DeliveryService service = newService(trace, new SystemScheduler("simulation", CANCELLATION_TICK_MILLIS));
+        ActorExecutor actors = newActorExecutor();
+        SimulationRun run = new SimulationRun(Clock.SYSTEM);
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < trace.size(); i++) {
+                TraceRecord record = trace.get(i);
+                long dueNanos = start + TimeUnit.MILLISECONDS.toNanos(record.getOffsetMillis());
+                long waitNanos = dueNanos - System.nanoTime();
+                if (waitNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                }
+                SplittableRandom random = randomFor(i);
+                spawn(actors.executor, run, () -> runCustomer(service, actors.executor, run, record.getRequest(), random));
+            }
+            run.awaitDrained(drainTimeoutMillis());
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new SimulationReport(run, actors.virtual ? "virtual threads" : "platform threads", trace.size(),
+                    elapsedMillis, elapsedMillis, service.getMetrics().snapshot());
+        } finally {
+            actors.executor.shutdownNow();
+            service.shutdown();
+            System.setOut(console);
+        }
+    }
+
+    /**
+     * Runs the trace on simulated time until every order is delivered or cancelled
+     * Customers and drivers are scheduled events instead of threads, all run by the calling thread
+     */
+    public SimulationReport runInVirtualTime(List<TraceRecord> trace) {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        DeliveryService service = newService(trace, scheduler);
+        SimulationRun run = new SimulationRun(scheduler);
+        try {
+            long wallStart = System.nanoTime();
+            long start = scheduler.nanoTime();
+            long lastOffsetMillis = 0;
+            for (int i = 0; i < trace.size(); i++) {
+                TraceRecord record = trace.get(i);
+                SplittableRandom random = randomFor(i);
+                run.begin();
+                scheduler.schedule(() -> {
+                    try {
+                        arriveInVirtualTime(service, scheduler, run, record.getRequest(), random);
+                    } finally {
+                        run.end();
+                    }
+                }, record.getOffsetMillis(), TimeUnit.MILLISECONDS);
+                lastOffsetMillis = Math.max(lastOffsetMillis, record.getOffsetMillis());
+            }
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(lastOffsetMillis + drainTimeoutMillis());
+            while (run.getInFlight() > 0 && scheduler.nanoTime() < deadline) {
+                scheduler.advanceBy(1, TimeUnit.SECONDS);
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(scheduler.nanoTime() - start);
+            long wallClockMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - wallStart);
+            return new SimulationReport(run, "virtual time", trace.size(), elapsedMillis, wallClockMillis,
+                    service.getMetrics().snapshot());
+        } finally {
+            service.shutdown();
+            System.setOut(console);
+        }
+    }
+
+    private DeliveryService newService(List<TraceRecord> trace, Scheduler scheduler) {
+        CustomerRepository customerRepository = new CustomerRepository();
+        DriverRepository driverRepository = new DriverRepository();
+        onboard(new OnboardingService(customerRepository, driverRepository, scheduler.getClock()), trace);
+        NotificationService notifications = new AsyncNotificationService(new StubNotificationGateway(0, 0),
+                10_000, 64, BackpressurePolicy.DROP, null);
+        return new DeliveryService(customerRepository, driverRepository, scheduler, notifications, null, "SIM");
+    }
+
+    private void onboard(OnboardingService onboarding, List<TraceRecord> trace) {
+        SplittableRandom random = new SplittableRandom(config.getSeed());
+        for (int i = 0; i < config.getCustomers(); i++) {
+            onboarding.onboardCustomer(customerId(i), "Customer " + i);
+        }
+        for (TraceRecord record : trace) {
+            String customerId = record.getRequest().getCustomerId();
+            if (onboarding.getCustomer(customerId) == null) {
+                onboarding.onboardCustomer(customerId, customerId);
+            }
+        }
+        for (int i = 0; i < config.getDrivers(); i++) {
+            onboarding.onboardDriver(driverId(i), "Driver " + i,
+                    config.getCenterLatitude() + spread(random), config.getCenterLongitude() + spread(random),
+                    config.getDriverCapacity());
+        }
+    }
+
+    private double spread(SplittableRandom random) {
+        return (random.nextDouble() * 2 - 1) * config.getRadiusDegrees();
+    }
+
+    private SplittableRandom randomFor(int arrival) {
+        return new SplittableRandom(config.getSeed() * 31 + arrival);
+    }
+
+    /**
+     * Places the order, then waits for a driver in the background; customers who decided to
+     * cancel do so after a random delay
+     */
+    private void runCustomer(DeliveryService service, ExecutorService executor, SimulationRun run,
+                             OrderRequest request, SplittableRandom random) throws InterruptedException {
+        long placedAt = run.clock.nanoTime();
+        String orderId = place(service, run, request);
+        if (orderId == null) {
+            return;
+        }
+        boolean cancels = random.nextDouble() < config.getCancelProbability();
+        SplittableRandom driverRandom = random.split();
+        // Counts as work in flight until the assignment outcome has been handed to the next actor
+        run.begin();
+        awaitDriver(service, orderId).whenComplete((driverId, error) -> {
+            try {
+                if (driverId != null) {
+                    spawn(executor, run, () -> runDriver(service, run, orderId, driverId,
+                            request.getCustomerId(), placedAt, driverRandom));
+                } else if (unwrap(error) instanceof TimeoutException) {
+                    spawn(executor, run, () -> cancel(service, run, orderId, true));
+                }
+            } finally {
+                run.end();
+            }
+        });
+
+        if (cancels) {
+            sleepExponential(random, config.getMeanPickupMillis());
+            cancel(service, run, orderId, false);
+        }
+    }
+
+    private void runDriver(DeliveryService service, SimulationRun run, String orderId, String driverId,
+                           String customerId, long placedAt, SplittableRandom random) throws InterruptedException {
+        run.assignmentWaitMicros.record(run.simulatedMicrosSince(placedAt));
+        sleepExponential(random, config.getMeanPickupMillis());
+        if (!pickUp(service, run, orderId, driverId)) {
+            return;
+        }
+        sleepExponential(random, config.getMeanDeliveryMillis());
+        deliverAndRate(service, run, orderId, driverId, customerId, placedAt, random);
+    }
+
+    /**
+     * Same customer and driver behaviour as runCustomer and runDriver, with every wait turned
+     * into an event scheduled on simulated time
+     */
+    private void arriveInVirtualTime(DeliveryService service, Scheduler scheduler, SimulationRun run,
+                                     OrderRequest request, SplittableRandom random) {
+        long placedAt = run.clock.nanoTime();
+        String orderId = place(service, run, request);
+        if (orderId == null) {
+            return;
+        }
+        boolean cancels = random.nextDouble() < config.getCancelProbability();
+        SplittableRandom driverRandom = random.split();
+        run.begin();
+        awaitDriver(service, orderId).whenComplete((driverId, error) -> {
+            try {
+                if (driverId != null) {
+                    run.assignmentWaitMicros.record(run.simulatedMicrosSince(placedAt));
+                    scheduleEvent(scheduler, run, exponential(driverRandom, config.getMeanPickupMillis()), () -> {
+                        if (pickUp(service, run, orderId, driverId)) {
+                            scheduleEvent(scheduler, run, exponential(driverRandom, config.getMeanDeliveryMillis()),
+                                    () -> deliverAndRate(service, run, orderId, driverId, request.getCustomerId(),
+                                            placedAt, driverRandom));
+                        }
+                    });
+                } else if (unwrap(error) instanceof TimeoutException) {
+                    cancel(service, run, orderId, true);
+                }
+            } finally {
+                run.end();
+            }
+        });
+        if (cancels) {
+            scheduleEvent(scheduler, run, exponential(random, config.getMeanPickupMillis()),
+                    () -> cancel(service, run, orderId, false));
+        }
+    }
+
+    private static void scheduleEvent(Scheduler scheduler, SimulationRun run, long delayMillis, Runnable event) {
+        run.begin();
+        scheduler.schedule(() -> {
+            try {
+                event.run();
+            } finally {
+                run.end();
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private CompletableFuture<String> awaitDriver(DeliveryService service, String orderId) {
+        return service.awaitDriverAssignment(orderId, config.getAssignTimeoutMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static String place(DeliveryService service, SimulationRun run, OrderRequest request) {
+        long startNanos = System.nanoTime();
+        String orderId = request.hasPickupLocation()
+                ? service.placeOrder(request.getCustomerId(), request.getItemId(),
+                        request.getLatitude(), request.getLongitude())
+                : service.placeOrder(request.getCustomerId(), request.getItemId());
+        run.placeOrderMicros.record(SimulationRun.microsSince(startNanos));
+        if (orderId == null) {
+            run.placementFailures.increment();
+        } else {
+            run.placed.increment();
+        }
+        return orderId;
+    }
+
+    /**
+     * Cancels on behalf of the customer, abandoned if they gave up waiting for a driver
+     */
+    private static void cancel(DeliveryService service, SimulationRun run, String orderId, boolean abandoned) {
+        long startNanos = System.nanoTime();
+        boolean cancelled = service.cancelOrder(orderId);
+        run.cancelOrderMicros.record(SimulationRun.microsSince(startNanos));
+        if (cancelled) {
+            (abandoned ? run.abandoned : run.customerCancellations).increment();
+        }
+    }
+
+    /**
+     * Returns false if the order was cancelled before the driver got there
+     */
+    private static boolean pickUp(DeliveryService service, SimulationRun run, String orderId, String driverId) {
+        long startNanos = System.nanoTime();
+        boolean pickedUp = service.pickupOrder(driverId, orderId);
+        run.pickupOrderMicros.record(SimulationRun.microsSince(startNanos));
+        if (!pickedUp) {
+            run.lostToCancellation.increment();
+        }
+        return pickedUp;
+    }
+
+    private static void deliverAndRate(DeliveryService service, SimulationRun run, String orderId, String driverId,
+                                       String customerId, long placedAt, SplittableRandom random) {
+        long deliverAt = System.nanoTime();
+        boolean delivered = service.deliverOrder(driverId, orderId);
+        run.deliverOrderMicros.record(SimulationRun.microsSince(deliverAt));
+        if (!delivered) {
+            run.errors.increment();
+            return;
+        }
+        run.delivered.increment();
+        run.endToEndMicros.record(run.simulatedMicrosSince(placedAt));
+
+        double rating = 1.0 + Math.floor(random.nextDouble() * 5);
+        long rateAt = System.nanoTime();
+        if (!service.rateDriver(orderId, customerId, rating)) {
+            run.errors.increment();
+        }
+        run.rateDriverMicros.record(SimulationRun.microsSince(rateAt));
+    }
+
+    private long drainTimeoutMillis() {
+        return config.getAssignTimeoutMillis()
+                + 20 * (config.getMeanPickupMillis() + config.getMeanDeliveryMillis()) + DRAIN_GRACE_MILLIS;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static long exponential(SplittableRandom random, long meanMillis) {
+        return meanMillis > 0 ? (long) (-Math.log(1.0 - random.nextDouble()) * meanMillis) : 0;
+    }
+
+    private static void sleepExponential(SplittableRandom random, long meanMillis) throws InterruptedException {
+        long delayMillis = exponential(random, meanMillis);
+        if (delayMillis > 0) {
+            TimeUnit.MILLISECONDS.sleep(delayMillis);
+        }
+    }
+
+    private interface Actor {
+        void run() throws InterruptedException;
+    }
+
+    private static void spawn(ExecutorService executor, SimulationRun run, Actor actor) {
+        run.begin();
+        executor.execute(() -> {
+            try {
+                actor.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                run.errors.increment();
+                System.err.println("ERROR: Simulated actor failed: " + e);
+            } finally {
+                run.end();
+            }
+        });
+    }
+
+    private static final class ActorExecutor {
+        final ExecutorService executor;
+        final boolean virtual;
+
+        ActorExecutor(ExecutorService executor, boolean virtual) {
+            this.executor = executor;
+            this.virtual = virtual;
+        }
+    }
+
+    /**
+     * Returns a thread-per-task executor on virtual threads, looked up reflectively so the code
+     * still compiles for Java 17; older JVMs fall back to a cached pool of platform daemon threads
+     */
+    private static ActorExecutor newActorExecutor() {
+        try {
+            Object executor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return new ActorExecutor((ExecutorService) executor, true);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return new ActorExecutor(Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "sim-actor-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }), false);
+        }
+    }
+}
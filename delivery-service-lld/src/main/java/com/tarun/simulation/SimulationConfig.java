@@ -0,0 +1,71 @@
+package com.tarun.simulation;
+
+/**
+ * Settings for a load simulation: the simulated fleet, how customers and drivers behave, and the
+ * area orders and drivers are spread over
+ * Delays are drawn from exponential distributions with the given means
+ */
+public class SimulationConfig {
+    private final int customers;
+    private final int drivers;
+    private final int driverCapacity;
+    private final double cancelProbability;
+    private final long meanPickupMillis;
+    private final long meanDeliveryMillis;
+    private final long assignTimeoutMillis;
+    private final double centerLatitude;
+    private final double centerLongitude;
+    private final double radiusDegrees;
+    private final long seed;
+
+    /**
+     * Creates a config with 500 customers and 100 single-order drivers around Bangalore, 5% of
+     * customers cancelling, pickups after 200 ms and deliveries after 300 ms on average, and
+     * customers giving up after waiting 10 s for a driver
+     */
+    public SimulationConfig() {
+        this(500, 100, 1, 0.05, 200, 300, 10_000, 12.9716, 77.5946, 0.1, 42);
+    }
+
+    /**
+     * cancelProbability is the share of customers who cancel before their order is picked up
+     * assignTimeoutMillis is how long a customer waits for a driver before cancelling
+     * Orders and drivers are placed uniformly within radiusDegrees of the center
+     */
+    public SimulationConfig(int customers, int drivers, int driverCapacity, double cancelProbability,
+                            long meanPickupMillis, long meanDeliveryMillis, long assignTimeoutMillis,
+                            double centerLatitude, double centerLongitude, double radiusDegrees, long seed) {
+        if (customers <= 0 || drivers <= 0 || driverCapacity <= 0 || assignTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Customers, drivers, capacity and assignment timeout must be positive");
+        }
+        if (cancelProbability < 0 || cancelProbability > 1) {
+            throw new IllegalArgumentException("Cancel probability must be between 0 and 1");
+        }
+        if (meanPickupMillis < 0 || meanDeliveryMillis < 0 || radiusDegrees < 0) {
+            throw new IllegalArgumentException("Delays and radius must not be negative");
+        }
+        this.customers = customers;
+        this.drivers = drivers;
+        this.driverCapacity = driverCapacity;
+        this.cancelProbability = cancelProbability;
+        this.meanPickupMillis = meanPickupMillis;
+        this.meanDeliveryMillis = meanDeliveryMillis;
+        this.assignTimeoutMillis = assignTimeoutMillis;
+        this.centerLatitude = centerLatitude;
+        this.centerLongitude = centerLongitude;
+        this.radiusDegrees = radiusDegrees;
+        this.seed = seed;
+    }
+
+    public int getCustomers() { return customers; }
+    public int getDrivers() { return drivers; }
+    public int getDriverCapacity() { return driverCapacity; }
+    public double getCancelProbability() { return cancelProbability; }
+    public long getMeanPickupMillis() { return meanPickupMillis; }
+    public long getMeanDeliveryMillis() { return meanDeliveryMillis; }
+    public long getAssignTimeoutMillis() { return assignTimeoutMillis; }
+    public double getCenterLatitude() { return centerLatitude; }
+    public double getCenterLongitude() { return centerLongitude; }
+    public double getRadiusDegrees() { return radiusDegrees; }
+    public long getSeed() { return seed; }
+}
@@ -0,0 +1,171 @@
+package com.tarun.simulation;
+
+import com.tarun.metrics.DeliveryMetricsSnapshot;
+import com.tarun.metrics.HistogramSnapshot;
+
+/**
+ * Outcome of a load simulation, exportable as text or JSON
+ * Operation latencies are measured around the DeliveryService calls on wall time, assignment
+ * waits and end-to-end times on simulated time, all in microseconds. Throughput is per simulated
+ * second. Cancellations count customers who cancelled or gave up waiting for a driver, and orders
+ * the service auto-cancelled because nobody picked them up in time
+ */
+public final class SimulationReport {
+    private final String mode;
+    private final int arrivals;
+    private final long elapsedMillis;
+    private final long wallClockMillis;
+    private final long placed;
+    private final long placementFailures;
+    private final long delivered;
+    private final long customerCancellations;
+    private final long abandoned;
+    private final long lostToCancellation;
+    private final long unfinished;
+    private final long errors;
+    private final HistogramSnapshot placeOrder;
+    private final HistogramSnapshot pickupOrder;
+    private final HistogramSnapshot deliverOrder;
+    private final HistogramSnapshot rateDriver;
+    private final HistogramSnapshot cancelOrder;
+    private final HistogramSnapshot assignmentWait;
+    private final HistogramSnapshot endToEnd;
+    private final DeliveryMetricsSnapshot serviceMetrics;
+
+    SimulationReport(SimulationRun run, String mode, int arrivals, long elapsedMillis, long wallClockMillis,
+                     DeliveryMetricsSnapshot serviceMetrics) {
+        this.mode = mode;
+        this.arrivals = arrivals;
+        this.elapsedMillis = elapsedMillis;
+        this.wallClockMillis = wallClockMillis;
+        this.placed = run.placed.sum();
+        this.placementFailures = run.placementFailures.sum();
+        this.delivered = run.delivered.sum();
+        this.customerCancellations = run.customerCancellations.sum();
+        this.abandoned = run.abandoned.sum();
+        this.lostToCancellation = run.lostToCancellation.sum();
+        this.unfinished = run.getInFlight();
+        this.errors = run.errors.sum();
+        this.placeOrder = run.placeOrderMicros.snapshot();
+        this.pickupOrder = run.pickupOrderMicros.snapshot();
+        this.deliverOrder = run.deliverOrderMicros.snapshot();
+        this.rateDriver = run.rateDriverMicros.snapshot();
+        this.cancelOrder = run.cancelOrderMicros.snapshot();
+        this.assignmentWait = run.assignmentWaitMicros.snapshot();
+        this.endToEnd = run.endToEndMicros.snapshot();
+        this.serviceMetrics = serviceMetrics;
+    }
+
+    /**
+     * Returns how the run was executed: virtual threads, platform threads or virtual time
+     */
+    public String getMode() { return mode; }
+    public int getArrivals() { return arrivals; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public long getWallClockMillis() { return wallClockMillis; }
+    public long getPlaced() { return placed; }
+    public long getPlacementFailures() { return placementFailures; }
+    public long getDelivered() { return delivered; }
+    public long getCustomerCancellations() { return customerCancellations; }
+    public long getAbandoned() { return abandoned; }
+    public long getLostToCancellation() { return lostToCancellation; }
+    public long getUnfinished() { return unfinished; }
+    public long getErrors() { return errors; }
+    public HistogramSnapshot getPlaceOrder() { return placeOrder; }
+    public HistogramSnapshot getPickupOrder() { return pickupOrder; }
+    public HistogramSnapshot getDeliverOrder() { return deliverOrder; }
+    public HistogramSnapshot getRateDriver() { return rateDriver; }
+    public HistogramSnapshot getCancelOrder() { return cancelOrder; }
+    public HistogramSnapshot getAssignmentWait() { return assignmentWait; }
+    public HistogramSnapshot getEndToEnd() { return endToEnd; }
+    public DeliveryMetricsSnapshot getServiceMetrics() { return serviceMetrics; }
+
+    public double getPlacedPerSecond() {
+        return perSecond(placed);
+    }
+
+    public double getDeliveredPerSecond() {
+        return perSecond(delivered);
+    }
+
+    /**
+     * Share of placed orders cancelled by the customer or the service
+     */
+    public double getCancellationRate() {
+        return share(customerCancellations + abandoned + serviceMetrics.getAutoCancellations());
+    }
+
+    /**
+     * Share of placed orders the service auto-cancelled
+     */
+    public double getAutoCancellationRate() {
+        return share(serviceMetrics.getAutoCancellations());
+    }
+
+    private double share(long count) {
+        return placed == 0 ? 0.0 : (double) count / placed;
+    }
+
+    private double perSecond(long count) {
+        return elapsedMillis == 0 ? 0.0 : count * 1000.0 / elapsedMillis;
+    }
+
+    public String toJson() {
+        return "{\"mode\":\"" + mode + "\""
+                + ",\"arrivals\":" + arrivals
+                + ",\"elapsedMillis\":" + elapsedMillis
+                + ",\"wallClockMillis\":" + wallClockMillis
+                + ",\"placed\":" + placed
+                + ",\"placementFailures\":" + placementFailures
+                + ",\"delivered\":" + delivered
+                + ",\"customerCancellations\":" + customerCancellations
+                + ",\"abandoned\":" + abandoned
+                + ",\"lostToCancellation\":" + lostToCancellation
+                + ",\"unfinished\":" + unfinished
+                + ",\"errors\":" + errors
+                + ",\"placedPerSecond\":" + String.format("%.1f", getPlacedPerSecond())
+                + ",\"deliveredPerSecond\":" + String.format("%.1f", getDeliveredPerSecond())
+                + ",\"cancellationRate\":" + String.format("%.4f", getCancellationRate())
+                + ",\"autoCancellationRate\":" + String.format("%.4f", getAutoCancellationRate())
+                + ",\"placeOrderMicros\":" + placeOrder.toJson()
+                + ",\"pickupOrderMicros\":" + pickupOrder.toJson()
+                + ",\"deliverOrderMicros\":" + deliverOrder.toJson()
+                + ",\"rateDriverMicros\":" + rateDriver.toJson()
+                + ",\"cancelOrderMicros\":" + cancelOrder.toJson()
+                + ",\"assignmentWaitMicros\":" + assignmentWait.toJson()
+                + ",\"endToEndMicros\":" + endToEnd.toJson()
+                + ",\"service\":" + serviceMetrics.toJson()
+                + "}";
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n=== Load Simulation ===\n");
+        sb.append("Mode: ").append(mode).append("\n");
+        sb.append("Arrivals: ").append(arrivals).append(" in ").append(elapsedMillis).append(" ms");
+        if (wallClockMillis != elapsedMillis) {
+            sb.append(" (replayed in ").append(wallClockMillis).append(" ms)");
+        }
+        sb.append("\n");
+        sb.append("Placed: ").append(placed).append(" (failed: ").append(placementFailures).append(")\n");
+        sb.append("Delivered: ").append(delivered).append("\n");
+        sb.append("Cancelled: ").append(customerCancellations).append(" (abandoned: ").append(abandoned)
+                .append(", pickups lost: ").append(lostToCancellation).append(")\n");
+        sb.append("Unfinished: ").append(unfinished).append(", Errors: ").append(errors).append("\n");
+        sb.append(String.format("Throughput: %.1f placed/s, %.1f delivered/s%n",
+                getPlacedPerSecond(), getDeliveredPerSecond()));
+        sb.append(String.format("Cancellation Rate: %.2f%% (auto: %.2f%%)%n",
+                getCancellationRate() * 100, getAutoCancellationRate() * 100));
+        sb.append("--- Latency (micros) ---\n");
+        sb.append("placeOrder:      ").append(placeOrder).append("\n");
+        sb.append("pickupOrder:     ").append(pickupOrder).append("\n");
+        sb.append("deliverOrder:    ").append(deliverOrder).append("\n");
+        sb.append("rateDriver:      ").append(rateDriver).append("\n");
+        sb.append("cancelOrder:     ").append(cancelOrder).append("\n");
+        sb.append("Assignment Wait: ").append(assignmentWait).append("\n");
+        sb.append("End To End:      ").append(endToEnd).append("\n");
+        sb.append(serviceMetrics);
+        return sb.toString();
+    }
+}
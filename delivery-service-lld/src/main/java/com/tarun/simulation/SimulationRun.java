@@ -0,0 +1,90 @@
+package com.tarun.simulation;
+
+import com.tarun.metrics.LatencyHistogram;
+import com.tarun.timer.Clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms collected while a simulation runs, all latencies in microseconds
+ * Service calls are timed on wall time, order lifecycles on the simulation's clock.
+ * Also tracks the simulated work still in flight, so the run knows when it has drained
+ */
+class SimulationRun {
+    final Clock clock;
+    final LatencyHistogram placeOrderMicros = new LatencyHistogram();
+    final LatencyHistogram pickupOrderMicros = new LatencyHistogram();
+    final LatencyHistogram deliverOrderMicros = new LatencyHistogram();
+    final LatencyHistogram rateDriverMicros = new LatencyHistogram();
+    final LatencyHistogram cancelOrderMicros = new LatencyHistogram();
+    final LatencyHistogram assignmentWaitMicros = new LatencyHistogram();
+    final LatencyHistogram endToEndMicros = new LatencyHistogram();
+
+    final LongAdder placed = new LongAdder();
+    final LongAdder placementFailures = new LongAdder();
+    final LongAdder delivered = new LongAdder();
+    final LongAdder customerCancellations = new LongAdder();
+    final LongAdder abandoned = new LongAdder();
+    final LongAdder lostToCancellation = new LongAdder();
+    final LongAdder errors = new LongAdder();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Object drained = new Object();
+
+    SimulationRun(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Wall time since startNanos, taken from System.nanoTime
+     */
+    static long microsSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Simulated time since startNanos, taken from the run's clock
+     */
+    long simulatedMicrosSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(clock.nanoTime() - startNanos);
+    }
+
+    /**
+     * Marks one unit of work as started, it must be ended exactly once
+     */
+    void begin() {
+        inFlight.incrementAndGet();
+    }
+
+    void end() {
+        if (inFlight.decrementAndGet() == 0) {
+            synchronized (drained) {
+                drained.notifyAll();
+            }
+        }
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Waits until no work is in flight
+     * Returns false if work is still running after the timeout
+     */
+    boolean awaitDrained(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (drained) {
+            while (inFlight.get() > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                drained.wait(remaining);
+            }
+        }
+        return true;
+    }
+}
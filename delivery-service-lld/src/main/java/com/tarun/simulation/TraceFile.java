@@ -0,0 +1,87 @@
+package com.tarun.simulation;
+
+import com.tarun.model.OrderRequest;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reads and writes load traces as CSV, one arrival per line:
+ * offsetMillis,customerId,itemId,latitude,longitude
+ * The coordinates are left empty for orders without a pickup location. Blank lines and lines
+ * starting with # are ignored, so recorded production traces can carry comments
+ */
+public final class TraceFile {
+    private static final String HEADER = "# offsetMillis,customerId,itemId,latitude,longitude";
+
+    private TraceFile() {}
+
+    /**
+     * Reads a trace, sorted by offset
+     * Throws IOException naming the line if a line can't be parsed
+     */
+    public static List<TraceRecord> read(Path file) throws IOException {
+        List<TraceRecord> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    records.add(parse(line));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid trace line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        records.sort(Comparator.comparingLong(TraceRecord::getOffsetMillis));
+        return records;
+    }
+
+    public static void write(Path file, List<TraceRecord> records) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (TraceRecord record : records) {
+                OrderRequest request = record.getRequest();
+                writer.write(record.getOffsetMillis() + "," + request.getCustomerId() + "," + request.getItemId() + ",");
+                if (request.hasPickupLocation()) {
+                    writer.write(request.getLatitude() + "," + request.getLongitude());
+                } else {
+                    writer.write(",");
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    private static TraceRecord parse(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("expected 5 fields, found " + fields.length);
+        }
+        long offsetMillis = Long.parseLong(fields[0].trim());
+        String customerId = fields[1].trim();
+        String itemId = fields[2].trim();
+        String latitude = fields[3].trim();
+        String longitude = fields[4].trim();
+        if (latitude.isEmpty() != longitude.isEmpty()) {
+            throw new IllegalArgumentException("latitude and longitude must both be set or both be empty");
+        }
+        OrderRequest request = latitude.isEmpty()
+                ? new OrderRequest(customerId, itemId)
+                : new OrderRequest(customerId, itemId, Double.parseDouble(latitude), Double.parseDouble(longitude));
+        return new TraceRecord(offsetMillis, request);
+    }
+}
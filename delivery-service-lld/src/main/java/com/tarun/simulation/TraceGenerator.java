@@ -0,0 +1,47 @@
+package com.tarun.simulation;
+
+import com.tarun.model.OrderRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic traces with Poisson arrivals: gaps between orders are exponentially
+ * distributed with mean 1 / arrivalsPerSecond
+ * Customers and items are picked uniformly, pickup locations uniformly within the configured area.
+ * The same config and seed always give the same trace
+ */
+public class TraceGenerator {
+    private static final int ITEM_COUNT = 10;
+
+    private final SimulationConfig config;
+    private final double arrivalsPerSecond;
+
+    public TraceGenerator(SimulationConfig config, double arrivalsPerSecond) {
+        if (!(arrivalsPerSecond > 0)) {
+            throw new IllegalArgumentException("Arrival rate must be positive");
+        }
+        this.config = config;
+        this.arrivalsPerSecond = arrivalsPerSecond;
+    }
+
+    public List<TraceRecord> generate(int orders) {
+        Random random = new Random(config.getSeed());
+        List<TraceRecord> records = new ArrayList<>(orders);
+        double offsetMillis = 0;
+        for (int i = 0; i < orders; i++) {
+            offsetMillis += -Math.log(1.0 - random.nextDouble()) * 1000.0 / arrivalsPerSecond;
+            String customerId = LoadSimulator.customerId(random.nextInt(config.getCustomers()));
+            String itemId = String.format("ITEM%03d", random.nextInt(ITEM_COUNT) + 1);
+            double latitude = config.getCenterLatitude() + spread(random);
+            double longitude = config.getCenterLongitude() + spread(random);
+            records.add(new TraceRecord((long) offsetMillis, new OrderRequest(customerId, itemId, latitude, longitude)));
+        }
+        return records;
+    }
+
+    private double spread(Random random) {
+        return (random.nextDouble() * 2 - 1) * config.getRadiusDegrees();
+    }
+}
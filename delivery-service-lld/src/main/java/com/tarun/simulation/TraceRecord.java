@@ -0,0 +1,22 @@
+package com.tarun.simulation;
+
+import com.tarun.model.OrderRequest;
+
+/**
+ * One order arrival of a load trace, offsetMillis after the start of the run
+ */
+public class TraceRecord {
+    private final long offsetMillis;
+    private final OrderRequest request;
+
+    public TraceRecord(long offsetMillis, OrderRequest request) {
+        if (offsetMillis < 0) {
+            throw new IllegalArgumentException("Trace offset must not be negative");
+        }
+        this.offsetMillis = offsetMillis;
+        this.request = request;
+    }
+
+    public long getOffsetMillis() { return offsetMillis; }
+    public OrderRequest getRequest() { return request; }
+}
@@ -0,0 +1,16 @@
+package com.tarun.strategy;
+
+import com.tarun.model.Driver;
+import com.tarun.model.Order;
+
+/**
+ * Strategy interface for pricing a possible order to driver assignment in batch matching
+ */
+public interface AssignmentCostStrategy {
+
+    /**
+     * Returns the cost of giving the order to the driver, lower is better
+     * Costs may be negative but must be finite
+     */
+    double cost(Order order, Driver driver, long nowMillis);
+}
@@ -0,0 +1,38 @@
+package com.tarun.strategy;
+
+import com.tarun.model.Driver;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class DecayedRatingRankingStrategy implements DriverRankingStrategy {
+
+    /**
+     * Ranks drivers by time-decayed rating in descending order, favouring recent performance
+     */
+    @Override
+    public List<Driver> rankDrivers(List<Driver> drivers) {
+        return drivers.stream()
+                .sorted(Comparator.comparingDouble(this::score).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public double score(Driver driver) {
+        return driver.getDecayedRating();
+    }
+
+    /**
+     * The decay lives in the driver's stats, so all instances rank alike and share one leaderboard index
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other != null && other.getClass() == getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
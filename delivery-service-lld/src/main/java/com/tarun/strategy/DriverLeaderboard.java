@@ -0,0 +1,162 @@
+package com.tarun.strategy;
+
+import com.tarun.model.Driver;
+import com.tarun.model.DriverStatsListener;
+import com.tarun.repository.DriverRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Incrementally maintained driver rankings, one ordered index per ranking strategy
+ * Only drivers with at least one completed order are ranked. Indexes are built on first use
+ * and then updated whenever a driver's rating or completed order count changes, so reading
+ * the top N drivers walks N entries instead of sorting every driver. An index is published only
+ * once it holds every driver, and follows changes while it is being built so none are missed
+ */
+public class DriverLeaderboard implements DriverStatsListener, AutoCloseable {
+
+    private final DriverRepository driverRepository;
+    private final Map<DriverRankingStrategy, RankedIndex> indexes = new ConcurrentHashMap<>();
+    private final Set<RankedIndex> building = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a leaderboard over the repository; call start() to follow driver statistic changes
+     */
+    public DriverLeaderboard(DriverRepository driverRepository) {
+        this.driverRepository = driverRepository;
+    }
+
+    /**
+     * Starts following driver statistic changes in the repository, until close()
+     */
+    public void start() {
+        driverRepository.addStatsListener(this);
+    }
+
+    /**
+     * Returns up to limit drivers ranked by the strategy, best first
+     * Indexes are keyed by the strategy itself, so strategies that rank alike must be equal
+     * Otherwise every new instance builds and maintains an index of its own
+     */
+    public List<Driver> topDrivers(DriverRankingStrategy strategy, int limit) {
+        RankedIndex index = indexes.get(strategy);
+        if (index == null) {
+            index = build(strategy);
+        }
+        return index.top(limit);
+    }
+
+    /**
+     * Backfills a new index with every driver, then publishes it unless another caller got there first
+     * The index receives updates while it is being built, so changes racing the backfill are kept
+     */
+    private RankedIndex build(DriverRankingStrategy strategy) {
+        RankedIndex index = new RankedIndex(strategy);
+        building.add(index);
+        try {
+            for (Driver driver : driverRepository.getAllDrivers()) {
+                index.update(driver);
+            }
+            RankedIndex published = indexes.putIfAbsent(strategy, index);
+            return published != null ? published : index;
+        } finally {
+            building.remove(index);
+        }
+    }
+
+    @Override
+    public void onStatsChange(Driver driver) {
+        for (RankedIndex index : building) {
+            index.update(driver);
+        }
+        for (RankedIndex index : indexes.values()) {
+            index.update(driver);
+        }
+    }
+
+    /**
+     * Drops a driver from every index, e.g. after it moved to another shard
+     */
+    public void remove(String driverId) {
+        for (RankedIndex index : building) {
+            index.remove(driverId);
+        }
+        for (RankedIndex index : indexes.values()) {
+            index.remove(driverId);
+        }
+    }
+
+    /**
+     * Stops following the repository, which is usually a shared singleton that outlives this leaderboard
+     */
+    @Override
+    public void close() {
+        driverRepository.removeStatsListener(this);
+    }
+
+    /**
+     * Drivers ordered by a score snapshot taken at their last update
+     */
+    private static final class RankedIndex {
+        private final DriverRankingStrategy strategy;
+        private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>();
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+        private RankedIndex(DriverRankingStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        /**
+         * Re-positions the driver, serialized per driver so the index always ends on the latest score
+         */
+        private void update(Driver driver) {
+            entries.compute(driver.getId(), (id, previous) -> {
+                if (previous != null) {
+                    ranking.remove(previous);
+                }
+                if (driver.getCompletedOrders() == 0) {
+                    return null;
+                }
+                Entry entry = new Entry(strategy.score(driver), driver);
+                ranking.add(entry);
+                return entry;
+            });
+        }
+
+        private void remove(String driverId) {
+            entries.computeIfPresent(driverId, (id, previous) -> {
+                ranking.remove(previous);
+                return null;
+            });
+        }
+
+        private List<Driver> top(int limit) {
+            List<Driver> result = new ArrayList<>(Math.min(limit, entries.size()));
+            for (Entry entry : ranking) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                result.add(entry.driver);
+            }
+            return result;
+        }
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final double score;
+        private final Driver driver;
+
+        private Entry(double score, Driver driver) {
+            this.score = score;
+            this.driver = driver;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byScore = Double.compare(other.score, score);
+            return byScore != 0 ? byScore : driver.getId().compareTo(other.driver.getId());
+        }
+    }
+}
@@ -6,6 +6,8 @@ import java.util.List;
 
 /**
  * Strategy interface for ranking drivers based on different criteria
+ * DriverLeaderboard keeps one index per distinct strategy, so implementations that rank
+ * identically should be equal, e.g. every instance of a strategy without parameters
  */
 public interface DriverRankingStrategy {
 
@@ -14,5 +16,11 @@ public interface DriverRankingStrategy {
      * Returns a sorted list with top-ranked drivers first
      */
     List<Driver> rankDrivers(List<Driver> drivers);
+
+    /**
+     * Returns the ranking key of a driver, higher scores rank first
+     * Used by DriverLeaderboard to keep drivers ordered incrementally
+     */
+    double score(Driver driver);
 }
 
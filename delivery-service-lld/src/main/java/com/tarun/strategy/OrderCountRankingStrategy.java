@@ -18,4 +18,22 @@ public class OrderCountRankingStrategy implements DriverRankingStrategy {
                 .sorted(Comparator.comparingInt(Driver::getCompletedOrders).reversed())
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public double score(Driver driver) {
+        return driver.getCompletedOrders();
+    }
+
+    /**
+     * Completed order counts rank the same for every instance, so they share one leaderboard index
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other != null && other.getClass() == getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
 }
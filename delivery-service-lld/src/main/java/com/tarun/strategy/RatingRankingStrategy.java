@@ -17,4 +17,22 @@ public class RatingRankingStrategy implements DriverRankingStrategy {
                 .sorted(Comparator.comparingDouble((Driver d )-> d.getAverageRating()).reversed())
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public double score(Driver driver) {
+        return driver.getAverageRating();
+    }
+
+    /**
+     * Has no parameters, so every instance ranks alike and shares one leaderboard index
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other != null && other.getClass() == getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
 }
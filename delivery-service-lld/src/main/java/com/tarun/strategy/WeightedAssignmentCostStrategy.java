@@ -0,0 +1,43 @@
+package com.tarun.strategy;
+
+import com.tarun.model.Driver;
+import com.tarun.model.Location;
+import com.tarun.model.Order;
+
+/**
+ * Prices an assignment by pickup distance, discounted for well rated and long idle drivers
+ * cost = km * kmWeight - decayed rating * ratingWeight - min(idle minutes, idle cap) * idleMinuteWeight
+ * Orders or drivers without a location cost nothing for distance
+ */
+public class WeightedAssignmentCostStrategy implements AssignmentCostStrategy {
+    private static final double MAX_IDLE_MINUTES = 60.0;
+
+    private final double kmWeight;
+    private final double ratingWeight;
+    private final double idleMinuteWeight;
+
+    /**
+     * Creates a strategy where 1 km of pickup distance weighs as much as half a rating star
+     * or 10 minutes of idle time
+     */
+    public WeightedAssignmentCostStrategy() {
+        this(1.0, 2.0, 0.1);
+    }
+
+    public WeightedAssignmentCostStrategy(double kmWeight, double ratingWeight, double idleMinuteWeight) {
+        this.kmWeight = kmWeight;
+        this.ratingWeight = ratingWeight;
+        this.idleMinuteWeight = idleMinuteWeight;
+    }
+
+    @Override
+    public double cost(Order order, Driver driver, long nowMillis) {
+        Location pickup = order.getPickupLocation();
+        Location driverLocation = driver.getLocation();
+        double km = pickup != null && driverLocation != null ? pickup.distanceKm(driverLocation) : 0.0;
+        double idleMinutes = Math.max(0, nowMillis - driver.getAvailableSinceMillis()) / 60_000.0;
+        return km * kmWeight
+                - driver.getDecayedRating() * ratingWeight
+                - Math.min(idleMinutes, MAX_IDLE_MINUTES) * idleMinuteWeight;
+    }
+}
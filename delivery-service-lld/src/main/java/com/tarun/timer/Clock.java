@@ -0,0 +1,32 @@
+package com.tarun.timer;
+
+/**
+ * Source of the current time, so services can run on wall time or on simulated time
+ */
+public interface Clock {
+
+    /**
+     * The wall clock
+     */
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * Returns the current time in epoch milliseconds
+     */
+    long currentTimeMillis();
+
+    /**
+     * Returns a monotonic time in nanoseconds, only meaningful as a difference of two readings
+     */
+    long nanoTime();
+}
@@ -0,0 +1,249 @@
+package com.tarun.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashed timing wheel giving O(1) schedule and cancel for large numbers of timeouts
+ * Timeouts longer than one revolution wait in their bucket for the required number of rounds
+ * A single worker thread advances the wheel once per tick and hands every timeout expiring in
+ * that tick to the expiry executor as one batch
+ */
+public class HashedWheelTimer {
+
+    /**
+     * One slot of the wheel, a doubly linked list touched only by the worker thread
+     */
+    static final class Bucket {
+        private WheelTimeout head;
+        private WheelTimeout tail;
+
+        void add(WheelTimeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(WheelTimeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        /**
+         * Unlinks every timeout due at this tick into the batch and counts down the rounds of the rest
+         */
+        void collectExpired(long now, List<WheelTimeout> batch) {
+            WheelTimeout timeout = head;
+            while (timeout != null) {
+                WheelTimeout next = timeout.next;
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= now) {
+                    remove(timeout);
+                    batch.add(timeout);
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<WheelTimeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<WheelTimeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final ExecutorService expiryExecutor;
+    private final Thread worker;
+    private final long startTime;
+    private volatile boolean running = true;
+    private long tick;
+
+    /**
+     * Creates and starts a timer with the given tick resolution and number of buckets
+     * The wheel size is rounded up to a power of two
+     */
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be positive");
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("ticksPerWheel must be in (0, 2^30]");
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        size = Math.max(size, 1);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.expiryExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, name + "-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::run, name + "-wheel");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Schedules a task to run once after the given delay
+     * The task runs on the expiry thread within one tick after its deadline
+     */
+    public WheelTimeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("Timer has been stopped");
+        }
+        long deadline = System.nanoTime() - startTime + unit.toNanos(delay);
+        WheelTimeout timeout = new WheelTimeout(this, task, deadline);
+        pendingTimeouts.offer(timeout);
+        return timeout;
+    }
+
+    /**
+     * Schedules a batch of tasks that share one delay
+     * The deadline is computed once and the whole batch is handed to the worker in a single
+     * queue operation. Returns the timeouts in task order
+     */
+    public List<WheelTimeout> newTimeouts(List<Runnable> tasks, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("Timer has been stopped");
+        }
+        long deadline = System.nanoTime() - startTime + unit.toNanos(delay);
+        List<WheelTimeout> timeouts = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks) {
+            timeouts.add(new WheelTimeout(this, task, deadline));
+        }
+        pendingTimeouts.addAll(timeouts);
+        return timeouts;
+    }
+
+    void onCancelled(WheelTimeout timeout) {
+        cancelledTimeouts.offer(timeout);
+    }
+
+    private void run() {
+        List<WheelTimeout> batch = new ArrayList<>();
+        while (running) {
+            long now = waitForNextTick();
+            if (now < 0) {
+                break;
+            }
+            removeCancelled();
+            transferPending();
+            wheel[(int) (tick & mask)].collectExpired(now, batch);
+            if (!batch.isEmpty()) {
+                List<WheelTimeout> expired = batch;
+                batch = new ArrayList<>();
+                expiryExecutor.execute(() -> runBatch(expired));
+            }
+            tick++;
+        }
+    }
+
+    private void runBatch(List<WheelTimeout> expired) {
+        for (WheelTimeout timeout : expired) {
+            if (!timeout.expire()) {
+                continue;
+            }
+            try {
+                timeout.task.run();
+            } catch (Exception e) {
+                System.err.println("ERROR: Timer task failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void removeCancelled() {
+        WheelTimeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferPending() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            WheelTimeout timeout = pendingTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            // Never schedule into the past, overdue timeouts fire on the current tick
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * Sleeps until the start of the next tick and returns the elapsed time since start
+     * Returns -1 if the timer was stopped while waiting
+     */
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long current = System.nanoTime() - startTime;
+            long sleepNanos = deadline - current;
+            if (sleepNanos <= 0) {
+                return current;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the wheel, pending timeouts are discarded
+     */
+    public void stop() {
+        running = false;
+        worker.interrupt();
+        expiryExecutor.shutdown();
+        try {
+            worker.join(5000);
+            if (!expiryExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                expiryExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            expiryExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
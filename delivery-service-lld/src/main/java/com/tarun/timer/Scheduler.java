@@ -0,0 +1,43 @@
+package com.tarun.timer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs delayed, periodic and immediate tasks against a Clock
+ * SystemScheduler runs them on wall time with its own threads; VirtualTimeScheduler runs them
+ * on the thread advancing its simulated clock, one at a time and in deadline order
+ */
+public interface Scheduler {
+
+    /**
+     * Returns the clock the delays of this scheduler are measured on
+     */
+    Clock getClock();
+
+    /**
+     * Runs the task once after the delay
+     * Implementations may fire up to one tick of their resolution late, never early
+     */
+    Timeout schedule(Runnable task, long delay, TimeUnit unit);
+
+    /**
+     * Schedules a batch of tasks that share one delay, returning the timeouts in task order
+     */
+    List<Timeout> scheduleAll(List<Runnable> tasks, long delay, TimeUnit unit);
+
+    /**
+     * Runs the task repeatedly, delay after the end of the previous run, until cancelled
+     */
+    Timeout scheduleWithFixedDelay(Runnable task, long delay, TimeUnit unit);
+
+    /**
+     * Runs the task as soon as possible, after the tasks already handed to execute
+     */
+    void execute(Runnable task);
+
+    /**
+     * Stops the scheduler, tasks that haven't run yet are discarded
+     */
+    void stop();
+}
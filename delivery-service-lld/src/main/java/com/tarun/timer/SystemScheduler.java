@@ -0,0 +1,98 @@
+package com.tarun.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler on wall time
+ * Delayed tasks go to a HashedWheelTimer, so large numbers of them stay O(1) to schedule and
+ * cancel at the price of firing up to one tick late. Periodic and immediate tasks run on a
+ * single executor thread in submission order
+ */
+public class SystemScheduler implements Scheduler {
+    private static final int WHEEL_SIZE = 512;
+
+    private final HashedWheelTimer wheel;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Creates and starts a scheduler whose delayed tasks have tickMillis resolution
+     */
+    public SystemScheduler(String name, long tickMillis) {
+        this.wheel = new HashedWheelTimer(name, tickMillis, TimeUnit.MILLISECONDS, WHEEL_SIZE);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name + "-executor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Clock getClock() {
+        return Clock.SYSTEM;
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return wheel.newTimeout(task, delay, unit);
+    }
+
+    @Override
+    public List<Timeout> scheduleAll(List<Runnable> tasks, long delay, TimeUnit unit) {
+        return new ArrayList<>(wheel.newTimeouts(tasks, delay, unit));
+    }
+
+    @Override
+    public Timeout scheduleWithFixedDelay(Runnable task, long delay, TimeUnit unit) {
+        return new PeriodicTimeout(executor.scheduleWithFixedDelay(task, delay, delay, unit));
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Stops the wheel and waits up to 5 seconds for the running executor task to finish
+     */
+    @Override
+    public void stop() {
+        wheel.stop();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class PeriodicTimeout implements Timeout {
+        private final ScheduledFuture<?> future;
+
+        PeriodicTimeout(ScheduledFuture<?> future) {
+            this.future = future;
+        }
+
+        @Override
+        public boolean cancel() {
+            return future.cancel(false);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return future.isCancelled();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return future.isDone() && !future.isCancelled();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.tarun.timer;
+
+/**
+ * Handle for a task scheduled on a Scheduler
+ */
+public interface Timeout {
+
+    /**
+     * Cancels the task, or stops a periodic task from running again
+     * Returns false if the task already ran or was cancelled
+     */
+    boolean cancel();
+
+    boolean isCancelled();
+
+    /**
+     * Returns true once a one-shot task was handed over to run
+     */
+    boolean isExpired();
+}
@@ -0,0 +1,203 @@
+package com.tarun.timer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deterministic scheduler and clock on simulated time
+ * Time only moves when advanceBy or runDueTasks is called, and the calling thread runs every task
+ * that falls due on the way, in deadline order and FIFO among equal deadlines, with the clock set
+ * to the task's deadline. Tasks fire exactly at their deadline, so a 30 minute timeout takes no
+ * real time at all, and the same inputs always produce the same sequence of events.
+ * Tasks may be scheduled from any thread, but only one thread should advance the time
+ */
+public class VirtualTimeScheduler implements Scheduler, Clock {
+    private static final Comparator<VirtualTimeout> DUE_ORDER =
+            Comparator.comparingLong((VirtualTimeout t) -> t.deadlineNanos).thenComparingLong(t -> t.sequence);
+
+    /**
+     * Where the clock of a scheduler created without a start time begins, the Unix epoch
+     */
+    public static final long DEFAULT_START_MILLIS = 0L;
+
+    private final PriorityQueue<VirtualTimeout> queue = new PriorityQueue<>(DUE_ORDER);
+    private final long startMillis;
+    private volatile long nowNanos;
+    private long sequence;
+    private boolean stopped;
+
+    /**
+     * Creates a scheduler whose clock starts at DEFAULT_START_MILLIS, so runs never depend on the wall time
+     */
+    public VirtualTimeScheduler() {
+        this(DEFAULT_START_MILLIS);
+    }
+
+    public VirtualTimeScheduler(long startMillis) {
+        this.startMillis = startMillis;
+    }
+
+    @Override
+    public Clock getClock() {
+        return this;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return startMillis + TimeUnit.NANOSECONDS.toMillis(nowNanos);
+    }
+
+    @Override
+    public long nanoTime() {
+        return nowNanos;
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return enqueue(task, unit.toNanos(Math.max(0, delay)), 0);
+    }
+
+    @Override
+    public synchronized List<Timeout> scheduleAll(List<Runnable> tasks, long delay, TimeUnit unit) {
+        List<Timeout> timeouts = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks) {
+            timeouts.add(schedule(task, delay, unit));
+        }
+        return timeouts;
+    }
+
+    @Override
+    public Timeout scheduleWithFixedDelay(Runnable task, long delay, TimeUnit unit) {
+        long delayNanos = unit.toNanos(delay);
+        if (delayNanos <= 0) {
+            throw new IllegalArgumentException("delay must be positive");
+        }
+        return enqueue(task, delayNanos, delayNanos);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        enqueue(task, 0, 0);
+    }
+
+    private synchronized VirtualTimeout enqueue(Runnable task, long delayNanos, long periodNanos) {
+        if (stopped) {
+            throw new IllegalStateException("Scheduler has been stopped");
+        }
+        VirtualTimeout timeout = new VirtualTimeout(task, nowNanos + delayNanos, periodNanos, sequence++);
+        queue.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Moves the clock forward by the duration, running every task due up to the new time,
+     * including tasks scheduled by those tasks
+     * Returns the number of tasks run
+     */
+    public int advanceBy(long duration, TimeUnit unit) {
+        return runUntil(nowNanos + unit.toNanos(duration));
+    }
+
+    /**
+     * Runs the tasks due at the current time, e.g. everything handed to execute, without moving the clock
+     * Returns the number of tasks run
+     */
+    public int runDueTasks() {
+        return runUntil(nowNanos);
+    }
+
+    /**
+     * Returns the number of tasks waiting to run, including cancelled ones not yet discarded
+     */
+    public synchronized int getQueuedTaskCount() {
+        return queue.size();
+    }
+
+    private int runUntil(long targetNanos) {
+        int ran = 0;
+        while (true) {
+            VirtualTimeout timeout;
+            synchronized (this) {
+                timeout = queue.peek();
+                if (timeout == null || timeout.deadlineNanos > targetNanos) {
+                    nowNanos = Math.max(nowNanos, targetNanos);
+                    return ran;
+                }
+                queue.poll();
+                nowNanos = Math.max(nowNanos, timeout.deadlineNanos);
+            }
+            if (timeout.periodNanos == 0 ? !timeout.expire() : timeout.isCancelled()) {
+                continue;
+            }
+            try {
+                timeout.task.run();
+            } catch (Exception e) {
+                System.err.println("ERROR: Scheduled task failed: " + e.getMessage());
+            }
+            ran++;
+            if (timeout.periodNanos > 0) {
+                requeue(timeout);
+            }
+        }
+    }
+
+    private synchronized void requeue(VirtualTimeout timeout) {
+        if (!stopped && !timeout.isCancelled()) {
+            timeout.deadlineNanos = nowNanos + timeout.periodNanos;
+            timeout.sequence = sequence++;
+            queue.add(timeout);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        stopped = true;
+        queue.clear();
+    }
+
+    private static final class VirtualTimeout implements Timeout {
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private final Runnable task;
+        private final long periodNanos;
+        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+        // Guarded by the scheduler, changed only while the timeout is out of the queue
+        private long deadlineNanos;
+        private long sequence;
+
+        VirtualTimeout(Runnable task, long deadlineNanos, long periodNanos, long sequence) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+            this.periodNanos = periodNanos;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Cancels in O(1), the queue entry is skipped when it falls due
+         */
+        @Override
+        public boolean cancel() {
+            return state.compareAndSet(ST_INIT, ST_CANCELLED);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+
+        boolean expire() {
+            return state.compareAndSet(ST_INIT, ST_EXPIRED);
+        }
+    }
+}
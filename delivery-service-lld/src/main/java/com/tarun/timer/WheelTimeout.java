@@ -0,0 +1,58 @@
+package com.tarun.timer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Handle for a task scheduled on a HashedWheelTimer
+ * Doubles as the bucket list node, so scheduling and cancelling never allocate more than this object
+ */
+public final class WheelTimeout implements Timeout {
+    static final int ST_INIT = 0;
+    static final int ST_CANCELLED = 1;
+    static final int ST_EXPIRED = 2;
+
+    private final HashedWheelTimer timer;
+    final Runnable task;
+    final long deadline;
+    final AtomicInteger state = new AtomicInteger(ST_INIT);
+
+    // Owned by the timer worker thread
+    long remainingRounds;
+    WheelTimeout next;
+    WheelTimeout prev;
+    HashedWheelTimer.Bucket bucket;
+
+    WheelTimeout(HashedWheelTimer timer, Runnable task, long deadline) {
+        this.timer = timer;
+        this.task = task;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Cancels the task in O(1)
+     * The bucket entry is unlinked lazily by the worker thread on its next tick
+     * Returns false if the task already expired or was cancelled
+     */
+    @Override
+    public boolean cancel() {
+        if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+            return false;
+        }
+        timer.onCancelled(this);
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return state.get() == ST_CANCELLED;
+    }
+
+    @Override
+    public boolean isExpired() {
+        return state.get() == ST_EXPIRED;
+    }
+
+    boolean expire() {
+        return state.compareAndSet(ST_INIT, ST_EXPIRED);
+    }
+}
@@ -0,0 +1,85 @@
+package com.tarun.event;
+
+import com.tarun.model.Driver;
+import com.tarun.repository.CustomerRepository;
+import com.tarun.repository.DriverRepository;
+import com.tarun.service.AsyncNotificationService;
+import com.tarun.service.BackpressurePolicy;
+import com.tarun.service.DeliveryService;
+import com.tarun.service.OnboardingService;
+import com.tarun.service.StubNotificationGateway;
+import com.tarun.timer.VirtualTimeScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeliveryEventBusTest {
+
+    @Test
+    void blockedSubscriberDoesNotBlockPlacementOrAssignment() throws InterruptedException {
+        CustomerRepository customers = new CustomerRepository();
+        DriverRepository drivers = new DriverRepository();
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        DeliveryService service = new DeliveryService(customers, drivers, scheduler,
+                new AsyncNotificationService(new StubNotificationGateway(0, 0), 1_000, 64, BackpressurePolicy.DROP, null),
+                null, "BUS");
+        OnboardingService onboarding = new OnboardingService(customers, drivers, scheduler.getClock());
+        onboarding.onboardCustomer("C1", "Customer");
+
+        DeliveryEventBus bus = new DeliveryEventBus(1, 4, WaitStrategy.BLOCKING);
+        CountDownLatch release = new CountDownLatch(1);
+        EventSubscription subscription = bus.subscribe("stuck", (event, sequence, endOfBatch) -> release.await());
+        service.setEventBus(bus);
+
+        AtomicInteger assigned = new AtomicInteger();
+        Thread worker = new Thread(() -> {
+            List<String> orderIds = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                onboarding.onboardDriver("D" + i, "Driver " + i, 12.97, 77.59);
+                orderIds.add(service.placeOrder("C1", "ITEM001", 12.97, 77.59));
+            }
+            service.assignPendingOrders();
+            for (String orderId : orderIds) {
+                if (service.getAssignedDriver(orderId) != null) {
+                    assigned.incrementAndGet();
+                }
+            }
+        });
+        worker.start();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+        boolean finished = !worker.isAlive();
+
+        release.countDown();
+        subscription.close();
+        service.shutdown();
+
+        assertTrue(finished, "placing and assigning orders must not wait for a blocked subscriber");
+        assertEquals(20, assigned.get());
+        assertTrue(bus.getDroppedCount() > 0, "events beyond the full ring should have been dropped");
+    }
+
+    @Test
+    void publishesEveryEventWhileSubscribersKeepUp() throws InterruptedException {
+        DeliveryEventBus bus = new DeliveryEventBus(1, 8, WaitStrategy.BLOCKING);
+        CountDownLatch received = new CountDownLatch(100);
+        EventSubscription subscription = bus.subscribe("counter", (event, sequence, endOfBatch) -> received.countDown());
+
+        for (int i = 0; i < 100; i++) {
+            while (bus.getCursor(0) - subscription.getSequence(0) >= 8) {
+                Thread.onSpinWait();
+            }
+            bus.publishDriverUpdate(new Driver("D" + i, "Driver", 0L), i);
+        }
+
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        subscription.close();
+        assertEquals(0, bus.getDroppedCount());
+    }
+}
@@ -0,0 +1,170 @@
+package com.tarun.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OrderTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 500;
+
+    /**
+     * Runs one action per thread, all released at once, and returns how many returned a previous state
+     */
+    private static int race(IntFunction<OrderState> action) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger winners = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int index = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (action.apply(index) != null) {
+                    winners.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return winners.get();
+    }
+
+    @Test
+    void followsTheLifecycleAndStampsEachStage() {
+        Order order = new Order("O1", "C1", "I1", null, 1_000L);
+
+        assertNotNull(order.assign("D1", 2_000L));
+        assertNotNull(order.pickUp("D1", 3_000L));
+        assertNotNull(order.deliver("D1", 4_000L));
+
+        OrderState state = order.getState();
+        assertEquals(OrderStatus.DELIVERED, state.getStatus());
+        assertEquals("D1", state.getAssignedDriverId());
+        assertEquals(2_000L, state.getAssignedAtMillis());
+        assertEquals(3_000L, state.getPickedUpAtMillis());
+        assertEquals(4_000L, state.getDeliveredAtMillis());
+        assertEquals(3, state.getVersion());
+    }
+
+    @Test
+    void transitionsAtEpochZeroAreStamped() {
+        // A virtual clock starts at epoch 0, which must not read as a missing timestamp
+        Order order = new Order("O1", "C1", "I1", null, 0L);
+
+        order.assign("D1", 0L);
+        order.pickUp("D1", 0L);
+
+        assertEquals(0L, order.getState().getAssignedAtMillis());
+        assertNotNull(order.getAssignedAt());
+        assertNotNull(order.getPickedUpAt());
+        assertNull(order.getDeliveredAt());
+    }
+
+    @Test
+    void rejectsTransitionsOutOfOrderOrByAnotherDriver() {
+        Order order = new Order("O1", "C1", "I1", null, 1_000L);
+
+        assertNull(order.deliver("D1", 2_000L));
+        assertNotNull(order.assign("D1", 2_000L));
+        assertNull(order.assign("D2", 3_000L));
+        assertNull(order.pickUp("D2", 3_000L));
+        assertNotNull(order.pickUp("D1", 3_000L));
+        assertNull(order.cancel());
+        assertNull(order.deliver("D2", 4_000L));
+
+        assertEquals(OrderStatus.PICKED_UP, order.getStatus());
+        assertEquals("D1", order.getAssignedDriverId());
+    }
+
+    @Test
+    void racingAssignmentsHaveExactlyOneWinner() throws InterruptedException {
+        for (int round = 0; round < ROUNDS; round++) {
+            Order order = new Order("O" + round, "C1", "I1", null, 1_000L);
+            AtomicInteger notifications = new AtomicInteger();
+            order.setStatusListener((o, oldStatus, newStatus) -> notifications.incrementAndGet());
+
+            int winners = race(t -> order.assign("D" + t, 2_000L + t));
+
+            assertEquals(1, winners);
+            assertEquals(1, notifications.get());
+            OrderState state = order.getState();
+            assertEquals(OrderStatus.ASSIGNED, state.getStatus());
+            assertEquals(2_000L + Integer.parseInt(state.getAssignedDriverId().substring(1)),
+                    state.getAssignedAtMillis(), "driver and timestamp must come from the same transition");
+            assertEquals(1, state.getVersion());
+        }
+    }
+
+    @Test
+    void racingAssignAndCancelHaveExactlyOneWinner() throws InterruptedException {
+        for (int round = 0; round < ROUNDS; round++) {
+            Order order = new Order("O" + round, "C1", "I1", null, 1_000L);
+            AtomicInteger assigned = new AtomicInteger();
+            AtomicInteger cancelled = new AtomicInteger();
+
+            race(t -> {
+                OrderState previous = t % 2 == 0 ? order.assign("D" + t, 2_000L) : order.cancel();
+                if (previous != null && previous.getStatus() == OrderStatus.PENDING) {
+                    (t % 2 == 0 ? assigned : cancelled).incrementAndGet();
+                }
+                return previous;
+            });
+
+            // An assignment may still be cancelled afterwards, but only one transition leaves PENDING
+            assertEquals(1, assigned.get() + cancelled.get());
+            if (assigned.get() == 1) {
+                assertNotNull(order.getAssignedDriverId());
+            } else {
+                assertEquals(OrderStatus.CANCELLED, order.getStatus());
+                assertNull(order.getAssignedDriverId());
+            }
+        }
+    }
+
+    @Test
+    void racingPickUpAndCancelHaveExactlyOneWinner() throws InterruptedException {
+        for (int round = 0; round < ROUNDS; round++) {
+            Order order = new Order("O" + round, "C1", "I1", null, 1_000L);
+            order.assign("D1", 2_000L);
+
+            int winners = race(t -> t % 2 == 0 ? order.pickUp("D1", 3_000L) : order.cancel());
+
+            assertEquals(1, winners);
+            OrderStatus status = order.getStatus();
+            assertEquals(status == OrderStatus.PICKED_UP ? 3_000L : OrderState.NOT_SET,
+                    order.getState().getPickedUpAtMillis());
+            assertEquals(2, order.getState().getVersion());
+        }
+    }
+
+    @Test
+    void restoreStateOnlyAcceptsNewerVersions() {
+        Order order = new Order("O1", "C1", "I1", null, 1_000L);
+        order.assign("D1", 2_000L);
+
+        OrderState stale = OrderState.restore(OrderStatus.PENDING, null,
+                OrderState.NOT_SET, OrderState.NOT_SET, OrderState.NOT_SET, 0);
+        assertNull(order.restoreState(stale));
+
+        OrderState newer = OrderState.restore(OrderStatus.PICKED_UP, "D1", 2_000L, 3_000L, OrderState.NOT_SET, 2);
+        assertNotNull(order.restoreState(newer));
+        assertEquals(OrderStatus.PICKED_UP, order.getStatus());
+    }
+}
@@ -0,0 +1,198 @@
+package com.tarun.persistence;
+
+import com.tarun.model.Customer;
+import com.tarun.model.Driver;
+import com.tarun.model.Location;
+import com.tarun.model.Order;
+import com.tarun.model.OrderStatus;
+import com.tarun.repository.CustomerRepository;
+import com.tarun.repository.DriverRepository;
+import com.tarun.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeliveryPersistenceTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * One process worth of repositories journaled into the test directory
+     */
+    private final class Node {
+        final CustomerRepository customers = new CustomerRepository();
+        final DriverRepository drivers = new DriverRepository();
+        final OrderRepository orders = new OrderRepository();
+        final DeliveryPersistence persistence;
+        final int replayed;
+
+        /**
+         * Live drivers are in the repository before recovery, as with a repository shared by a running service
+         */
+        Node(Driver... liveDrivers) throws IOException {
+            for (Driver driver : liveDrivers) {
+                drivers.save(driver);
+            }
+            // Forced on every record, no periodic snapshots or archiving
+            PersistenceConfig config = new PersistenceConfig(directory, 0, false, 0, 64 * 1024, 2, 0, 0);
+            persistence = new DeliveryPersistence(config, customers, drivers, orders);
+            replayed = persistence.recover();
+            persistence.start();
+        }
+    }
+
+    private static void populate(Node node, int from, int to) {
+        for (int i = from; i < to; i++) {
+            node.customers.save(new Customer("C" + i, "Customer " + i));
+            Driver driver = new Driver("D" + i, "Driver " + i, 2, 1_000L);
+            driver.setLocation(new Location(12.9 + i * 0.01, 77.5));
+            node.drivers.save(driver);
+            Order order = new Order("O" + i, "C" + i, "ITEM001", new Location(12.9, 77.6), 1_000L + i);
+            node.orders.save(order);
+            order.assign("D" + i, 2_000L + i);
+            if (i % 2 == 0) {
+                order.pickUp("D" + i, 3_000L + i);
+                order.deliver("D" + i, 4_000L + i);
+                driver.addRating(4.0, 4_000L + i);
+            }
+        }
+    }
+
+    private static void assertRecovered(Node node, int count) {
+        assertRecovered(node, count, null);
+    }
+
+    private static void assertRecovered(Node node, int count, String cancelledOrderId) {
+        for (int i = 0; i < count; i++) {
+            assertNotNull(node.customers.findById("C" + i), "customer C" + i);
+            Driver driver = node.drivers.findById("D" + i);
+            assertNotNull(driver, "driver D" + i);
+            assertEquals(2, driver.getCapacity());
+            assertEquals(i % 2 == 0 ? 1 : 0, driver.getRatingCount());
+            Order order = node.orders.findById("O" + i);
+            assertNotNull(order, "order O" + i);
+            assertEquals(1_000L + i, order.getCreatedAtMillis());
+            OrderStatus expected = order.getId().equals(cancelledOrderId) ? OrderStatus.CANCELLED
+                    : i % 2 == 0 ? OrderStatus.DELIVERED : OrderStatus.ASSIGNED;
+            assertEquals(expected, order.getStatus(), "order O" + i);
+            assertEquals("D" + i, order.getAssignedDriverId());
+            assertEquals(2_000L + i, order.getState().getAssignedAtMillis());
+        }
+    }
+
+    private Path newestSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.filter(p -> p.getFileName().toString().startsWith("journal-"))
+                    .sorted().collect(Collectors.toList());
+            return segments.get(segments.size() - 1);
+        }
+    }
+
+    @Test
+    void recoversFromSnapshotAndJournalTail() throws IOException {
+        Node first = new Node();
+        populate(first, 0, 20);
+        first.persistence.snapshot();
+        populate(first, 20, 30);
+        first.orders.findById("O1").cancel();
+        first.persistence.close();
+
+        Node second = new Node();
+        assertRecovered(second, 30, "O1");
+        second.persistence.close();
+    }
+
+    @Test
+    void recoversEverythingJournaledBeforeACrash() throws IOException {
+        Node first = new Node();
+        populate(first, 0, 10);
+        first.persistence.snapshot();
+        populate(first, 10, 25);
+        // The process dies here: no close, so no final snapshot
+
+        Node second = new Node();
+        assertTrue(second.replayed > 0, "the tail after the snapshot must come from the journal");
+        assertRecovered(second, 25);
+        second.persistence.close();
+        first.persistence.close();
+    }
+
+    @Test
+    void dropsOnlyTheTornRecordAtTheEndOfTheJournal() throws IOException {
+        Node first = new Node();
+        populate(first, 0, 5);
+        first.persistence.snapshot();
+        first.customers.save(new Customer("C100", "Last customer"));
+        first.orders.findById("O1").cancel();
+
+        // The crash tears the last record, the cancellation of O1, in half
+        Path segment = newestSegment();
+        List<MappedJournal.Record> tail = MappedJournal.readAfter(directory, 0);
+        long tornRecordStart = 8;
+        for (int i = 0; i < tail.size() - 1; i++) {
+            tornRecordStart += 16 + tail.get(i).getBody().length;
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(tornRecordStart + 16 + tail.get(tail.size() - 1).getBody().length / 2);
+        }
+
+        Node second = new Node();
+        assertRecovered(second, 5);
+        assertNotNull(second.customers.findById("C100"));
+        assertEquals(OrderStatus.ASSIGNED, second.orders.findById("O1").getStatus());
+        second.persistence.close();
+        first.persistence.close();
+    }
+
+    @Test
+    void restoresCapacityOnlyWhenTheRecordIsNewerThanTheLiveDriver() throws IOException {
+        Node first = new Node();
+        Driver driver = new Driver("D1", "Driver 1", 2, 1_000L);
+        first.drivers.save(driver);
+        driver.setCapacity(4, 5_000L);
+        first.persistence.snapshot();
+        first.persistence.close();
+
+        Node fresh = new Node();
+        assertEquals(4, fresh.drivers.findById("D1").getCapacity());
+        assertEquals(5_000L, fresh.drivers.findById("D1").getCapacitySetAtMillis());
+        fresh.persistence.close();
+
+        Node stale = new Node(new Driver("D1", "Driver 1", 1, 2_000L));
+        assertEquals(4, stale.drivers.findById("D1").getCapacity());
+        stale.persistence.close();
+
+        Node reconfigured = new Node(new Driver("D1", "Driver 1", 3, 9_000L));
+        assertEquals(3, reconfigured.drivers.findById("D1").getCapacity());
+        reconfigured.persistence.close();
+    }
+
+    @Test
+    void recoveryIsIdempotent() throws IOException {
+        Node first = new Node();
+        populate(first, 0, 10);
+        first.persistence.close();
+
+        Node second = new Node();
+        second.persistence.close();
+        Node third = new Node();
+        assertRecovered(third, 10);
+        assertEquals(10, third.orders.getAllOrders().size());
+        assertFalse(third.orders.exists("O10"));
+        third.persistence.close();
+    }
+}
@@ -0,0 +1,148 @@
+package com.tarun.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MappedJournalTest {
+
+    // [magic][window size] per segment, [length][crc32][sequence] per record
+    private static final int SEGMENT_HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 16;
+
+    @TempDir
+    Path directory;
+
+    private static byte[] body(int i) {
+        return String.format("record-%04d", i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(MappedJournal.Record record) {
+        return new String(record.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("journal-")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void readsRecordsBackInSequenceOrderAcrossWindows() throws IOException {
+        try (MappedJournal journal = new MappedJournal(directory, 1, 256, 0, false)) {
+            for (int i = 1; i <= 100; i++) {
+                assertEquals(i, journal.append(body(i)));
+            }
+        }
+
+        List<MappedJournal.Record> records = MappedJournal.readAfter(directory, 0);
+        assertEquals(100, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i + 1, records.get(i).getSequence());
+            assertEquals("record-" + String.format("%04d", i + 1), text(records.get(i)));
+        }
+        assertEquals(40, MappedJournal.readAfter(directory, 60).size());
+    }
+
+    @Test
+    void readsEveryAppendedRecordAfterACrashWithoutClose() throws IOException {
+        MappedJournal journal = new MappedJournal(directory, 1, 4096, 0, false);
+        for (int i = 1; i <= 20; i++) {
+            journal.append(body(i));
+        }
+
+        // The process dies here: the journal is never closed and no final flush happens
+        List<MappedJournal.Record> records = MappedJournal.readAfter(directory, 0);
+        journal.close();
+
+        assertEquals(20, records.size());
+        assertEquals(20, records.get(19).getSequence());
+    }
+
+    @Test
+    void stopsAtATornRecord() throws IOException {
+        try (MappedJournal journal = new MappedJournal(directory, 1, 4096, 0, false)) {
+            for (int i = 1; i <= 10; i++) {
+                journal.append(body(i));
+            }
+        }
+        int recordBytes = RECORD_HEADER_BYTES + body(1).length;
+
+        // A crash in the middle of writing record 8 leaves its body only partly on disk
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.truncate(SEGMENT_HEADER_BYTES + 7L * recordBytes + RECORD_HEADER_BYTES + 3);
+        }
+
+        List<MappedJournal.Record> records = MappedJournal.readAfter(directory, 0);
+        assertEquals(7, records.size());
+        assertEquals(7, records.get(6).getSequence());
+    }
+
+    @Test
+    void stopsAtACorruptRecord() throws IOException {
+        try (MappedJournal journal = new MappedJournal(directory, 1, 4096, 0, false)) {
+            for (int i = 1; i <= 10; i++) {
+                journal.append(body(i));
+            }
+        }
+        int recordBytes = RECORD_HEADER_BYTES + body(1).length;
+
+        // Flip one byte in the body of record 6, its checksum no longer matches
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'X'}), SEGMENT_HEADER_BYTES + 5L * recordBytes + RECORD_HEADER_BYTES);
+        }
+
+        assertEquals(5, MappedJournal.readAfter(directory, 0).size());
+    }
+
+    @Test
+    void neverReadsStaleRecordsFromAReusedSegment() throws IOException {
+        try (MappedJournal journal = new MappedJournal(directory, 1, 4096, 0, false)) {
+            for (int i = 1; i <= 100; i++) {
+                journal.append(body(i));
+            }
+        }
+        // Recovery restarting from the same sequence reuses the segment file name
+        try (MappedJournal journal = new MappedJournal(directory, 1, 4096, 0, false)) {
+            for (int i = 1; i <= 10; i++) {
+                journal.append(body(1000 + i));
+            }
+        }
+
+        List<MappedJournal.Record> records = MappedJournal.readAfter(directory, 0);
+        assertEquals(10, records.size());
+        assertEquals("record-1010", text(records.get(9)));
+    }
+
+    @Test
+    void deletesSegmentsCoveredByASnapshot() throws IOException {
+        try (MappedJournal journal = new MappedJournal(directory, 1, 4096, 0, false)) {
+            for (int i = 1; i <= 10; i++) {
+                journal.append(body(i));
+            }
+            long covered = journal.rotate();
+            assertEquals(10, covered);
+            for (int i = 11; i <= 15; i++) {
+                journal.append(body(i));
+            }
+            journal.deleteSegmentsUpTo(covered);
+        }
+
+        assertEquals(1, segments().size());
+        List<MappedJournal.Record> records = MappedJournal.readAfter(directory, 0);
+        assertEquals(5, records.size());
+        assertEquals(11, records.get(0).getSequence());
+    }
+}
@@ -0,0 +1,130 @@
+package com.tarun.repository;
+
+import com.tarun.model.Location;
+import com.tarun.model.Order;
+import com.tarun.model.OrderIds;
+import com.tarun.model.OrderState;
+import com.tarun.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColdOrderArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Every field of the order on one line, so a mismatch shows the whole row
+     */
+    private static String describe(Order order) {
+        OrderState state = order.getState();
+        return order.getId() + " " + order.getCustomerId() + " " + order.getItemId() + " " + order.getPickupLocation()
+                + " " + order.getCreatedAtMillis() + " " + state.getStatus() + " " + state.getAssignedDriverId()
+                + " " + state.getAssignedAtMillis() + " " + state.getPickedUpAtMillis()
+                + " " + state.getDeliveredAtMillis() + " v" + state.getVersion();
+    }
+
+    private static List<Order> batch(String prefix, int from, int to) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            long createdAt = 1_700_000_000_000L + i * 1_000L;
+            OrderState state = i % 3 == 0
+                    ? OrderState.restore(OrderStatus.CANCELLED, null, OrderState.NOT_SET, OrderState.NOT_SET,
+                            OrderState.NOT_SET, 1)
+                    : OrderState.restore(OrderStatus.DELIVERED, "D" + i % 4, createdAt + 5, createdAt + 60_000,
+                            createdAt + 900_000, 3);
+            Location pickup = i % 5 == 0 ? null : new Location(12.9 + i * 1e-4, 77.5 - i * 1e-4);
+            orders.add(Order.restore(OrderIds.format(prefix, i), "C" + i % 9, "ITEM00" + (1 + i % 3), pickup,
+                    createdAt, state));
+        }
+        // Segments sort their rows by key, appending out of order must not matter
+        Collections.shuffle(orders, new Random(from));
+        return orders;
+    }
+
+    @Test
+    void findsEveryArchivedOrderWithAllItsFields() throws IOException {
+        ColdOrderArchive archive = ColdOrderArchive.open(directory);
+        List<Order> first = batch("ORD", 0, 300);
+        List<Order> second = batch("SIM", 0, 200);
+        archive.append(first);
+        archive.append(second);
+
+        assertEquals(500, archive.size());
+        for (List<Order> orders : List.of(first, second)) {
+            for (Order order : orders) {
+                assertTrue(archive.contains(order.getId()));
+                Order found = archive.find(order.getId());
+                assertNotNull(found, order.getId());
+                assertEquals(describe(order), describe(found));
+            }
+        }
+        assertNull(archive.find(OrderIds.format("ORD", 300)));
+        assertFalse(archive.contains(OrderIds.format("OTHER", 1)));
+        assertFalse(archive.contains("not-an-order"));
+    }
+
+    @Test
+    void reopensWithTheSameContents() throws IOException {
+        ColdOrderArchive archive = ColdOrderArchive.open(directory);
+        archive.append(batch("ORD", 0, 100));
+        archive.append(batch("ORD", 100, 250));
+        // A crash during a later append leaves its temp file behind
+        Files.write(directory.resolve("orders-tmp"), new byte[] {1, 2, 3});
+
+        ColdOrderArchive reopened = ColdOrderArchive.open(directory);
+
+        assertFalse(Files.exists(directory.resolve("orders-tmp")));
+        assertEquals(250, reopened.size());
+        assertEquals(249, reopened.maxOrderNumber("ORD"));
+        assertEquals(-1, reopened.maxOrderNumber("SIM"));
+        // Counts by status are rebuilt from the segments
+        assertEquals(84, reopened.countByStatus(OrderStatus.CANCELLED));
+        assertEquals(166, reopened.countByStatus(OrderStatus.DELIVERED));
+        List<String> seen = new ArrayList<>();
+        reopened.forEach(order -> seen.add(describe(order)));
+        assertEquals(250, seen.size());
+        for (Order order : batch("ORD", 100, 250)) {
+            assertEquals(describe(order), describe(reopened.find(order.getId())));
+        }
+
+        // New segments continue after the existing ones instead of overwriting them
+        reopened.append(batch("ORD", 250, 260));
+        assertEquals(260, ColdOrderArchive.open(directory).size());
+    }
+
+    @Test
+    void repositoryResolvesOrdersAfterTheyMoveToTheArchive() throws IOException {
+        OrderRepository repository = new OrderRepository();
+        repository.openArchive(directory);
+        List<Order> orders = batch("ORD", 1, 51);
+        for (Order order : orders) {
+            repository.save(order);
+        }
+        assertEquals(50, repository.getCompactedCount());
+
+        int archived = repository.archiveFinishedBefore(Long.MAX_VALUE, 20);
+
+        assertEquals(20, archived);
+        assertEquals(30, repository.getCompactedCount());
+        assertEquals(20, repository.getArchivedCount());
+        for (Order order : orders) {
+            assertEquals(describe(order), describe(repository.findById(order.getId())));
+        }
+        assertEquals(50, repository.countByStatus(OrderStatus.CANCELLED) + repository.countByStatus(OrderStatus.DELIVERED));
+    }
+}
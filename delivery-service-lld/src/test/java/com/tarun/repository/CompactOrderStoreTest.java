@@ -0,0 +1,155 @@
+package com.tarun.repository;
+
+import com.tarun.model.Location;
+import com.tarun.model.Order;
+import com.tarun.model.OrderIds;
+import com.tarun.model.OrderState;
+import com.tarun.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactOrderStoreTest {
+
+    private static CompactOrderStore newStore() {
+        return new CompactOrderStore(new IdDictionary(), new IdDictionary(), new IdDictionary());
+    }
+
+    private static Order delivered(String id, String customerId, String driverId, long createdAtMillis) {
+        return Order.restore(id, customerId, "ITEM001", new Location(12.97, 77.59), createdAtMillis,
+                OrderState.restore(OrderStatus.DELIVERED, driverId, createdAtMillis + 10, createdAtMillis + 20,
+                        createdAtMillis + 30, 3));
+    }
+
+    private static Order cancelled(String id, String customerId, long createdAtMillis) {
+        return Order.restore(id, customerId, "ITEM002", null, createdAtMillis,
+                OrderState.restore(OrderStatus.CANCELLED, null, OrderState.NOT_SET, OrderState.NOT_SET,
+                        OrderState.NOT_SET, 1));
+    }
+
+    private static void assertSameOrder(Order expected, Order actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getCustomerId(), actual.getCustomerId());
+        assertEquals(expected.getItemId(), actual.getItemId());
+        assertEquals(expected.getCreatedAtMillis(), actual.getCreatedAtMillis());
+        assertEquals(String.valueOf(expected.getPickupLocation()), String.valueOf(actual.getPickupLocation()));
+        OrderState want = expected.getState();
+        OrderState got = actual.getState();
+        assertEquals(want.getStatus(), got.getStatus());
+        assertEquals(want.getAssignedDriverId(), got.getAssignedDriverId());
+        assertEquals(want.getAssignedAtMillis(), got.getAssignedAtMillis());
+        assertEquals(want.getPickedUpAtMillis(), got.getPickedUpAtMillis());
+        assertEquals(want.getDeliveredAtMillis(), got.getDeliveredAtMillis());
+        assertEquals(want.getVersion(), got.getVersion());
+    }
+
+    @Test
+    void rebuildsEveryFieldOfAStoredOrder() {
+        CompactOrderStore store = newStore();
+        Order delivered = delivered(OrderIds.format("ORD", 1), "C1", "D1", 1_000L);
+        Order cancelled = cancelled(OrderIds.format("ORD", 2), "C2", 2_000L);
+
+        assertTrue(store.add(delivered));
+        assertTrue(store.add(cancelled));
+
+        assertEquals(2, store.size());
+        assertSameOrder(delivered, store.find(delivered.getId()));
+        assertSameOrder(cancelled, store.find(cancelled.getId()));
+        assertNull(store.find(OrderIds.format("ORD", 3)));
+        assertNull(store.find(OrderIds.format("OTHER", 1)));
+    }
+
+    @Test
+    void rejectsIdsOutsideTheCanonicalFormat() {
+        CompactOrderStore store = newStore();
+
+        assertFalse(store.add(cancelled("custom-order", "C1", 1_000L)));
+        assertFalse(store.contains("custom-order"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void keepsStatusQueriesAndLookupsConsistentAcrossRemovals() {
+        CompactOrderStore store = newStore();
+        Map<String, Order> expected = new HashMap<>();
+        Random random = new Random(42);
+        List<String> ids = new ArrayList<>();
+
+        for (int round = 0; round < 20; round++) {
+            // Enough rows to grow the arrays past their initial 1024
+            for (int i = 0; i < 200; i++) {
+                String id = OrderIds.format(random.nextBoolean() ? "ORD" : "SIM", round * 200L + i);
+                Order order = random.nextBoolean() ? delivered(id, "C" + i % 7, "D" + i % 5, round * 1_000L + i)
+                        : cancelled(id, "C" + i % 7, round * 1_000L + i);
+                assertTrue(store.add(order));
+                expected.put(id, order);
+                ids.add(id);
+            }
+            List<Order> removed = new ArrayList<>();
+            for (int i = 0; i < 80; i++) {
+                String id = ids.remove(random.nextInt(ids.size()));
+                removed.add(expected.remove(id));
+            }
+            store.removeAll(removed);
+
+            assertEquals(expected.size(), store.size());
+            for (OrderStatus status : new OrderStatus[] {OrderStatus.DELIVERED, OrderStatus.CANCELLED}) {
+                Set<String> want = expected.values().stream().filter(o -> o.getStatus() == status)
+                        .map(Order::getId).collect(Collectors.toCollection(TreeSet::new));
+                Set<String> got = store.findByStatus(status).stream()
+                        .map(Order::getId).collect(Collectors.toCollection(TreeSet::new));
+                assertEquals(want, got, status + " rows after round " + round);
+            }
+            for (Order order : removed) {
+                assertFalse(store.contains(order.getId()));
+            }
+        }
+        for (Order order : expected.values()) {
+            assertSameOrder(order, store.find(order.getId()));
+        }
+        assertEquals(expected.size(), store.findAll().size());
+    }
+
+    @Test
+    void replacesTheRowOfAnOrderAddedTwice() {
+        CompactOrderStore store = newStore();
+        String id = OrderIds.format("ORD", 7);
+
+        store.add(cancelled(id, "C1", 1_000L));
+        store.add(delivered(id, "C1", "D1", 1_000L));
+
+        assertEquals(1, store.size());
+        assertEquals(0, store.findByStatus(OrderStatus.CANCELLED).size());
+        assertEquals(1, store.findByStatus(OrderStatus.DELIVERED).size());
+        assertEquals(OrderStatus.DELIVERED, store.find(id).getStatus());
+    }
+
+    @Test
+    void findsOrdersWhoseLastActivityIsBeforeTheCutoff() {
+        CompactOrderStore store = newStore();
+        for (int i = 1; i <= 10; i++) {
+            store.add(delivered(OrderIds.format("ORD", i), "C1", "D1", i * 1_000L));
+        }
+
+        // Delivered 30 ms after creation, so only orders created before 5970 qualify
+        List<Order> finished = store.findFinishedBefore(5_000L, 100);
+        assertEquals(4, finished.size());
+        assertEquals(2, store.findFinishedBefore(5_000L, 2).size());
+
+        store.removeAll(finished);
+        assertEquals(6, store.size());
+        assertEquals(0, store.findFinishedBefore(5_000L, 100).size());
+    }
+}
@@ -0,0 +1,153 @@
+package com.tarun.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DriverAvailabilityBitmapTest {
+
+    // Spans three chunks of 64K slots, so scans cross chunk boundaries
+    private static final int SLOTS = 150_000;
+
+    private static void runConcurrently(int threads, Runnable action) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> started = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                action.run();
+            });
+            thread.start();
+            started.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : started) {
+            thread.join();
+        }
+    }
+
+    @Test
+    void matchesABitSetUnderRandomUpdates() {
+        DriverAvailabilityBitmap bitmap = new DriverAvailabilityBitmap();
+        bitmap.ensureCapacity(SLOTS);
+        BitSet expected = new BitSet(SLOTS);
+        Random random = new Random(7);
+
+        for (int i = 0; i < 200_000; i++) {
+            int slot = random.nextInt(SLOTS);
+            if (random.nextBoolean()) {
+                bitmap.set(slot);
+                expected.set(slot);
+            } else {
+                assertEquals(expected.get(slot), bitmap.tryClear(slot));
+                expected.clear(slot);
+            }
+        }
+
+        assertEquals(expected.cardinality(), bitmap.cardinality());
+        int slot = bitmap.nextSetBit(0);
+        int want = expected.nextSetBit(0);
+        while (want >= 0) {
+            assertEquals(want, slot);
+            assertTrue(bitmap.get(slot));
+            slot = bitmap.nextSetBit(slot + 1);
+            want = expected.nextSetBit(want + 1);
+        }
+        assertEquals(-1, slot);
+    }
+
+    @Test
+    void findsBitsAcrossEmptyChunksAndAtTheEdges() {
+        DriverAvailabilityBitmap bitmap = new DriverAvailabilityBitmap();
+        assertEquals(-1, bitmap.nextSetBit(0), "an empty bitmap has no chunks");
+
+        bitmap.ensureCapacity(SLOTS);
+        bitmap.set(63);
+        bitmap.set(64);
+        bitmap.set(SLOTS - 1);
+
+        assertEquals(63, bitmap.nextSetBit(0));
+        assertEquals(64, bitmap.nextSetBit(64));
+        assertEquals(SLOTS - 1, bitmap.nextSetBit(65));
+        assertEquals(-1, bitmap.nextSetBit(SLOTS));
+        assertEquals(-1, bitmap.nextSetBit(-1));
+        assertEquals(3, bitmap.cardinality());
+    }
+
+    @Test
+    void growingKeepsExistingBits() {
+        DriverAvailabilityBitmap bitmap = new DriverAvailabilityBitmap();
+        bitmap.ensureCapacity(10);
+        bitmap.set(5);
+        bitmap.ensureCapacity(SLOTS);
+        bitmap.ensureCapacity(10);
+
+        assertTrue(bitmap.get(5));
+        bitmap.set(SLOTS - 1);
+        assertEquals(2, bitmap.cardinality());
+    }
+
+    @Test
+    void concurrentUpdatesToSharedWordsAreNotLost() throws InterruptedException {
+        DriverAvailabilityBitmap bitmap = new DriverAvailabilityBitmap();
+        bitmap.ensureCapacity(4_096);
+        AtomicInteger next = new AtomicInteger();
+
+        // Threads set interleaved slots, so every word is updated by several threads at once
+        runConcurrently(8, () -> {
+            int slot;
+            while ((slot = next.getAndIncrement()) < 4_096) {
+                bitmap.set(slot);
+            }
+        });
+        assertEquals(4_096, bitmap.cardinality());
+
+        next.set(0);
+        runConcurrently(8, () -> {
+            int slot;
+            while ((slot = next.getAndIncrement()) < 4_096) {
+                if (slot % 2 == 0) {
+                    bitmap.clear(slot);
+                }
+            }
+        });
+        assertEquals(2_048, bitmap.cardinality());
+        assertFalse(bitmap.get(0));
+        assertTrue(bitmap.get(1));
+    }
+
+    @Test
+    void racingClearsHaveExactlyOneWinnerPerBit() throws InterruptedException {
+        DriverAvailabilityBitmap bitmap = new DriverAvailabilityBitmap();
+        bitmap.ensureCapacity(1_024);
+        for (int slot = 0; slot < 1_024; slot++) {
+            bitmap.set(slot);
+        }
+        AtomicInteger wins = new AtomicInteger();
+
+        runConcurrently(8, () -> {
+            for (int slot = 0; slot < 1_024; slot++) {
+                if (bitmap.tryClear(slot)) {
+                    wins.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(1_024, wins.get());
+        assertEquals(0, bitmap.cardinality());
+        assertEquals(-1, bitmap.nextSetBit(0));
+    }
+}
@@ -0,0 +1,164 @@
+package com.tarun.repository;
+
+import com.tarun.model.Driver;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DriverRepositoryTest {
+
+    private static void runConcurrently(int threads, Runnable action) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> started = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                action.run();
+            });
+            thread.start();
+            started.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : started) {
+            thread.join();
+        }
+    }
+
+    private static int countAvailable(List<Driver> drivers) {
+        int available = 0;
+        for (Driver driver : drivers) {
+            if (driver.isAvailable()) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    private static int countIdle(List<Driver> drivers) {
+        int idle = 0;
+        for (Driver driver : drivers) {
+            if (driver.isIdle()) {
+                idle++;
+            }
+        }
+        return idle;
+    }
+
+    @Test
+    void idleCountExcludesPartlyLoadedDrivers() {
+        DriverRepository repository = new DriverRepository();
+        Driver idle = new Driver("D1", "Idle", 2, 0L);
+        Driver partlyLoaded = new Driver("D2", "Partly loaded", 2, 0L);
+        Driver full = new Driver("D3", "Full", 1, 0L);
+        Driver offDuty = new Driver("D4", "Off duty", 2, 0L);
+        repository.save(idle);
+        repository.save(partlyLoaded);
+        repository.save(full);
+        repository.save(offDuty);
+        partlyLoaded.tryClaim("O1");
+        full.tryClaim("O2");
+        offDuty.setAvailable(false, 0L);
+
+        assertEquals(2, repository.countAvailableDrivers());
+        assertEquals(1, repository.countIdleDrivers());
+
+        partlyLoaded.release("O1", 1L);
+        assertEquals(2, repository.countIdleDrivers());
+        repository.remove("D1");
+        assertEquals(1, repository.countIdleDrivers());
+        assertEquals(1, repository.countAvailableDrivers());
+    }
+
+    @Test
+    void availabilityIndexFollowsConcurrentDriverChanges() throws InterruptedException {
+        DriverRepository repository = new DriverRepository();
+        List<Driver> drivers = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Driver driver = new Driver("D" + i, "Driver " + i, 1 + i % 3, 0L);
+            repository.save(driver);
+            drivers.add(driver);
+        }
+        // Removed and saved again, so some drivers reuse freed slots
+        for (int i = 0; i < drivers.size(); i += 7) {
+            repository.remove(drivers.get(i).getId());
+        }
+        for (int i = 0; i < drivers.size(); i += 14) {
+            repository.save(drivers.get(i));
+        }
+        AtomicInteger seeds = new AtomicInteger();
+
+        runConcurrently(8, () -> {
+            Random random = new Random(seeds.incrementAndGet());
+            for (int k = 0; k < 50_000; k++) {
+                Driver driver = drivers.get(random.nextInt(drivers.size()));
+                String orderId = "O" + random.nextInt(4);
+                switch (random.nextInt(4)) {
+                    case 0:
+                        driver.tryClaim(orderId);
+                        break;
+                    case 1:
+                        driver.release(orderId, k);
+                        break;
+                    case 2:
+                        driver.setAvailable(random.nextInt(4) != 0, k);
+                        break;
+                    default:
+                        driver.setCapacity(1 + random.nextInt(3), k);
+                }
+            }
+        });
+
+        List<Driver> stored = repository.getAllDrivers();
+        assertEquals(countAvailable(stored), repository.countAvailableDrivers());
+        assertEquals(countIdle(stored), repository.countIdleDrivers());
+        assertEquals(countAvailable(stored), repository.findAvailableDrivers().size());
+        for (Driver driver : repository.findAvailableDrivers()) {
+            assertTrue(driver.isAvailable());
+        }
+    }
+
+    @Test
+    void concurrentIdleClaimsNeverReturnTheSameDriver() throws InterruptedException {
+        DriverRepository repository = new DriverRepository();
+        for (int i = 0; i < 1_000; i++) {
+            Driver driver = new Driver("D" + i, "Driver " + i, 2, 0L);
+            repository.save(driver);
+            // Partly loaded drivers still have a free slot but are not idle
+            if (i % 4 == 0) {
+                driver.tryClaim("O" + i);
+            }
+        }
+        Set<Driver> claimed = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+
+        runConcurrently(8, () -> {
+            Driver driver;
+            while ((driver = repository.claimIdleDriver()) != null) {
+                if (!claimed.add(driver)) {
+                    duplicates.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(0, duplicates.get());
+        assertEquals(750, claimed.size());
+        for (Driver driver : claimed) {
+            assertTrue(!driver.isAvailable() && driver.getActiveOrderIds().isEmpty());
+        }
+        assertEquals(250, repository.countAvailableDrivers());
+        assertEquals(0, repository.countIdleDrivers());
+    }
+}
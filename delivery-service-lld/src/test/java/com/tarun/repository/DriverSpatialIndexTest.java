@@ -0,0 +1,96 @@
+package com.tarun.repository;
+
+import com.tarun.model.Driver;
+import com.tarun.model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DriverSpatialIndexTest {
+
+    private final DriverRepository repository = new DriverRepository();
+    private final DriverSpatialIndex index = new DriverSpatialIndex(repository, 0.01, 50);
+
+    private Driver addDriver(String id, Location location) {
+        Driver driver = new Driver(id, "Driver " + id, 0L);
+        driver.setLocation(location);
+        repository.save(driver);
+        index.add(driver);
+        return driver;
+    }
+
+    @Test
+    void returnsEveryDriverOfASmallFleetNearestFirst() {
+        Driver far = addDriver("D1", new Location(13.50, 77.60));
+        Driver near = addDriver("D2", new Location(12.98, 77.60));
+        Driver unlocated = addDriver("D3", null);
+
+        List<Driver> found = index.findNearest(new Location(12.97, 77.60), 5);
+
+        assertEquals(3, found.size());
+        assertSame(near, found.get(0));
+        assertSame(far, found.get(1));
+        assertSame(unlocated, found.get(2));
+    }
+
+    @Test
+    void findsDriversBeyondTheRingLimit() {
+        // About 850 km away, far past 50 rings of 0.01 degrees
+        Driver far = addDriver("D1", new Location(19.07, 72.87));
+
+        List<Driver> found = index.findNearest(new Location(12.97, 77.59), 3);
+
+        assertEquals(1, found.size());
+        assertSame(far, found.get(0));
+    }
+
+    @Test
+    void matchesABruteForceSearch() {
+        Random random = new Random(11);
+        for (int fleet : new int[] {1, 4, 30, 400}) {
+            DriverRepository fleetRepository = new DriverRepository();
+            DriverSpatialIndex fleetIndex = new DriverSpatialIndex(fleetRepository, 0.01, 50);
+            List<Driver> drivers = new ArrayList<>();
+            for (int i = 0; i < fleet; i++) {
+                Driver driver = new Driver("D" + i, "Driver " + i, 0L);
+                // Mostly within a city, some far outside the ring limit
+                double spread = i % 5 == 0 ? 5.0 : 0.2;
+                driver.setLocation(new Location(12.9 + random.nextDouble() * spread, 77.5 + random.nextDouble() * spread));
+                fleetRepository.save(driver);
+                fleetIndex.add(driver);
+                drivers.add(driver);
+            }
+            for (int query = 0; query < 50; query++) {
+                Location pickup = new Location(12.9 + random.nextDouble() * 0.3, 77.5 + random.nextDouble() * 0.3);
+                drivers.sort(Comparator.comparingDouble(d -> pickup.distanceKm(d.getLocation())));
+
+                List<Driver> found = fleetIndex.findNearest(pickup, 5);
+
+                assertEquals(Math.min(5, fleet), found.size());
+                for (int i = 0; i < found.size(); i++) {
+                    assertSame(drivers.get(i), found.get(i), "fleet " + fleet + ", query " + query + ", rank " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    void movedAndRemovedDriversAreFoundWhereTheyAreNow() {
+        Driver moving = addDriver("D1", new Location(12.97, 77.60));
+        Driver staying = addDriver("D2", new Location(12.99, 77.60));
+
+        moving.setLocation(new Location(13.30, 77.60));
+        index.add(moving);
+        assertSame(staying, index.findNearest(new Location(12.97, 77.60), 1).get(0));
+
+        index.remove("D2");
+        assertEquals(List.of(moving), index.findNearest(new Location(12.97, 77.60), 2));
+        assertEquals(1, index.size());
+    }
+}
@@ -0,0 +1,63 @@
+package com.tarun.repository;
+
+import com.tarun.model.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderHistoryIndexTest {
+
+    private static List<String> ids(List<OrderHistoryIndex.Entry> entries) {
+        List<String> ids = new ArrayList<>();
+        for (OrderHistoryIndex.Entry entry : entries) {
+            ids.add(entry.getOrderId());
+        }
+        return ids;
+    }
+
+    @Test
+    void pagesNewestFirstWithTiesByDescendingId() {
+        OrderHistoryIndex index = new OrderHistoryIndex();
+        index.add("C1", new Order("O1", "C1", "ITEM001", null, 1_000L));
+        index.add("C1", new Order("O3", "C1", "ITEM001", null, 2_000L));
+        index.add("C1", new Order("O2", "C1", "ITEM001", null, 2_000L));
+        index.add("C1", new Order("O4", "C1", "ITEM001", null, 3_000L));
+        index.add("C2", new Order("O5", "C2", "ITEM001", null, 4_000L));
+
+        assertEquals(List.of("O4", "O3", "O2", "O1"), ids(index.page("C1", 0, null, 10)));
+        assertEquals(List.of("O4", "O3"), ids(index.page("C1", 0, null, 2)));
+        assertEquals(List.of("O2", "O1"), ids(index.page("C1", 2_000L, "O3", 10)));
+        assertEquals(List.of("O5"), ids(index.page("C2", 0, null, 10)));
+        assertTrue(index.page("C3", 0, null, 10).isEmpty());
+    }
+
+    @Test
+    void addingAnOrderTwiceKeepsOneEntry() {
+        OrderHistoryIndex index = new OrderHistoryIndex();
+        Order order = new Order("O1", "C1", "ITEM001", null, 1_000L);
+        index.add("C1", order);
+        index.add("C1", order);
+
+        assertEquals(1, index.page("C1", 0, null, 10).size());
+    }
+
+    @Test
+    void positionsStayValidWhileOrdersAreAdded() {
+        OrderHistoryIndex index = new OrderHistoryIndex();
+        for (int i = 0; i < 10; i++) {
+            index.add("C1", new Order("O" + i, "C1", "ITEM001", null, 1_000L + i));
+        }
+        OrderHistoryIndex.Entry last = index.page("C1", 0, null, 5).get(4);
+
+        // Newer orders land before the position, older ones after it
+        index.add("C1", new Order("O10", "C1", "ITEM001", null, 5_000L));
+        index.add("C1", new Order("O11", "C1", "ITEM001", null, 500L));
+
+        assertEquals(List.of("O4", "O3", "O2", "O1", "O0", "O11"),
+                ids(index.page("C1", last.getCreatedAtMillis(), last.getOrderId(), 10)));
+    }
+}
@@ -0,0 +1,132 @@
+package com.tarun.repository;
+
+import com.tarun.model.Order;
+import com.tarun.model.OrderIds;
+import com.tarun.model.OrderPage;
+import com.tarun.model.OrderState;
+import com.tarun.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private static List<String> readAllPages(OrderRepository repository, String customerId, int limit) {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            OrderPage page = repository.findByCustomer(customerId, cursor, limit);
+            if (!page.isLastPage()) {
+                assertEquals(limit, page.getOrders().size(), "only the last page may be short");
+            }
+            for (Order order : page.getOrders()) {
+                ids.add(order.getId());
+            }
+            cursor = page.getNextCursor();
+            assertTrue(++pages < 1_000, "paging must terminate");
+        } while (cursor != null);
+        return ids;
+    }
+
+    private static Order cancelled(String orderId, String customerId, long createdAtMillis) {
+        return Order.restore(orderId, customerId, "ITEM001", null, createdAtMillis,
+                OrderState.restore(OrderStatus.CANCELLED, null, OrderState.NOT_SET, OrderState.NOT_SET,
+                        OrderState.NOT_SET, 1));
+    }
+
+    /**
+     * Archives the orders, followed by an unrelated segment so theirs is not the one kept decoded
+     */
+    private void archiveAndLose(List<Order> orders) throws IOException {
+        ColdOrderArchive archive = ColdOrderArchive.open(directory);
+        archive.append(orders);
+        archive.append(List.of(cancelled(OrderIds.format("ORD", 1_000), "C9", 1_000L)));
+    }
+
+    private void deleteArchiveSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path segment : files.collect(Collectors.toList())) {
+                Files.delete(segment);
+            }
+        }
+    }
+
+    @Test
+    void pagesThroughTheWholeHistoryNewestFirst() {
+        OrderRepository repository = new OrderRepository();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            // Pairs of orders share a creation time, the ID breaks the tie
+            repository.save(new Order(OrderIds.format("ORD", i), "C1", "ITEM001", null, 1_000L + i / 2));
+            expected.add(0, OrderIds.format("ORD", i));
+        }
+        repository.save(new Order(OrderIds.format("ORD", 99), "C2", "ITEM001", null, 1_000L));
+
+        for (int limit : new int[] {1, 4, 5, 23, 50}) {
+            assertEquals(expected, readAllPages(repository, "C1", limit), "page size " + limit);
+        }
+    }
+
+    @Test
+    void skipsOrdersThatNoLongerResolveWithoutShortPages() throws IOException {
+        // Every third order of the customer lives in an archive segment that is lost after opening
+        List<Order> lost = new ArrayList<>();
+        List<Order> live = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Order order = cancelled(OrderIds.format("ORD", i), "C1", 1_000L + i);
+            (i % 3 == 0 ? lost : live).add(order);
+        }
+        archiveAndLose(lost);
+
+        OrderRepository repository = new OrderRepository();
+        repository.openArchive(directory);
+        for (Order order : live) {
+            repository.save(order);
+        }
+        deleteArchiveSegments();
+        assertNull(repository.findById(lost.get(0).getId()));
+
+        List<String> expected = new ArrayList<>();
+        for (int i = live.size() - 1; i >= 0; i--) {
+            expected.add(live.get(i).getId());
+        }
+        for (int limit : new int[] {1, 2, 3, 7, 40}) {
+            assertEquals(expected, readAllPages(repository, "C1", limit), "page size " + limit);
+        }
+    }
+
+    @Test
+    void aPageOfOnlyUnresolvedOrdersEndsTheHistory() throws IOException {
+        List<Order> lost = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            lost.add(cancelled(OrderIds.format("ORD", i), "C1", 1_000L + i));
+        }
+        archiveAndLose(lost);
+        OrderRepository repository = new OrderRepository();
+        repository.openArchive(directory);
+        repository.save(new Order(OrderIds.format("ORD", 10), "C1", "ITEM001", null, 2_000L));
+        deleteArchiveSegments();
+
+        OrderPage first = repository.findByCustomer("C1", null, 1);
+        assertEquals(List.of(OrderIds.format("ORD", 10)),
+                first.getOrders().stream().map(Order::getId).collect(Collectors.toList()));
+        OrderPage rest = repository.findByCustomer("C1", first.getNextCursor(), 2);
+        assertTrue(rest.getOrders().isEmpty());
+        assertTrue(rest.isLastPage());
+    }
+}
@@ -0,0 +1,192 @@
+package com.tarun.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncNotificationServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Stub gateway that also remembers every message it sent, in send order
+     */
+    private static class RecordingGateway extends StubNotificationGateway {
+        private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        RecordingGateway(long batchLatencyMillis) {
+            super(batchLatencyMillis, 0);
+        }
+
+        @Override
+        public void sendBatch(NotificationChannel channel, List<Notification> batch) throws Exception {
+            super.sendBatch(channel, batch);
+            batchSizes.add(batch.size());
+            for (Notification notification : batch) {
+                sent.add(notification.getMessage());
+            }
+        }
+    }
+
+    @Test
+    void groupsQueuedNotificationsIntoBatchesOfAtMostMaxBatchSize() {
+        RecordingGateway gateway = new RecordingGateway(20);
+        AsyncNotificationService service = new AsyncNotificationService(gateway, 1_000, 10, BackpressurePolicy.DROP, null);
+
+        for (int i = 0; i < 100; i++) {
+            service.sendEmail("customer@example.com", "Order update", "message-" + i);
+        }
+        service.shutdown();
+
+        assertEquals(100, gateway.getMessagesSent());
+        assertTrue(gateway.getBatchesSent() < 100, "notifications should have been batched");
+        for (int size : gateway.batchSizes) {
+            assertTrue(size <= 10, "batch of " + size + " exceeds maxBatchSize");
+        }
+    }
+
+    @Test
+    void sendsPartialBatchWithinFlushInterval() throws InterruptedException {
+        StubNotificationGateway gateway = new StubNotificationGateway(0, 0);
+        AsyncNotificationService service = new AsyncNotificationService(gateway, 100, 64, BackpressurePolicy.DROP, null);
+
+        service.sendSMS("+15550100", "Driver is on the way");
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+        while (gateway.getMessagesSent() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, gateway.getMessagesSent(), "a lone notification must not wait for the batch to fill");
+        service.shutdown();
+    }
+
+    @Test
+    void dropPolicyDiscardsNotificationsWhenQueueIsFull() {
+        StubNotificationGateway gateway = new StubNotificationGateway(200, 0);
+        AsyncNotificationService service = new AsyncNotificationService(gateway, 4, 1, BackpressurePolicy.DROP, null);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            service.sendEmail("customer@example.com", "Order update", "message-" + i);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        service.shutdown();
+
+        assertTrue(elapsedMillis < 200, "DROP must not block the caller");
+        assertTrue(service.getDroppedCount() > 0);
+        assertEquals(20, service.getDeliveredCount() + service.getDroppedCount());
+        assertEquals(service.getDeliveredCount(), gateway.getMessagesSent());
+    }
+
+    @Test
+    void spillPolicyReplaysOverflowInSendOrder() {
+        RecordingGateway gateway = new RecordingGateway(20);
+        AsyncNotificationService service = new AsyncNotificationService(gateway, 4, 2,
+                BackpressurePolicy.SPILL_TO_DISK, tempDir.resolve("notifications.spill"));
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            expected.add("message-" + i);
+            service.sendEmail("customer@example.com", "Order update", "message-" + i);
+        }
+        service.shutdown();
+
+        assertTrue(service.getSpilledCount() > 0);
+        assertEquals(0, service.getDroppedCount());
+        assertEquals(50, service.getDeliveredCount());
+        assertEquals(expected, gateway.sent);
+    }
+
+    @Test
+    void spillPolicyKeepsEachProducersOrderUnderContention() throws InterruptedException {
+        RecordingGateway gateway = new RecordingGateway(1);
+        AsyncNotificationService service = new AsyncNotificationService(gateway, 8, 4,
+                BackpressurePolicy.SPILL_TO_DISK, tempDir.resolve("notifications.spill"));
+
+        int producers = 4;
+        int perProducer = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String producer = "producer-" + p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    service.sendSMS("+15550100", producer + ":" + i);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        service.shutdown();
+
+        assertTrue(service.getSpilledCount() > 0);
+        assertEquals(producers * perProducer, service.getDeliveredCount());
+        int[] next = new int[producers];
+        for (String message : gateway.sent) {
+            int producer = Integer.parseInt(message.substring("producer-".length(), message.indexOf(':')));
+            assertEquals(next[producer]++, Integer.parseInt(message.substring(message.indexOf(':') + 1)),
+                    "out of order for " + message);
+        }
+    }
+
+    @Test
+    void blockPolicyHoldsTheCallerUntilASlotFrees() throws InterruptedException {
+        StubNotificationGateway gateway = new StubNotificationGateway(100, 0);
+        AsyncNotificationService service = new AsyncNotificationService(gateway, 2, 1, BackpressurePolicy.BLOCK, null);
+
+        CountDownLatch done = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 6; i++) {
+                service.sendEmail("customer@example.com", "Order update", "message-" + i);
+            }
+            done.countDown();
+        });
+        producer.start();
+
+        assertFalse(done.await(50, TimeUnit.MILLISECONDS), "producer should block while the queue is full");
+        assertTrue(done.await(5, TimeUnit.SECONDS), "producer should resume as the dispatcher drains");
+        service.shutdown();
+
+        assertEquals(0, service.getDroppedCount());
+        assertEquals(6, service.getDeliveredCount());
+    }
+
+    @Test
+    void shutdownDrainsEverythingAlreadyQueued() {
+        StubNotificationGateway gateway = new StubNotificationGateway(5, 0);
+        AsyncNotificationService service = new AsyncNotificationService(gateway, 1_000, 8, BackpressurePolicy.DROP, null);
+
+        for (int i = 0; i < 200; i++) {
+            service.sendSMS("+15550100", "message-" + i);
+        }
+        service.shutdown();
+
+        assertEquals(200, service.getEnqueuedCount());
+        assertEquals(200, service.getDeliveredCount());
+        assertEquals(0, service.getQueueDepth());
+
+        service.sendSMS("+15550100", "after shutdown");
+        assertEquals(1, service.getDroppedCount());
+    }
+}
@@ -0,0 +1,74 @@
+package com.tarun.service;
+
+import com.tarun.model.Order;
+import com.tarun.model.PriorityClass;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PendingOrderQueueTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private static Order order(String id, long createdAtMillis) {
+        return new Order(id, "C1", "I1", null, createdAtMillis);
+    }
+
+    private static List<String> drain(PendingOrderQueue queue) {
+        List<String> polled = new ArrayList<>();
+        String orderId;
+        while ((orderId = queue.poll()) != null) {
+            polled.add(orderId);
+        }
+        return polled;
+    }
+
+    @Test
+    void urgentOrdersOvertakeOnlyWithinTheirHeadStart() {
+        PendingOrderQueue queue = new PendingOrderQueue();
+        queue.offer(order("N1", 0), PriorityClass.NORMAL);
+        queue.offer(order("N2", 5 * MINUTE), PriorityClass.NORMAL);
+        queue.offer(order("U1", 12 * MINUTE), PriorityClass.URGENT);
+        queue.offer(order("H1", 4 * MINUTE), PriorityClass.HIGH);
+
+        assertEquals(List.of("N1", "H1", "U1", "N2"), drain(queue));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void lateArrivingOlderOrderDoesNotJumpTheLevelTail() {
+        PendingOrderQueue queue = new PendingOrderQueue();
+        // N2 was created first but reached the queue after N1, as with two racing placers
+        queue.offer(order("N1", 10 * MINUTE), PriorityClass.NORMAL);
+        queue.offer(order("N2", 0), PriorityClass.NORMAL);
+        queue.offer(order("H1", 12 * MINUTE), PriorityClass.HIGH);
+
+        // N2 is ranked level with N1, so H1 still goes ahead of both
+        assertEquals(List.of("H1", "N1", "N2"), drain(queue));
+    }
+
+    @Test
+    void ordersPutBackKeepTheirPlaceAheadOfTheirLevel() {
+        PendingOrderQueue queue = new PendingOrderQueue();
+        Order first = order("N1", 0);
+        Order second = order("N2", MINUTE);
+        queue.offer(first, PriorityClass.NORMAL);
+        queue.offer(second, PriorityClass.NORMAL);
+        queue.offer(order("N3", 2 * MINUTE), PriorityClass.NORMAL);
+
+        assertEquals("N1", queue.poll());
+        assertEquals("N2", queue.poll());
+        queue.offerFirst(second, PriorityClass.NORMAL);
+        queue.offerFirst(first, PriorityClass.NORMAL);
+        queue.offer(order("N4", MINUTE / 2), PriorityClass.NORMAL);
+
+        assertEquals(List.of("N1", "N2", "N3", "N4"), drain(queue));
+        assertNull(queue.poll());
+    }
+}
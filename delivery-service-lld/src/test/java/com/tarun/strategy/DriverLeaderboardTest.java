@@ -0,0 +1,102 @@
+package com.tarun.strategy;
+
+import com.tarun.model.Driver;
+import com.tarun.repository.DriverRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DriverLeaderboardTest {
+
+    private static final int DRIVERS = 5_000;
+
+    private static DriverRepository repositoryWithRatedDrivers() {
+        DriverRepository repository = new DriverRepository();
+        for (int i = 0; i < DRIVERS; i++) {
+            Driver driver = new Driver("D" + i, "Driver " + i, 1, 0L);
+            repository.save(driver);
+            driver.incrementCompletedOrders();
+            driver.addRating(1 + i % 5, 0L);
+        }
+        return repository;
+    }
+
+    @Test
+    void concurrentFirstReadersNeverSeeAPartlyBuiltIndex() throws InterruptedException {
+        DriverLeaderboard leaderboard = new DriverLeaderboard(repositoryWithRatedDrivers());
+        leaderboard.start();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger shortReads = new AtomicInteger();
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (leaderboard.topDrivers(new RatingRankingStrategy(), DRIVERS).size() != DRIVERS) {
+                    shortReads.incrementAndGet();
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        start.countDown();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertEquals(0, shortReads.get());
+        leaderboard.close();
+    }
+
+    @Test
+    void changesRacingTheBackfillAreKept() throws InterruptedException {
+        DriverRepository repository = repositoryWithRatedDrivers();
+        DriverLeaderboard leaderboard = new DriverLeaderboard(repository);
+        leaderboard.start();
+        List<Driver> drivers = repository.getAllDrivers();
+
+        Thread rater = new Thread(() -> {
+            for (int round = 0; round < 3; round++) {
+                for (Driver driver : drivers) {
+                    driver.addRating(driver.getId().hashCode() % 2 == 0 ? 5 : 1, 0L);
+                }
+            }
+        });
+        rater.start();
+        leaderboard.topDrivers(new RatingRankingStrategy(), 1);
+        rater.join();
+
+        List<Driver> expected = new ArrayList<>(drivers);
+        expected.sort(Comparator.comparingDouble(Driver::getAverageRating).reversed()
+                .thenComparing(Driver::getId));
+        assertEquals(expected, leaderboard.topDrivers(new RatingRankingStrategy(), DRIVERS));
+        leaderboard.close();
+    }
+
+    @Test
+    void closedLeaderboardStopsFollowingTheRepository() {
+        DriverRepository repository = new DriverRepository();
+        Driver driver = new Driver("D1", "Driver 1", 1, 0L);
+        repository.save(driver);
+        DriverLeaderboard leaderboard = new DriverLeaderboard(repository);
+        leaderboard.start();
+
+        assertEquals(0, leaderboard.topDrivers(new OrderCountRankingStrategy(), 10).size());
+        driver.incrementCompletedOrders();
+        assertEquals(List.of(driver), leaderboard.topDrivers(new OrderCountRankingStrategy(), 10));
+
+        leaderboard.close();
+        leaderboard.remove("D1");
+        driver.incrementCompletedOrders();
+        assertEquals(0, leaderboard.topDrivers(new OrderCountRankingStrategy(), 10).size());
+    }
+}
@@ -0,0 +1,111 @@
+package com.tarun.timer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedWheelTimerTest {
+
+    @Test
+    void runsTimeoutsNoEarlierThanTheirDelay() throws InterruptedException {
+        HashedWheelTimer timer = new HashedWheelTimer("test", 5, TimeUnit.MILLISECONDS, 8);
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        long[] firedAfter = new long[1];
+
+        // Longer than one revolution of 8 x 5ms, so the timeout has to wait out its rounds
+        WheelTimeout timeout = timer.newTimeout(() -> {
+            firedAfter[0] = System.nanoTime() - start;
+            fired.countDown();
+        }, 100, TimeUnit.MILLISECONDS);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        timer.stop();
+        assertTrue(firedAfter[0] >= TimeUnit.MILLISECONDS.toNanos(100), "fired after " + firedAfter[0] + "ns");
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel(), "an expired timeout can no longer be cancelled");
+    }
+
+    @Test
+    void cancelledTimeoutsNeverRun() throws InterruptedException {
+        HashedWheelTimer timer = new HashedWheelTimer("test", 5, TimeUnit.MILLISECONDS, 16);
+        AtomicInteger runs = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(runs::incrementAndGet);
+        }
+
+        List<WheelTimeout> timeouts = timer.newTimeouts(tasks, 30, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < timeouts.size(); i += 2) {
+            assertTrue(timeouts.get(i).cancel());
+            assertFalse(timeouts.get(i).cancel(), "a timeout is cancelled only once");
+        }
+        Thread.sleep(200);
+        timer.stop();
+
+        assertEquals(50, runs.get());
+        for (int i = 0; i < timeouts.size(); i++) {
+            assertEquals(i % 2 == 0, timeouts.get(i).isCancelled());
+            assertEquals(i % 2 != 0, timeouts.get(i).isExpired());
+        }
+    }
+
+    @Test
+    void cancelRacingExpiryEitherWinsOrTheTaskRunsExactlyOnce() throws InterruptedException {
+        HashedWheelTimer timer = new HashedWheelTimer("test", 1, TimeUnit.MILLISECONDS, 64);
+        int count = 2_000;
+        AtomicIntegerArray runs = new AtomicIntegerArray(count);
+        List<WheelTimeout> timeouts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            timeouts.add(timer.newTimeout(() -> runs.incrementAndGet(index), i % 20, TimeUnit.MILLISECONDS));
+        }
+
+        boolean[] cancelled = new boolean[count];
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(20);
+        for (int i = 0; i < count; i++) {
+            // Spread the cancels over the same window in which the timeouts fall due
+            while (System.nanoTime() < deadline - TimeUnit.MILLISECONDS.toNanos(20) * (count - i) / count) {
+                Thread.onSpinWait();
+            }
+            cancelled[i] = timeouts.get(i).cancel();
+        }
+        Thread.sleep(200);
+        timer.stop();
+
+        int cancelledCount = 0;
+        for (int i = 0; i < count; i++) {
+            WheelTimeout timeout = timeouts.get(i);
+            assertTrue(timeout.isCancelled() != timeout.isExpired(), "timeout " + i + " must end in exactly one state");
+            assertEquals(cancelled[i], timeout.isCancelled());
+            assertEquals(cancelled[i] ? 0 : 1, runs.get(i), "timeout " + i);
+            if (cancelled[i]) {
+                cancelledCount++;
+            }
+        }
+        assertTrue(cancelledCount > 0, "some cancels should have beaten expiry");
+    }
+
+    @Test
+    void rejectsNewTimeoutsAfterStop() {
+        HashedWheelTimer timer = new HashedWheelTimer("test", 5, TimeUnit.MILLISECONDS, 8);
+        timer.stop();
+
+        boolean rejected = false;
+        try {
+            timer.newTimeout(() -> { }, 1, TimeUnit.MILLISECONDS);
+        } catch (IllegalStateException e) {
+            rejected = true;
+        }
+        assertTrue(rejected);
+    }
+}